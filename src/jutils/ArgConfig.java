@@ -0,0 +1,421 @@
+package jutils;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The ArgConfig class gathers argument values from a configuration file
+ * and from environment variables, so that the arguments defined in an
+ * Args instance can be filled from them as well as from the command line
+ * (see Args.parseArgs(ArgConfig, String[])).<p>
+ * The sources are combined in the order:  configuration file, environment
+ * variables, command line arguments. When an argument is given by more than
+ * one source, the later one wins, so the command line overrides the
+ * environment, which overrides the file. The sources are merged argument
+ * by argument before any value is converted, so a value that is overridden
+ * is never checked.<p>
+ * The configuration file has one argument per line, as
+ * <code>arg = value</code>, for example <code>-t = 30</code>. A Boolean
+ * argument may be given without a value to use its default. Empty lines
+ * and lines starting with "*" are skipped.<p>
+ * The environment variable for an argument is the prefix followed by the
+ * argument in upper case, without its leading "-", and with any other
+ * character that is not a letter or digit changed to "_". With a prefix of
+ * "MYAPP_", the argument "-max-rows" is read from MYAPP_MAX_ROWS.<p>
+ * The file is only read again when its modified time or size changes;
+ * otherwise the values read last time are used.
+ *
+ */
+
+public class ArgConfig {
+
+    private   static final String  version  = "Version 14.80";
+    private   static final String  dFlag    = DebugInfo.DB_ARGS;
+    private   static final String  dPreFix  = "ArgConfig:";
+
+    // configuration file comment lines start with this
+    static public final String  AC_COMMENT  = "*";
+    // separates the argument from its value
+    static public final String  AC_SEP      = "=";
+
+    // passed values
+    private final String   fileName;     // configuration file, or null
+    private final String   envPrefix;    // environment prefix, or null
+    private Map<String, String> env      = System.getenv();
+
+    // the file's values, as read last time
+    private long           fileTime   = -1;
+    private long           fileSize   = -1;
+    private List<String>   fileTokens = new ArrayList<String>();
+    private int            fileReads  = 0;
+
+    // support classes
+    private Errs           err        = new Errs();
+    private Trace          TR;
+    private DebugHandle    dbg;                    // TR's flag for dFlag
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+    /**
+     * Constructor for ArgConfig, the file and environment argument sources
+     *
+     * @param configFile String value of the configuration file name, or
+     *                   null if there is none
+     * @param prefix String value of the environment variable prefix, or
+     *                   null if the environment is not used
+     * @param tr instantiated Trace class for tracing debugging errors
+     */
+    public ArgConfig(String configFile, String prefix, Trace tr) {
+    	fileName  = configFile;
+    	envPrefix = prefix;
+    	TR        = tr;
+    	dbg       = (TR == null) ? null : TR.debugHandle(dFlag);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error results
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the most recent error information
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public synchronized Errs getErrs() {
+        return new Errs(err);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Access to private variable Methods
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the configuration file name
+     *
+     * @return String value of the file name, or null if there is none
+     */
+    public String fileName() {
+    	return fileName;
+    }
+
+    /**
+     * Returns the number of times the configuration file has been read
+     *
+     * @return int value of the number of reads
+     */
+    public synchronized int fileReads() {
+    	return fileReads;
+    }
+
+    /**
+     * Replaces the environment variables read, System.getenv() by default.
+     *
+     * @param environment Map of the environment variable names and values
+     */
+    public synchronized void setEnvironment(Map<String, String> environment) {
+    	env = environment;
+    }
+
+    /**
+     * Returns if the configuration file has changed (or appeared, or gone)
+     * since it was last read
+     *
+     * @return boolean <code>true</code> if it has changed,
+     *                 otherwise <code>false</code>
+     */
+    public synchronized boolean fileChanged() {
+    	if (fileName == null) return false;
+    	File f = new File(fileName);
+    	return f.lastModified() != fileTime || f.length() != fileSize;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Combining the sources
+    //-------------------------------------------------------------------------
+    /**
+     * An argument as given by one of the sources, with its value if one
+     * followed it
+     *
+     * @param <K> type of the argument definitions, see given()
+     */
+    static final class Given<K> {
+    	final K       arg;      // definition, or null if not defined
+    	final String  token;    // argument as given
+    	final String  value;    // next token, or null if there was none
+    	final int     idx;      // index in its source
+
+    	Given(K arg, String token, String value, int idx) {
+    		this.arg   = arg;
+    		this.token = token;
+    		this.value = value;
+    		this.idx   = idx;
+    	}
+    }
+
+    /**
+     * Returns the arguments given by all of the sources, merged by
+     * argument:  the configuration file, the environment variables and then
+     * the command line arguments. An argument given more than once appears
+     * once, where it was first given, with the value given last, so only
+     * the value that wins is ever converted. Tokens that are not defined
+     * arguments are all kept, in order.<p>
+     * A missing configuration file is not an error; a warning is set (see
+     * getErrs()) and the file is skipped.
+     *
+     * @param <K> type of the argument definitions
+     * @param argNames Collection of the defined arguments, used to find
+     *                 their environment variables
+     * @param lookup Function returning the definition of a token, or null
+     *                 if it is not a defined argument
+     * @param clArgs String array of command line arguments, or null
+     * @return List of the arguments given, or null if the configuration
+     *                 file could not be read and the Err values are set
+     */
+    synchronized <K> List<Given<K>> given(Collection<String> argNames,
+    		                              Function<String, K> lookup,
+    		                              String[] clArgs) {
+    	err.initErrs();
+
+    	if (!readFile()) return null;
+
+    	List<Given<K>>  given = new ArrayList<Given<K>>();
+    	Map<K, Integer> at    = new HashMap<K, Integer>();
+    	merge(fileTokens, lookup, given, at);
+
+    	// environment variables, for the defined arguments only
+    	if (envPrefix != null) {
+    		List<String> envTokens = new ArrayList<String>();
+    		for (String arg : argNames) {
+    			String value = env.get(envName(arg));
+    			if (value == null) continue;
+    			envTokens.add(arg);
+    			if (!value.trim().isEmpty()) envTokens.add(value.trim());
+    		}
+    		merge(envTokens, lookup, given, at);
+    	}
+
+    	if (clArgs != null) merge(Arrays.asList(clArgs), lookup, given, at);
+
+        TR.debugMsgln(dbg, dPreFix, "Arguments from all sources:  %d",
+                                    given.size());
+    	return given;
+    }
+
+    /**
+     * Returns the command line arguments as given, see given(). Used when
+     * there is no configuration file or environment.
+     *
+     * @param <K> type of the argument definitions
+     * @param lookup Function returning the definition of a token, or null
+     *                 if it is not a defined argument
+     * @param clArgs String array of command line arguments, or null
+     * @return List of the arguments given
+     */
+    static <K> List<Given<K>> given(Function<String, K> lookup,
+    		                        String[] clArgs) {
+    	List<Given<K>> given = new ArrayList<Given<K>>();
+    	if (clArgs != null)
+    		merge(Arrays.asList(clArgs), lookup, given,
+    			  new HashMap<K, Integer>());
+    	return given;
+    }
+
+    /**
+     * Splits the tokens of one source into arguments and their values and
+     * merges them into those of the earlier sources. The token after an
+     * argument is its value unless it is itself a defined argument.
+     *
+     * @param tokens List of the source's tokens
+     * @param lookup Function returning the definition of a token, or null
+     * @param given List of the arguments given so far
+     * @param at Map of where each defined argument is in given
+     */
+    private static <K> void merge(List<String> tokens,
+    		                      Function<String, K> lookup,
+    		                      List<Given<K>> given, Map<K, Integer> at) {
+    	int aIdx = 0;
+    	int aLen = tokens.size();
+    	while (aIdx < aLen) {
+    		String token = tokens.get(aIdx);
+    		K      arg   = (token == null) ? null : lookup.apply(token);
+    		if (arg == null) {
+    			given.add(new Given<K>(null, token, null, aIdx));
+    			aIdx++;
+    			continue;
+    		}
+
+    		String value = null;
+    		if (aIdx + 1 < aLen) {
+    			String next = tokens.get(aIdx + 1);
+    			if (next != null && lookup.apply(next) == null) value = next;
+    		}
+
+    		Given<K> g   = new Given<K>(arg, token, value, aIdx);
+    		Integer  pos = at.get(arg);
+    		if (pos == null) {
+    			at.put(arg, given.size());
+    			given.add(g);
+    		} else {
+    			given.set(pos, g);    // the later source wins
+    		}
+    		aIdx += (value == null) ? 1 : 2;
+    	}
+    }
+
+    /**
+     * Returns the environment variable name for an argument
+     *
+     * @param arg String value of the argument
+     * @return String value of the environment variable name
+     */
+    public String envName(String arg) {
+    	StringBuilder name = new StringBuilder(envPrefix == null ? ""
+    			                                                 : envPrefix);
+    	int i = 0;
+    	while (i < arg.length() && arg.charAt(i) == '-') i++;
+    	for (; i < arg.length(); i++) {
+    		char c = arg.charAt(i);
+    		name.append(Character.isLetterOrDigit(c)
+    				       ? Character.toUpperCase(c) : '_');
+    	}
+    	return name.toString();
+    }
+
+    /**
+     * Reads the configuration file into arguments and values, if it has
+     * changed since last read.
+     *
+     * @return boolean value indicating that if there were any problems.
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    private boolean readFile() {
+    	if (fileName == null) return true;
+
+    	// not changed, use the values from last time
+    	File f     = new File(fileName);
+    	long mtime = f.lastModified();
+    	long size  = f.length();
+    	if (mtime == fileTime && size == fileSize) {
+    		if (mtime == 0) fileMissing();
+    		return true;
+    	}
+
+    	fileTime = mtime;
+    	fileSize = size;
+    	fileTokens.clear();
+    	if (!f.isFile()) {
+    		fileMissing();
+    		return true;
+    	}
+
+    	fileReads++;
+    	TR.debugMsgln(dbg, dPreFix, "Reading configuration file:  %s",
+    	                            fileName);
+
+    	FIO fs = new FIO(TR);
+    	if (!fs.open(fileName, FIO.FIO_READ)) {
+    		fileError(fs.getErrs());
+    		return false;
+    	}
+
+    	String line;
+    	while (!fs.eof()) {
+    		line = fs.readline();
+    		if (line == null) {
+    			if (fs.eof()) break;
+    			fileError(fs.getErrs());
+    			fs.close();
+    			return false;
+    		}
+
+    		line = line.trim();
+    		if (line.isEmpty() || line.startsWith(AC_COMMENT)) continue;
+
+    		// split the argument from its value, if any
+    		int sep = line.indexOf(AC_SEP);
+    		String arg   = (sep < 0) ? line : line.substring(0, sep).trim();
+    		String value = (sep < 0) ? ""   : line.substring(sep + 1).trim();
+    		if (arg.isEmpty()) continue;
+    		fileTokens.add(arg);
+    		if (!value.isEmpty()) fileTokens.add(value);
+    	}
+    	fs.close();
+
+    	return true;
+    }
+
+    /**
+     * Sets the warning for a missing configuration file
+     */
+    private void fileMissing() {
+    	err.eNbr     = 9172;
+    	err.eMessage = "Configuration file not found, skipped:  " + fileName;
+    	err.eType    = Errs.ETYPE_WARN;
+        TR.debugErr(dbg, dPreFix, err);
+    }
+
+    /**
+     * Sets the error for a configuration file that could not be read, and
+     * forgets it so it is read again next time
+     *
+     * @param fErr Errs of the FIO error
+     */
+    private void fileError(Errs fErr) {
+    	fileTime = -1;
+    	fileSize = -1;
+    	fileTokens.clear();
+
+    	err.eNbr        = 9174;
+    	err.eMessage    = "Unable to read configuration file:  " + fileName +
+    			          "\t" + fErr.eMessage;
+    	err.eType       = Errs.ETYPE_ERROR;
+    	err.setCause(fErr.getCause());
+    	err.eStackTrace = fErr.eStackTrace;
+        TR.debugErr(dbg, dPreFix, err);
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Methods
+    //-------------------------------------------------------------------------
+   /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+ 	static public LinkedHashMap<String, String>
+ 	         getAllVersions (LinkedHashMap<String, String> vlist) {
+ 		String v = ArgConfig.class.getName();
+ 		// if it already exists, just return
+ 		if (vlist.containsKey(v)) {
+ 			return vlist;
+ 		}
+ 		//add it to the list
+ 		vlist.put(v, getVersion());
+
+ 		vlist = Errs.getAllVersions(vlist);
+ 		vlist = FIO.getAllVersions(vlist);
+ 		vlist = Trace.getAllVersions(vlist);
+
+ 		return vlist;
+    }
+
+}
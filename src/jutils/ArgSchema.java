@@ -0,0 +1,480 @@
+package jutils;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The ArgSchema class is a compiled, read only copy of the arguments
+ * defined in an Args instance (see Args.compile). Once compiled, nothing
+ * in it can be changed, so a single ArgSchema can be shared by any number
+ * of threads, each parsing its own command line arguments at the same time.
+ * <p>
+ * Parsing does not change the schema; it returns an ArgValues instance
+ * holding the values, already converted to each type, and any errors.
+ * Arguments are parsed, converted and reported exactly as Args.parseArgs
+ * does, but each parse starts with no arguments passed.
+ *
+ */
+
+public final class ArgSchema {
+
+    private   static final String  version  = "Version 14.80";
+    private   static final String  dFlag    = DebugInfo.DB_ARGS;
+    private   static final String  dPreFix  = "ArgSchema:";
+
+    // Parsing may result in multiple errors, numbered from here
+    static private final int   err_start  = 10000; // eNbr
+
+    // the index of each argument in the arrays below
+    private final Map<String, Integer> index;
+    // the same, for the arguments as given:  case is ignored, so the
+    // tokens need not be changed to lower case first
+    private final TreeMap<String, Integer> given;
+
+    // Argument definitions, one entry per argument
+    final String[]    arg;        // argument as passed, i.e.: -t
+    final String[]    title;      // "Nice Name"
+    final String[]    type;       // Args.AT_xxx
+    final Boolean[]   valueDB;    // Default Value for boolean
+    final String[][]  valueFL;    // valid flag values, or null
+    final boolean[]   reload;     // may change while running (LiveArgs)
+
+    // passed in classes
+    private final Trace   TR;     // used for debugging messages
+    private final DebugHandle dbg;  // TR's flag for dFlag
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+    /**
+     * Creates the schema from the argument definitions of an Args instance
+     * (see Args.compile)
+     *
+     * @param defs Map of the argument definitions, by argument
+     * @param trace instantiated Trace class for tracing debugging messages
+     */
+    ArgSchema(Map<String, Args.ArgDetail> defs, Trace trace) {
+    	TR  = trace;
+    	dbg = (TR == null) ? null : TR.debugHandle(dFlag);
+
+    	int n   = defs.size();
+    	arg     = new String[n];
+    	title   = new String[n];
+    	type    = new String[n];
+    	valueDB = new Boolean[n];
+    	valueFL = new String[n][];
+    	reload  = new boolean[n];
+
+    	HashMap<String, Integer> idx = new HashMap<String, Integer>();
+    	given = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+    	int i = 0;
+    	for (Map.Entry<String, Args.ArgDetail> def : defs.entrySet()) {
+    		Args.ArgDetail d = def.getValue();
+    		arg[i]     = def.getKey();
+    		title[i]   = d.title;
+    		type[i]    = d.type;
+    		valueDB[i] = d.valueDB;
+    		valueFL[i] = (d.valueFL == null) ? null
+    				      : d.valueFL.toArray(new String[d.valueFL.size()]);
+    		reload[i]  = d.reloadable;
+    		idx.put(arg[i], i);
+    		// as Args, only an argument defined in lower case can be given
+    		if (arg[i].equals(arg[i].toLowerCase())) given.put(arg[i], i);
+    		i++;
+    	}
+    	index = Collections.unmodifiableMap(idx);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Access to the definitions
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of arguments defined
+     *
+     * @return int value of the number of arguments
+     */
+    public int size() {
+    	return arg.length;
+    }
+
+    /**
+     * Returns the index of an argument, for use with the indexed getters
+     * of ArgValues
+     *
+     * @param param  string of the argument
+     * @return int value of the index, or -1 if the argument is not defined
+     */
+    public int indexOf(String param) {
+    	if (param == null) return -1;
+    	Integer i = index.get(param);
+    	return (i == null) ? -1 : i;
+    }
+
+    /**
+     * Returns the string value of the title or "Nice Name" of the argument
+     *
+     * @param param  string of the argument
+     * @return String "Nice Name" of the argument, or null if the argument
+     *           is not defined
+     */
+    public String title(String param) {
+    	int i = indexOf(param);
+    	return (i < 0) ? null : title[i];
+    }
+
+    /**
+     * Returns a string value indicating the "type" for the specific
+     * argument.
+     *
+     * @param param  string of the argument
+     * @return String indicating the "type" of this argument, or null if the
+     *           argument is not defined
+     */
+    public String type(String param) {
+    	int i = indexOf(param);
+    	return (i < 0) ? null : type[i];
+    }
+
+    /**
+     * Returns if the argument may change while the program is running
+     * (see Args.setReloadable and LiveArgs)
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if the argument is reloadable
+     */
+    public boolean reloadable(String param) {
+    	int i = indexOf(param);
+    	return i >= 0 && reload[i];
+    }
+
+    //-------------------------------------------------------------------------
+    //  Parsing
+    //-------------------------------------------------------------------------
+    /**
+     * Parses command line arguments against this schema. See
+     * Args.parseArgs for how the values are parsed and converted.
+     *
+     * @param clArgs  String array of command line arguments
+     * @return ArgValues holding the parsed values; its getErrs() has the
+     *                   errors, if any, in the same form as Args.getErrs()
+     *                   after Args.parseArgs
+     */
+    public ArgValues parse(String[] clArgs) {
+    	TR.debugMsgln(dbg, dPreFix, "Parsing parameters ");
+
+    	Parse p = new Parse(arg.length);
+    	if (clArgs == null || clArgs.length == 0 )
+    		return p.result(this, null);
+
+    	parse(p, ArgConfig.given(given::get, clArgs), null);
+        return p.result(this, null);
+    }
+
+    /**
+     * Parses the arguments from a configuration file and environment
+     * variables, as well as the command line arguments, against this
+     * schema (see ArgConfig and Args.parseArgs(ArgConfig, String[])).
+     *
+     * @param config ArgConfig of the configuration file and environment
+     * @param clArgs  String array of command line arguments, or null
+     * @return ArgValues holding the parsed values, or null if the
+     *                   configuration file could not be read (see
+     *                   config.getErrs()). A missing configuration file
+     *                   is not an error, the ArgValues getErrs() has
+     *                   the ArgConfig warning if there are no errors.
+     */
+    public ArgValues parse(ArgConfig config, String[] clArgs) {
+    	return parse(config, clArgs, null);
+    }
+
+    /**
+     * Parses the arguments from a configuration file and environment
+     * variables, as well as the command line arguments, reusing the values
+     * of an earlier parse:  an argument given the same value as before is
+     * not converted again. Used to reload the arguments (see LiveArgs).
+     *
+     * @param config ArgConfig of the configuration file and environment
+     * @param clArgs  String array of command line arguments, or null
+     * @param previous ArgValues of an earlier parse by this schema, or
+     *                   null. Its values are only reused if it is valid.
+     * @return ArgValues holding the parsed values, or null if the
+     *                   configuration file could not be read (see
+     *                   config.getErrs())
+     */
+    public ArgValues parse(ArgConfig config, String[] clArgs,
+    		               ArgValues previous) {
+    	List<ArgConfig.Given<Integer>> all =
+    			config.given(index.keySet(), given::get, clArgs);
+    	if (all == null) return null;
+
+    	if (previous != null &&
+    	   (previous.schema() != this || !previous.isValid()))
+    		previous = null;
+
+    	Parse p = new Parse(arg.length);
+    	parse(p, all, previous);
+    	return p.result(this, config.getErrs());
+    }
+
+    /**
+     * Stores and converts the value of each argument given
+     *
+     * @param p Parse holding the values
+     * @param all List of the arguments given, see ArgConfig.given()
+     * @param previous ArgValues to reuse unchanged values from, or null
+     */
+    private void parse(Parse p, List<ArgConfig.Given<Integer>> all,
+    		           ArgValues previous) {
+    	for (ArgConfig.Given<Integer> g : all) {
+        	// valid argument?
+    		if (g.arg == null) {
+        		p.error(g.token, g.idx,
+        				"Invalid program argument             :  %s",
+        				g.token);
+                continue;
+        	}
+    		int i = g.arg;
+
+    		// Boolean Arguments don't always have to have a passed value
+    		if (type[i].equals(Args.AT_BOOLEAN)) {
+    			p.hasValue[i] = (g.value != null);
+    			p.pValue[i]   = g.value;
+    		} else {
+    			// all non boolean values require a value
+    			if (g.value == null) {
+    				p.error(arg[i], g.idx,
+    						"Missing value for argument           :  %s\t%s",
+    				        g.token, title[i]);
+    				continue;
+    			}
+    			p.pValue[i]   = g.value;
+    		}
+
+    		p.passed[i] = true;
+    		if (previous != null && previous.sameGiven(i, p.hasValue[i],
+    				                                   p.pValue[i]))
+    			p.copy(previous, i);
+    		else
+    			parseArg(p, i);
+        }
+    }
+
+    /**
+     * Converts the passed value of a single argument to the other types,
+     * the same as Args.parseArg
+     *
+     * @param p Parse holding the values
+     * @param i int value of the index of the argument
+     */
+    private void parseArg(Parse p, int i) {
+    	String t = type[i];
+
+    	//  Boolean types
+    	if (t.equals(Args.AT_BOOLEAN)) {
+			if (!p.hasValue[i]) {
+				if (valueDB[i] == null) {
+					p.error(arg[i], -1,
+							"Boolean Argument has no default value; " +
+		                    "a value must be passed with this argument:  %s",
+		                    arg[i]);
+					return;
+				}
+				// Since value was not passed, use the defined default
+				p.pValue[i] = valueDB[i] ? "true" : "false";
+				p.setBoolean(i, valueDB[i]);
+				return;
+			}
+			if (p.pValue[i].equalsIgnoreCase("true")) {
+				p.setBoolean(i, true);
+				return;
+			}
+			if (p.pValue[i].equalsIgnoreCase("false")) {
+				p.setBoolean(i, false);
+				return;
+			}
+			p.error(arg[i], -1,
+					"Invalid Boolean value for:  %s    passed value:  %s",
+					arg[i], p.pValue[i]);
+    	}
+
+    	// convert passed value and store as a Long value
+    	try {
+    		p.lValue[i] = Long.parseLong(p.pValue[i]);
+    		p.hasL[i]   = true;
+    	} catch (NumberFormatException e) {
+    		if (t.equals(Args.AT_LONG))
+    			p.error(arg[i], -1,
+    					"Invalid Long value for   :  %s    passed value:  %s",
+    					arg[i], p.pValue[i]);
+    	}
+
+    	// convert passed value and store as a Float value
+    	try {
+    		p.fValue[i] = Float.parseFloat(p.pValue[i]);
+    		p.hasF[i]   = true;
+    	} catch (NumberFormatException e) {
+    		if (t.equals(Args.AT_FLOAT))
+    			p.error(arg[i], -1,
+    					"Invalid Float value for  :  %s    passed value:  %s",
+    					arg[i], p.pValue[i]);
+    	}
+
+    	// Validate the passed value as one of the Flags, and save it
+		if (t.equals(Args.AT_FLAG)) {
+			if (valueFL[i] == null || valueFL[i].length == 0)
+				p.error(arg[i], -1,
+						"Internal Error::     Flag argument:  %s" +
+				        "    does not have a valid list of flags defined.",
+				        arg[i]);
+			else if (Arrays.asList(valueFL[i]).contains(p.pValue[i]))
+				p.gValue[i] = p.pValue[i];
+			else
+				p.error(arg[i], -1,
+						"Invalid Flag value for  :  %s    passed value:  %s" +
+						"    Valid values:  %s",
+						arg[i], p.pValue[i], Arrays.asList(valueFL[i]));
+		}
+
+   		// check for boolean values of String types
+   		if (t.equals(Args.AT_STRING) || t.equals(Args.AT_FLAG)) {
+   			if (p.pValue[i].equalsIgnoreCase("true"))  p.setB(i, true);
+   			if (p.pValue[i].equalsIgnoreCase("false")) p.setB(i, false);
+   		}
+
+   		// final Long type conversions
+   		if (t.equals(Args.AT_LONG) && p.hasL[i]) {
+   			p.setB(i, p.lValue[i] != 0L);
+   			float fval = (float) p.lValue[i];
+   			if ((long) fval == p.lValue[i]) {
+   				p.fValue[i] = fval;
+   				p.hasF[i]   = true;
+   			}
+   		}
+
+   		// final float type conversions
+   		if (t.equals(Args.AT_FLOAT) && p.hasF[i]) {
+   			p.setB(i, p.fValue[i] != 0F);
+   			long lval = (long) p.fValue[i];
+   			if (Float.compare((float) lval, p.fValue[i]) == 0) {
+   				p.lValue[i] = lval;
+   				p.hasL[i]   = true;
+   			}
+   		}
+    }
+
+    /**
+     * Values and errors of a single parse, before they are handed to an
+     * ArgValues
+     */
+    private static final class Parse {
+    	final boolean[] passed;
+    	final boolean[] hasValue;
+    	final String[]  pValue;
+    	final long[]    lValue;
+    	final boolean[] hasL;
+    	final float[]   fValue;
+    	final boolean[] hasF;
+    	final byte[]    bValue;       // ArgValues.B_NULL, B_FALSE or B_TRUE
+    	final String[]  gValue;
+
+    	ErrorCollector  errors    = null;   // only created if needed
+
+    	Parse(int n) {
+    		passed   = new boolean[n];
+    		hasValue = new boolean[n];
+    		pValue   = new String[n];
+    		lValue   = new long[n];
+    		hasL     = new boolean[n];
+    		fValue   = new float[n];
+    		hasF     = new boolean[n];
+    		bValue   = new byte[n];
+    		gValue   = new String[n];
+    	}
+
+    	void error(String field, int idx, String template, Object... args) {
+    		if (errors == null) errors = new ErrorCollector();
+    		errors.add(err_start + errors.total() + 1, field, idx, template,
+    				   args);
+    	}
+
+    	void setB(int i, Boolean b) {
+    		bValue[i] = (b == null) ? ArgValues.B_NULL
+    				  : b ? ArgValues.B_TRUE : ArgValues.B_FALSE;
+    	}
+
+    	// all the values of a true or false Boolean argument
+    	void setBoolean(int i, boolean b) {
+    		setB(i, b);
+    		lValue[i] = b ? 1L : 0L;
+    		fValue[i] = b ? 1F : 0F;
+    		hasL[i]   = true;
+    		hasF[i]   = true;
+    		gValue[i] = null;
+    	}
+
+    	// copy the values of an argument parsed before
+    	void copy(ArgValues from, int i) {
+    		pValue[i] = from.getS(i);
+    		hasL[i]   = from.hasL(i);
+    		lValue[i] = from.getL(i, 0L);
+    		hasF[i]   = from.hasF(i);
+    		fValue[i] = from.getF(i, 0F);
+    		setB(i, from.hasB(i) ? from.getB(i, false) : null);
+    		gValue[i] = from.getFlag(i);
+    	}
+
+    	ArgValues result(ArgSchema schema, Errs warn) {
+    		Errs err = new Errs();
+    		if (errors != null)
+    			errors.toErrs(err, err_start, "Invalid arguments::\n");
+    		else if (warn != null && warn.eType == Errs.ETYPE_WARN)
+    			err = warn;
+    		return new ArgValues(schema, passed, hasValue, pValue, lValue,
+    				             hasL, fValue, hasF, bValue, gValue, err);
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Methods
+    //-------------------------------------------------------------------------
+   /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+ 	static public LinkedHashMap<String, String>
+ 	         getAllVersions (LinkedHashMap<String, String> vlist) {
+ 		String v = ArgSchema.class.getName();
+ 		// if it already exists, just return
+ 		if (vlist.containsKey(v)) {
+ 			return vlist;
+ 		}
+ 		//add it to the list
+ 		vlist.put(v, getVersion());
+
+ 		vlist = ArgValues.getAllVersions(vlist);
+ 		vlist = Errs.getAllVersions(vlist);
+ 		vlist = ErrorCollector.getAllVersions(vlist);
+ 		vlist = Trace.getAllVersions(vlist);
+
+ 		return vlist;
+    }
+
+}
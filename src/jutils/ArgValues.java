@@ -0,0 +1,443 @@
+package jutils;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * The ArgValues class holds the values of one parse of command line
+ * arguments by an ArgSchema. The values are converted to each type when
+ * parsed and kept in primitive arrays, so the getters do no conversions
+ * and create no objects. Nothing can be changed once parsed, so an
+ * ArgValues may be read by any number of threads.<p>
+ * Unlike Args, the getters do not set any error information: the numeric
+ * getters return the passed default if the argument is undefined, was not
+ * passed, or its value could not be converted; hasB(), hasL() and hasF()
+ * tell them apart. Errors found while parsing are returned by getErrs().
+ * <p>
+ * Each getter may be called with the argument, or with its index from
+ * ArgSchema.indexOf, which skips the lookup.
+ *
+ */
+
+public final class ArgValues {
+
+    private   static final String  version  = "Version 14.80";
+
+    // Boolean values
+    static final byte  B_NULL  = 0;     // could not be converted
+    static final byte  B_FALSE = 1;
+    static final byte  B_TRUE  = 2;
+
+    private final ArgSchema schema;
+
+    // parsed values, one entry per argument of the schema
+    private final boolean[] passed;     // was it passed?
+    private final boolean[] hasValue;   // was there a passed value?
+    private final String[]  pValue;     // value passed (always a String)
+    private final long[]    lValue;     // long value
+    private final boolean[] hasL;       //   was it converted?
+    private final float[]   fValue;     // float value
+    private final boolean[] hasF;       //   was it converted?
+    private final byte[]    bValue;     // boolean value
+    private final String[]  gValue;     // Flag value
+
+    // errors found while parsing
+    private final Errs      err;
+
+    ArgValues(ArgSchema schema, boolean[] passed, boolean[] hasValue,
+    		  String[] pValue, long[] lValue, boolean[] hasL,
+    		  float[] fValue, boolean[] hasF, byte[] bValue,
+    		  String[] gValue, Errs err) {
+    	this.schema   = schema;
+    	this.passed   = passed;
+    	this.hasValue = hasValue;
+    	this.pValue   = pValue;
+    	this.lValue   = lValue;
+    	this.hasL     = hasL;
+    	this.fValue   = fValue;
+    	this.hasF     = hasF;
+    	this.bValue   = bValue;
+    	this.gValue   = gValue;
+    	this.err      = err;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error results
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the errors found while parsing, in the same form as
+     * Args.getErrs() after Args.parseArgs
+     *
+     * @return Errs class containing the parsing errors
+     */
+    public Errs getErrs() {
+        return new Errs(err);
+    }
+
+    /**
+     * Returns if the arguments were parsed without errors
+     *
+     * @return boolean <code>true</code> if no errors
+     */
+    public boolean isValid() {
+    	return err.eType != Errs.ETYPE_ERROR;
+    }
+
+    /**
+     * Returns the schema the arguments were parsed with
+     *
+     * @return ArgSchema used to parse the arguments
+     */
+    public ArgSchema schema() {
+    	return schema;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Getting Argument values by name
+    //-------------------------------------------------------------------------
+    /**
+     * Returns if the argument was passed
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if passed
+     */
+    public boolean passed(String param) {
+    	return passed(schema.indexOf(param));
+    }
+
+    /**
+     * Returns the string value of the argument, or null if not passed
+     *
+     * @param param  string of the argument
+     * @return string value of the argument
+     */
+    public String getS(String param) {
+    	return getS(schema.indexOf(param));
+    }
+
+    /**
+     * Returns the boolean value of the argument, or the default if not
+     * passed or not a boolean value
+     *
+     * @param param  string of the argument
+     * @param dflt   boolean value returned if there is no boolean value
+     * @return boolean value of the argument
+     */
+    public boolean getB(String param, boolean dflt) {
+    	return getB(schema.indexOf(param), dflt);
+    }
+
+    /**
+     * Returns the long value of the argument, or the default if not
+     * passed or not a long value
+     *
+     * @param param  string of the argument
+     * @param dflt   long value returned if there is no long value
+     * @return long value of the argument
+     */
+    public long getL(String param, long dflt) {
+    	return getL(schema.indexOf(param), dflt);
+    }
+
+    /**
+     * Returns the int value of the argument, or the default if not
+     * passed, not a long value, or too big to be an int
+     *
+     * @param param  string of the argument
+     * @param dflt   int value returned if there is no int value
+     * @return int value of the argument
+     */
+    public int getI(String param, int dflt) {
+    	return getI(schema.indexOf(param), dflt);
+    }
+
+    /**
+     * Returns the float value of the argument, or the default if not
+     * passed or not a float value
+     *
+     * @param param  string of the argument
+     * @param dflt   float value returned if there is no float value
+     * @return float value of the argument
+     */
+    public float getF(String param, float dflt) {
+    	return getF(schema.indexOf(param), dflt);
+    }
+
+    /**
+     * Returns the Flag value of the argument, or null if not passed or
+     * not one of the valid flags
+     *
+     * @param param  string of the argument
+     * @return String value of the Flag
+     */
+    public String getFlag(String param) {
+    	return getFlag(schema.indexOf(param));
+    }
+
+    /**
+     * Returns if the argument has a boolean value
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if getB returns a passed value
+     */
+    public boolean hasB(String param) {
+    	return hasB(schema.indexOf(param));
+    }
+
+    /**
+     * Returns if the argument has a long value
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if getL returns a passed value
+     */
+    public boolean hasL(String param) {
+    	return hasL(schema.indexOf(param));
+    }
+
+    /**
+     * Returns if the argument has a float value
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if getF returns a passed value
+     */
+    public boolean hasF(String param) {
+    	return hasF(schema.indexOf(param));
+    }
+
+    /**
+     * Returns if a Boolean argument was passed with a value, rather than
+     * using its default
+     *
+     * @param param  string of the argument
+     * @return boolean <code>true</code> if a value was passed
+     */
+    public boolean hasValue(String param) {
+    	int i = schema.indexOf(param);
+    	return i >= 0 && hasValue[i];
+    }
+
+    //-------------------------------------------------------------------------
+    //  Getting Argument values by index (see ArgSchema.indexOf)
+    //-------------------------------------------------------------------------
+    /**
+     * Returns if the argument was passed
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return boolean <code>true</code> if passed
+     */
+    public boolean passed(int i) {
+    	return i >= 0 && passed[i];
+    }
+
+    /**
+     * Returns the string value of the argument, or null if not passed
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return string value of the argument
+     */
+    public String getS(int i) {
+    	return (i >= 0 && passed[i]) ? pValue[i] : null;
+    }
+
+    /**
+     * Returns the boolean value of the argument, or the default if not
+     * passed or not a boolean value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @param dflt   boolean value returned if there is no boolean value
+     * @return boolean value of the argument
+     */
+    public boolean getB(int i, boolean dflt) {
+    	return (i < 0 || bValue[i] == B_NULL) ? dflt : bValue[i] == B_TRUE;
+    }
+
+    /**
+     * Returns the long value of the argument, or the default if not
+     * passed or not a long value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @param dflt   long value returned if there is no long value
+     * @return long value of the argument
+     */
+    public long getL(int i, long dflt) {
+    	return (i >= 0 && hasL[i]) ? lValue[i] : dflt;
+    }
+
+    /**
+     * Returns the int value of the argument, or the default if not
+     * passed, not a long value, or too big to be an int
+     *
+     * @param i int value of the index of the argument, or -1
+     * @param dflt   int value returned if there is no int value
+     * @return int value of the argument
+     */
+    public int getI(int i, int dflt) {
+    	if (i < 0 || !hasL[i] ||
+    		lValue[i] < Integer.MIN_VALUE || lValue[i] > Integer.MAX_VALUE)
+    		return dflt;
+    	return (int) lValue[i];
+    }
+
+    /**
+     * Returns the float value of the argument, or the default if not
+     * passed or not a float value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @param dflt   float value returned if there is no float value
+     * @return float value of the argument
+     */
+    public float getF(int i, float dflt) {
+    	return (i >= 0 && hasF[i]) ? fValue[i] : dflt;
+    }
+
+    /**
+     * Returns the Flag value of the argument, or null if not passed or
+     * not one of the valid flags
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return String value of the Flag
+     */
+    public String getFlag(int i) {
+    	return (i >= 0) ? gValue[i] : null;
+    }
+
+    /**
+     * Returns if the argument has a boolean value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return boolean <code>true</code> if getB returns a passed value
+     */
+    public boolean hasB(int i) {
+    	return i >= 0 && bValue[i] != B_NULL;
+    }
+
+    /**
+     * Returns if the argument has a long value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return boolean <code>true</code> if getL returns a passed value
+     */
+    public boolean hasL(int i) {
+    	return i >= 0 && hasL[i];
+    }
+
+    /**
+     * Returns if the argument has a float value
+     *
+     * @param i int value of the index of the argument, or -1
+     * @return boolean <code>true</code> if getF returns a passed value
+     */
+    public boolean hasF(int i) {
+    	return i >= 0 && hasF[i];
+    }
+
+    //-------------------------------------------------------------------------
+    //  Comparing parses (see LiveArgs)
+    //-------------------------------------------------------------------------
+    /**
+     * Returns if an argument has the same value in both parses of the same
+     * schema. The converted values are compared as well as the passed
+     * value, so a change to any value the getters return is found.
+     *
+     * @param other ArgValues of the same schema
+     * @param i int value of the index of the argument
+     * @return boolean <code>true</code> if the value is the same
+     */
+    boolean sameValue(ArgValues other, int i) {
+    	return passed[i]   == other.passed[i]   &&
+    		   hasValue[i] == other.hasValue[i] &&
+    		   Objects.equals(pValue[i], other.pValue[i]) &&
+    		   hasL[i]     == other.hasL[i]     &&
+    		   (!hasL[i] || lValue[i] == other.lValue[i]) &&
+    		   hasF[i]     == other.hasF[i]     &&
+    		   (!hasF[i] || Float.compare(fValue[i], other.fValue[i]) == 0) &&
+    		   bValue[i]   == other.bValue[i]   &&
+    		   Objects.equals(gValue[i], other.gValue[i]);
+    }
+
+    /**
+     * Returns if an argument was given the same value as in this parse, so
+     * its converted values can be reused (see ArgSchema.parse)
+     *
+     * @param i int value of the index of the argument
+     * @param hv boolean <code>true</code> if a value was given
+     * @param value String value given, or null for a Boolean argument's
+     *                  default
+     * @return boolean <code>true</code> if given the same value
+     */
+    boolean sameGiven(int i, boolean hv, String value) {
+    	return passed[i] && hasValue[i] == hv &&
+    		   (value == null || value.equals(pValue[i]));
+    }
+
+    /**
+     * Returns a copy of these values with some arguments taken from an
+     * older parse of the same schema instead
+     *
+     * @param old ArgValues of the older parse
+     * @param keep boolean array, <code>true</code> for each argument whose
+     *                  old value is kept
+     * @return ArgValues of the combined values
+     */
+    ArgValues keep(ArgValues old, boolean[] keep) {
+    	int n = passed.length;
+    	boolean[] p  = passed.clone();
+    	boolean[] hv = hasValue.clone();
+    	String[]  pv = pValue.clone();
+    	long[]    lv = lValue.clone();
+    	boolean[] hl = hasL.clone();
+    	float[]   fv = fValue.clone();
+    	boolean[] hf = hasF.clone();
+    	byte[]    bv = bValue.clone();
+    	String[]  gv = gValue.clone();
+    	for (int i = 0; i < n; i++) {
+    		if (!keep[i]) continue;
+    		p[i]  = old.passed[i];
+    		hv[i] = old.hasValue[i];
+    		pv[i] = old.pValue[i];
+    		lv[i] = old.lValue[i];
+    		hl[i] = old.hasL[i];
+    		fv[i] = old.fValue[i];
+    		hf[i] = old.hasF[i];
+    		bv[i] = old.bValue[i];
+    		gv[i] = old.gValue[i];
+    	}
+    	return new ArgValues(schema, p, hv, pv, lv, hl, fv, hf, bv, gv, err);
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Methods
+    //-------------------------------------------------------------------------
+   /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+ 	static public LinkedHashMap<String, String>
+ 	         getAllVersions (LinkedHashMap<String, String> vlist) {
+ 		String v = ArgValues.class.getName();
+ 		// if it already exists, just return
+ 		if (vlist.containsKey(v)) {
+ 			return vlist;
+ 		}
+ 		//add it to the list
+ 		vlist.put(v, getVersion());
+
+ 		vlist = Errs.getAllVersions(vlist);
+
+ 		return vlist;
+    }
+
+}
@@ -28,13 +28,20 @@ import java.util.List;
  * All other Argument types must have valid parameter.<p>
  * The Flag type is simply a string type, however in order to be a valid 
  * value passed to the program, the string argument value must match one of 
- * the predefined values in the List of  Valid flags for that Argument.
+ * the predefined values in the List of  Valid flags for that Argument.<p>
+ * Once defined, the arguments can be compiled into a read only ArgSchema
+ * (see compile), which can be shared by many threads, each parsing its 
+ * own arguments into an ArgValues.
+ * Values can also be taken from a configuration file and environment 
+ * variables (see ArgConfig). 
+ * A LiveArgs keeps the values up to date as the configuration file 
+ * changes, for the arguments marked with setReloadable.
  * 
  *
  */
 public class Args {
 
-    private   static final String  version  = "Version 03.00";
+    private   static final String  version  = "Version 14.80";
     private   static final String  dFlag    = DebugInfo.DB_ARGS;
     private   static final String  dPreFix  = "Args:";
 
@@ -69,6 +76,7 @@ public class Args {
     	String   type     = "";    // see valid values above 
     	Boolean  valueDB  = null;  // Default Value for boolean
     	List <String> valueFL  = null;  // list of valid flag values
+    	boolean  reloadable = false; // may change while running (LiveArgs)
     	
     	// passed in parameter value
     	boolean passed   = false;  // was it passed?
@@ -84,9 +92,8 @@ public class Args {
     // array of all the Arguments defined
     private HashMap<String, ArgDetail> args = new HashMap<String, ArgDetail>();
 
-    // parsing error number and error number
-    private int      nbrErrors = 0;
-    private int      errNbr    = err_start; // Error number to display (eNbr)
+    // errors found while parsing, numbered from err_start
+    private ErrorCollector errors = new ErrorCollector();
 
     
     // support classes
@@ -94,6 +101,7 @@ public class Args {
 
     // passed in classes
     private Trace    TR        = null;             // used to dump hard errors
+    private DebugHandle dbg    = null;             // TR's flag for dFlag
    
     
     //-------------------------------------------------------------------------
@@ -111,6 +119,8 @@ public class Args {
 			err.eNbr     = 9000;
 			err.eMessage = "Internal:  Trace file is NULL!";
 			err.eType    = Errs.ETYPE_ERROR;
+    	} else {
+    		dbg      = TR.debugHandle(dFlag);
     	}
     	
 //      	setDefaultValues();
@@ -156,8 +166,7 @@ public class Args {
     	}
     	
     	// get the argument information
-    	ArgDetail argvals = new ArgDetail();
-    	argvals = args.get(param);
+    	ArgDetail argvals = args.get(param);
         
     	// was it passed?
     	return argvals.passed;
@@ -180,8 +189,7 @@ public class Args {
     	}
     	
     	// get the argument information
-    	ArgDetail argvals = new ArgDetail();
-    	argvals = args.get(param);
+    	ArgDetail argvals = args.get(param);
         
     	// what is its title?
     	return argvals.title;
@@ -204,8 +212,7 @@ public class Args {
     	}
     	
     	// get the argument information
-    	ArgDetail argvals = new ArgDetail();
-    	argvals = args.get(param);
+    	ArgDetail argvals = args.get(param);
         
     	// What type is it?
     	return argvals.type;
@@ -278,7 +285,7 @@ public class Args {
     		                 String type,  Boolean bDefault,
     		                 Boolean allowDups) {
     	err.initErrs();
-        TR.debugMsgln(dFlag, dPreFix, "Defining parameter:  " + arg);
+        TR.debugMsgln(dbg, dPreFix, "Defining parameter:  %s", arg);
 
     	if (args.containsKey(arg))
     		if (!allowDups) {
@@ -324,7 +331,7 @@ public class Args {
      */
     public boolean defineFlags(String arg, List<String> flags) {
     	err.initErrs();
-        TR.debugMsgln(dFlag, dPreFix, "Defining Flag values:  " + arg);
+        TR.debugMsgln(dbg, dPreFix, "Defining Flag values:  %s", arg);
 
         // argument must exist
     	if (!args.containsKey(arg)) {
@@ -335,8 +342,7 @@ public class Args {
     	}
     	
     	// get the current argument definition
-    	ArgDetail argvals = new ArgDetail();
-		argvals = args.get(arg);
+		ArgDetail argvals = args.get(arg);
 		
 		// make sure it is a Flag type
 		if (!argvals.type.equals(AT_FLAG)) {
@@ -355,15 +361,50 @@ public class Args {
     	return true;
     }
 
+    /**
+     * Marks an argument as reloadable, meaning its value may be changed 
+     * while the program is running, when a LiveArgs reloads the 
+     * configuration file. Changes to arguments not marked are ignored.
+     * Like the other definitions, it only applies to schemas compiled 
+     * after it is set.
+     * 
+     * @param arg  string of the argument
+     * @param reloadable boolean <code>true</code> if it may be reloaded
+     * @return boolean indicating the argument was found
+     */
+    public boolean setReloadable(String arg, boolean reloadable) {
+    	err.initErrs();
+        TR.debugMsgln(dbg, dPreFix, "Setting reloadable:  %s  %s", 
+        		                    arg, reloadable);
+
+    	ArgDetail argvals = args.get(arg);
+    	if (argvals == null) {
+   			err.eNbr     = 9046;
+   			err.eMessage = "Internal:  Argument not defined:  " + arg;
+   			err.eType    = Errs.ETYPE_ERROR;
+   			return false;
+    	}
+
+    	argvals.reloadable = reloadable;
+    	return true;
+    }
+
     /**
      * Changes the Default value of Boolean arguments to a different value
      * before or after the arguments have been parsed. If the arguments have 
      * been parsed, the Boolean argument was passed, but no value was passed
      * then this will reset the values based on the new default value.
+     * <p>
+     * If that argument is re-parsed and the new default is null, no value 
+     * can be set:  false is returned with the parsing error (10001, "Boolean 
+     * Argument has no default value") in the Err values. Before 14.80 this 
+     * error was only added to the message and true was returned.
      * @param arg  string value of the argument
      * @param dValue		// if passed, but with a value, it has all ready been converted
 
-     * @return
+     * @return boolean value <code>true</code> if the default was changed,
+     *                       otherwise <code>false</code> and the Err values
+     *                       are set
      */
     public boolean newDefault(String arg, Boolean dValue){
     	err.initErrs();
@@ -371,7 +412,7 @@ public class Args {
     	Boolean svalueDB = null;
     	Boolean sbValue  = null;
     	
-        TR.debugMsgln(dFlag, dPreFix, "Changing Default Value:  " + arg);
+        TR.debugMsgln(dbg, dPreFix, "Changing Default Value:  %s", arg);
 
         // verify argument is already defined
     	if (!args.containsKey(arg)) {
@@ -382,8 +423,7 @@ public class Args {
     	}
    	
     	// get the current argument definition
-    	ArgDetail argvals = new ArgDetail();
-		argvals = args.get(arg);
+		ArgDetail argvals = args.get(arg);
 		
 		if (!argvals.type.equals(AT_BOOLEAN)) {
    			err.eNbr     = 9042;
@@ -413,8 +453,9 @@ public class Args {
 		// if passed, but with a value, the new default has no impact
 		// if passed, but there was no value, re-parse this argument
 		if (argvals.passed && !argvals.hasValue) {
+			errors.clear();
 			parseArg(argvals);
-			if (err.eType == Errs.ETYPE_ERROR)
+			if (errors.toErrs(err, err_start, "Invalid arguments::\n"))
 				return false;
 		}
 
@@ -422,15 +463,17 @@ public class Args {
     	args.put(arg, argvals);
 
     	// show what we did
-        TR.debugMsgln(dFlag, dPreFix, "Changed  Default Value");
-    	TR.debugMsgln(dFlag, dPreFix, "\tArgument        :  " + argvals.arg);
-        TR.debugMsgln(dFlag, dPreFix, "\tPrevious Default:  " + svalueDB);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tNew      Default:  " + argvals.valueDB);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tPassed?         :  " + argvals.passed);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tHas a value?    :  " + argvals.hasValue);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tPrevious Passed :  " + spValue);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tPrevious Value  :  " + sbValue);  //14.65
-        TR.debugMsgln(dFlag, dPreFix, "\tNew      Value  :  " + argvals.bValue);  //14.65
+    	if (dbg.isOn()) {
+            TR.debugMsgln(dbg, dPreFix, "Changed  Default Value");
+    	    TR.debugMsgln(dbg, dPreFix, "\tArgument        :  %s", argvals.arg);
+            TR.debugMsgln(dbg, dPreFix, "\tPrevious Default:  %s", svalueDB);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tNew      Default:  %s", argvals.valueDB);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tPassed?         :  %s", argvals.passed);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tHas a value?    :  %s", argvals.hasValue);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tPrevious Passed :  %s", spValue);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tPrevious Value  :  %s", sbValue);  //14.65
+            TR.debugMsgln(dbg, dPreFix, "\tNew      Value  :  %s", argvals.bValue);  //14.65
+    	}
 
     	return true;
     }
@@ -449,7 +492,9 @@ public class Args {
      * the passed value equal to it's default value. 
      * <p>
      * The method parses the entire command line argument line and reports all
-     * of the errors it finds.
+     * of the errors it finds. The error number counts all of them, but only 
+     * the first ErrorCollector.EC_MAX are listed in the message; a last 
+     * line then gives the number of errors not listed.
      * 
      * @param clArgs  String array of command line arguments
      * @return boolean value <code>true</code> if command line arguments parsed
@@ -457,104 +502,153 @@ public class Args {
      */
     public boolean parseArgs(String[] clArgs) {
 		err.initErrs();
-        TR.debugMsgln(dFlag, dPreFix, "Parsing parameters ");
+        TR.debugMsgln(dbg, dPreFix, "Parsing parameters ");
 
         // if nothing passed, just return
         if (clArgs == null || clArgs.length == 0 ) {
             return true;
         }
 
-        int aIdx      = 0;             // index into command line arguments
-        int aLen      = clArgs.length;
-            nbrErrors = 0;
-            errNbr    = err_start; // Error number to display (eNbr)
+        return parseGiven(ArgConfig.given(this::lookup, clArgs));
+    }
+ 
+    /**
+     * Fills the arguments from a configuration file and environment 
+     * variables, as well as the command line arguments (see ArgConfig).
+     * When an argument is given by more than one of them, the command line 
+     * wins over the environment, which wins over the configuration file.
+     * The sources are merged argument by argument first, and only the 
+     * value that wins is converted:  a bad value in the file that the 
+     * command line overrides is not an error.
+     * <p>
+     * Any values from an earlier parse are cleared first, so calling this 
+     * again (for example after the configuration file has changed) leaves 
+     * only the current values. The configuration file is only read again 
+     * if it has changed.
+     * <p>
+     * A missing configuration file is not an error:  if the arguments 
+     * parse with no errors, <code>true</code> is returned and getErrs() 
+     * has the ArgConfig warning (9172).
+     * 
+     * @param config ArgConfig of the configuration file and environment
+     * @param clArgs  String array of command line arguments, or null
+     * @return boolean value <code>true</code> if all arguments parsed
+     *                       with no errors, otherwise <code>false</code>
+     */
+    public boolean parseArgs(ArgConfig config, String[] clArgs) {
+    	err.initErrs();
+    	
+    	List<ArgConfig.Given<ArgDetail>> given = 
+    			config.given(args.keySet(), this::lookup, clArgs);
+    	Errs warn = config.getErrs();
+    	if (given == null) {
+    		err = warn;
+    		return false;
+    	}
+    	
+    	clearValues();
+    	if (!parseGiven(given)) return false;
+    	if (warn.eType == Errs.ETYPE_WARN) err = warn;
+    	return true;
+    }
+
+    /**
+     * Returns the definition of an argument as given, or null if it is not
+     * a defined argument
+     * 
+     * @param token String value of the argument as given
+     * @return ArgDetail of the argument, or null
+     */
+    private ArgDetail lookup(String token) {
+    	return args.get(token.toLowerCase());
+    }
+
+    /**
+     * Stores and converts the value of each argument given, and reports 
+     * all of the errors found
+     * 
+     * @param given List of the arguments given, see ArgConfig.given()
+     * @return boolean value <code>true</code> if all arguments parsed
+     *                       with no errors, otherwise <code>false</code>
+     */
+    private boolean parseGiven(List<ArgConfig.Given<ArgDetail>> given) {
+        errors.clear();
         
-        while (aIdx < aLen) {
-        	// get the next argument
-        	String arg = clArgs[aIdx].toLowerCase();
-            TR.debugMsgln(dFlag, dPreFix, "  Parsing :  " + arg);
+        for (ArgConfig.Given<ArgDetail> g : given) {
+            if (dbg.isOn())
+                TR.debugMsgln(dbg, dPreFix, "  Parsing :  %s", g.token);
         	
         	// valid argument?
-        	if (arg == null ||
-        	    !args.containsKey(arg) ) {
-                nbrErrors++;
-        		errNbr++;              // eNbr
-        		err.eMessage += "Invalid program argument             :  " + 
-			                   clArgs[aIdx]  + "\n";
-                aIdx++;    //skip this argument
+        	ArgDetail argvals = g.arg;
+        	if (argvals == null) {
+        		parseError(g.token == null ? null : g.token.toLowerCase(), 
+        				   g.idx,
+        				   "Invalid program argument             :  %s",
+        				   g.token);
                 continue;
         	}
         	
-        	// get argument definition
-        	ArgDetail argvals = new ArgDetail();
-    		argvals = args.get(arg);
-        	
-        	// is the next value is normally the value for this 
-    		// argument.
-    		String  passedValue = null;
-    		Boolean nextIsArg   = false;
-    		if ( aIdx+1 < aLen) { //-1 ) { // more arguments
-    			passedValue = clArgs[aIdx+1];
-    			nextIsArg = args.containsKey(passedValue.toLowerCase());
-    		}
-    		
     		// Boolean Arguments don't always have to have a passed value,
     		// so if the there is no next value, or it is a valid 
     		// argument:  use the default value (if set). Otherwise use
     		// the next value. If the next value is an invalid argument
-    		// it will get "swallowed" as the boolean value! which means
-    		// the invalid argument's 
+    		// it will get "swallowed" as the boolean value!
     		if (argvals.type.equals(AT_BOOLEAN)) {
-    			if (passedValue == null || nextIsArg ) {
-					argvals.hasValue = false;
-    				argvals.bValue = argvals.valueDB;  // maybe null!
-    				aIdx++;   // skip past the arg
-    			} else {
-   					argvals.hasValue = true;
-   					argvals.pValue = passedValue;
-   					aIdx++;  aIdx++;  // skip past the arg and it's value
-    			}
+    			argvals.hasValue = (g.value != null);
+    			argvals.pValue   = g.value;
     		} else {
-    			// all non boolean values require a value, so use the next
-    			// value as the value
-    			if (passedValue == null || nextIsArg) {
+    			// all non boolean values require a value
+    			if (g.value == null) {
     				// no value, this is an error
-                    nbrErrors++;
-            		errNbr++;              // eNbr
-            		err.eMessage += "Missing value for argument           :  " +
-    				                 clArgs[aIdx]  + "\t" +
-    				                 argvals.title + "\n";
-                    aIdx++;    //skip this argument
+    				parseError(argvals.arg, g.idx,
+    						   "Missing value for argument           :  %s\t%s",
+    						   g.token, argvals.title);
     				continue;
     			}
-    			
-    			// not null and not an argument, so capture it
-    			argvals.pValue = passedValue;
-    			//skip the argument and value
-                aIdx++; aIdx++;  // skip the argument and it's value
+    			argvals.pValue = g.value;
     		}
 
     		// we now have the passed value in the proper place
     		// so let's parse this argument
     		argvals.passed   = true;
     		parseArg(argvals);
-    		
-    		// now save the argument
-            args.put(arg, argvals);
-
-        } // while loop
+        }
         
-        	// 
-        if (nbrErrors > 0) {
-        	err.eNbr     = errNbr;
-        	err.eMessage = "Invalid arguments::\n" + err.eMessage;
-    		err.eType    = Errs.ETYPE_ERROR;
+        if (errors.toErrs(err, err_start, "Invalid arguments::\n"))
             return false;
-        }
         
         return true;
     }
+
+    /**
+     * Clears the passed values of all of the arguments, leaving only their
+     * definitions
+     */
+    private void clearValues() {
+    	for (ArgDetail argvals : args.values()) {
+    		argvals.passed   = false;
+    		argvals.hasValue = false;
+    		argvals.pValue   = null;
+    		argvals.lValue   = null;
+    		argvals.fValue   = null;
+    		argvals.bValue   = null;
+    		argvals.gValue   = null;
+    	}
+    }
  
+    /**
+     * Adds a parsing error, numbered after the errors already found
+     * 
+     * @param field String value of the argument in error
+     * @param idx int value of its index in the command line, or -1
+     * @param template String.format template of the message
+     * @param args Object values of the template arguments
+     */
+    private void parseError(String field, int idx, String template, 
+    		                Object... args) {
+    	errors.add(err_start + errors.total() + 1, field, idx, template, args);
+    }
+
     /**
      * This is where all the meat and potatoes takes place for parsing.
      * Conversion of one type of field to the other is performed based
@@ -569,6 +663,12 @@ public class Args {
 
     	boolean parseOK = true;
     	
+    	// nothing is kept from a value given earlier
+    	argvals.lValue  = null;
+    	argvals.fValue  = null;
+    	argvals.bValue  = null;
+    	argvals.gValue  = null;
+    	
     	//====================================================================
     	//  Boolean types
     	//====================================================================
@@ -577,11 +677,10 @@ public class Args {
 			if (!argvals.hasValue) {
 				if (argvals.valueDB == null) { // check default value
 					// no has no default value!
-		      		errNbr++;      
-		            nbrErrors++;
-		       		err.eMessage += "Boolean Argument has no default value; " + 
-		                            "a value must be passed with this argument:  " +
-		                            argvals.arg    + "\n";
+		       		parseError(argvals.arg, -1,
+		       				   "Boolean Argument has no default value; " +
+		                       "a value must be passed with this argument:  %s",
+		                       argvals.arg);
 		       		return false;
 				}
 				// Since value was not passed, use the defined default
@@ -617,11 +716,9 @@ public class Args {
 				return true; // no need to go further, all values have been set
 			}
 			// bad value passed!
-      		errNbr++;      
-            nbrErrors++;
-       		err.eMessage += "Invalid Boolean value for:  " + argvals.arg    +
-       				        "    passed value:  "          + argvals.pValue +
-       				        "\n";
+       		parseError(argvals.arg, -1,
+       				   "Invalid Boolean value for:  %s    passed value:  %s",
+       				   argvals.arg, argvals.pValue);
     	}  // end of boolean type
 
     	// all other Argument types require a value to be passed, so we will
@@ -638,12 +735,10 @@ public class Args {
     		// only report the error if this is a Long Type
     		if (argvals.type.equals(AT_LONG)) {
     			//  err.eNbr set in calling method
-    			err.eMessage += "Invalid Long value for   :  " + argvals.arg    +
-   				        		"    passed value:  "          + argvals.pValue +
-   				        		"\n";
+    			parseError(argvals.arg, -1,
+    					   "Invalid Long value for   :  %s    passed value:  %s",
+    					   argvals.arg, argvals.pValue);
     	    	parseOK = false;
-    			errNbr++;      
-    			nbrErrors++;
     		}
     	}
 
@@ -661,12 +756,10 @@ public class Args {
     		// only report the error if this is a FloatType
     		if (argvals.type.equals(AT_FLOAT)) {
     			//  err.eNbr set in calling method
-    			err.eMessage += "Invalid Float value for  :  " + argvals.arg    + 
-    							"    passed value:  "          + argvals.pValue +
-    							"\n";
+    			parseError(argvals.arg, -1,
+    					   "Invalid Float value for  :  %s    passed value:  %s",
+    					   argvals.arg, argvals.pValue);
     	    	parseOK = false;
-    			errNbr++;      
-    			nbrErrors++;
     		}
     	}
     	// save the value  
@@ -680,11 +773,11 @@ public class Args {
 			if (argvals.valueFL        == null ||     // is the list of value flags null?
 				argvals.valueFL.isEmpty()      ||     // or empty?
 				argvals.valueFL.size() == 0       ) { // or nothing in it?
-					err.eMessage += "Internal Error::     Flag argument:  " + argvals.arg    + 
-					  			    "    does not have a valid list of flags defined.\n";
+					parseError(argvals.arg, -1,
+							   "Internal Error::     Flag argument:  %s" +
+					  		   "    does not have a valid list of flags defined.",
+					  		   argvals.arg);
 					parseOK = false;
-					errNbr++;      
-					nbrErrors++;
 			}
 			
     	 
@@ -693,14 +786,11 @@ public class Args {
 			if (argvals.valueFL.contains(argvals.pValue))
 				argvals.gValue = argvals.pValue;
 			else {
-   				err.eMessage += "Invalid Flag value for  :  " + argvals.arg    + 
-   								"    passed value:  "         + argvals.pValue +
-   								"    Valid values:  "         + 
-   								Arrays.toString(argvals.valueFL.toArray()) +
-    								"\n";
+   				parseError(argvals.arg, -1,
+   						   "Invalid Flag value for  :  %s    passed value:  %s" +
+   						   "    Valid values:  %s",
+   						   argvals.arg, argvals.pValue, argvals.valueFL);
     				parseOK = false;
-    				errNbr++;      
-    				nbrErrors++;
     			}
     	}
 
@@ -787,8 +877,7 @@ public class Args {
         // to make visual comparisons easier
         for (String key: ARGFields ) {
             if (args.containsKey(key) ) {
-            	ArgDetail argvals = new ArgDetail();
-            	argvals = args.get(key);
+            	ArgDetail argvals = args.get(key);
                 String value = argvals.pValue; // passed in value
                 if (value == null ) { value = "null value";}
                 line = String.format(fmt, argvals.title, argvals.type,
@@ -800,6 +889,23 @@ public class Args {
 
     }
 
+    /**
+     * Compiles the arguments defined so far into a read only ArgSchema. 
+     * The schema can be shared by any number of threads, each parsing 
+     * its own command line arguments with ArgSchema.parse into an 
+     * ArgValues, whose getters need no lookups of ArgDetail records, 
+     * conversions or new objects.<p>
+     * Arguments defined, or flags or defaults changed, after compiling 
+     * are not part of the schema; compile again to pick them up.
+     * 
+     * @return ArgSchema of the defined arguments
+     */
+    public ArgSchema compile() {
+    	err.initErrs();
+        TR.debugMsgln(dbg, dPreFix, "Compiling %d parameters", args.size());
+    	return new ArgSchema(args, TR);
+    }
+
     //-------------------------------------------------------------------------
     // Getting Argument values Methods
     //-------------------------------------------------------------------------
@@ -812,7 +918,7 @@ public class Args {
      */
     public String getS(String argParam) {
 		err.initErrs();
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
 
     	// valid argument?
     	if (!vaildParam (argParam)) { 
@@ -846,7 +952,7 @@ public class Args {
      */
     public Boolean getB(String argParam) {
 		err.initErrs();
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
 
     	// valid argument?
     	if (!vaildParam (argParam)) { 
@@ -889,7 +995,7 @@ public class Args {
      */
     public Long getL(String argParam) {
 		err.initErrs();
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
 
     	// valid argument?
     	if (!vaildParam (argParam)) { 
@@ -934,10 +1040,10 @@ public class Args {
     public Integer getI(String argParam) {
 		err.initErrs();
     
-		Long    lVal = getL(argParam);
+		Long    lVal;
 		Integer iVal = null;
 		
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
 
     	// valid argument?
     	if (!vaildParam (argParam)) { 
@@ -947,7 +1053,7 @@ public class Args {
     	
     	// get the value
 		argvals = args.get(argParam);
-		lVal = getL(argParam);
+		lVal = getL(argParam);     // only once, it sets the Err values
 		
 		// is it a valid long value?
 		if (lVal != null) {
@@ -992,7 +1098,7 @@ public class Args {
      */
     public Float getF(String argParam) {
 		err.initErrs();
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
     	
     	
     	// valid argument?
@@ -1037,7 +1143,7 @@ public class Args {
      */
     public String getFLag(String argParam) {
 		err.initErrs();
-    	ArgDetail argvals = new ArgDetail();
+    	ArgDetail argvals;
 
     	// valid argument?
     	if (!vaildParam (argParam)) { 
@@ -1127,7 +1233,11 @@ public class Args {
  		vlist.put(v, getVersion());
  		
  		vlist = Errs.getAllVersions(vlist);
+ 		vlist = ErrorCollector.getAllVersions(vlist);
  		vlist = Trace.getAllVersions(vlist);
+ 		vlist = ArgSchema.getAllVersions(vlist);
+ 		vlist = ArgConfig.getAllVersions(vlist);
+ 		vlist = LiveArgs.getAllVersions(vlist);
 
  		return vlist;
     }
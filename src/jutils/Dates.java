@@ -1,30 +1,79 @@
 package jutils;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedHashMap;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
 
 /**
  * The Dates class brings together some common date conversion functionality
  * with error checking. Nothing is stored, but conversions between short 
  * formats (yyyy-MM-dd) and the Java Date class are provided.
  * 
+ * 14.80  Formatting and parsing use shared java.time formatters rather than
+ *        a new SimpleDateFormat per call. Added LocalDate and Instant 
+ *        versions of the conversions; the Date versions call them.
+ *        String dates are parsed by hand, straight from the characters,
+ *        to a day number; epochDayFromString and parseEpochDay return it
+ *        without building any objects, optionally checking the ranges.
+ *        Added bulk conversions of whole arrays of dates, with the invalid
+ *        entries flagged in a BitSet.
+ *        addMonths and inactiveDate remember their recent results, so 
+ *        repeated calls with the same values do not use a Calendar.
+ *        Debugging messages are only built when debugging is on.
+ *        The bulk conversions of string dates can also add each invalid
+ *        entry to an ErrorCollector.
+ * 
  */
 
 public class Dates {
 
-    private static final String  version     = "Version 03.00";
+    private static final String  version     = "Version 14.80";
     private static final String  dFlag       = DebugInfo.DB_DATES;
     private static final String  dPreFix     = "Dates:";
 
     static public   final String  DATE_FMT   = "yyyy-MM-dd"; //14.60
     static public   final String  DATE_FULL  = "yyyy-MM-dd HH:mm:ss";
     static public   final String  DATE_SEP   = "-";
+
+    // returned by the epoch day methods for an invalid date
+    static public   final long    INVALID_DAY = Long.MIN_VALUE;
+
+    // shared formatters; immutable, so safe for all threads. Lenient, as 
+    // SimpleDateFormat was, so "2015-12-32" is 2016-01-01
+    static private  final DateTimeFormatter DATE_FORMATTER = 
+    		DateTimeFormatter.ofPattern(DATE_FMT)
+    		                 .withResolverStyle(ResolverStyle.LENIENT);
+    static private  final DateTimeFormatter FULL_FORMATTER = 
+    		DateTimeFormatter.ofPattern(DATE_FULL)
+    		                 .withResolverStyle(ResolverStyle.LENIENT);
     
+    // addMonths results, direct mapped on the input time and months
+    static private  final int     AM_SLOTS   = 256;    // must be power of 2
+    private final long[]    amIn       = new long[AM_SLOTS];
+    private final int[]     amMonths   = new int[AM_SLOTS];
+    private final long[]    amOut      = new long[AM_SLOTS];
+    private final boolean[] amSet      = new boolean[AM_SLOTS];
+
+    // inactiveDate results for today, by months; cleared when the day ends
+    static private  final int     IA_SLOTS   = 16;     // must be power of 2
+    private long            dayStart   = 0;       // today's first millisecond
+    private long            dayEnd     = 0;       // tomorrow's first
+    private LocalDate       today      = null;
+    private final int[]     iaMonths   = new int[IA_SLOTS];
+    private final long[]    iaOut      = new long[IA_SLOTS];
+    private final boolean[] iaSet      = new boolean[IA_SLOTS];
+
     // support classes
     private Errs     err       = new Errs();       // for returning errors 
     private Trace    TR;                           // passed in constructor
+    private DebugHandle dbg;                       // TR's flag for dFlag
 
     //-------------------------------------------------------------------------
     // Constructor
@@ -36,6 +85,7 @@ public class Dates {
      */
 	public Dates(Trace tr) {
     	TR       = tr;  
+    	dbg      = (TR == null) ? null : TR.debugHandle(dFlag);
 
 	}
 
@@ -64,44 +114,233 @@ public class Dates {
     public Date dateFromString(String indate) {
         err.initErrs();
 
-        TR.debugMsgln(dFlag, dPreFix,
-           		      "----Parsing String input date:  " +  indate);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix,
+               		      "----Parsing String input date:  %s", indate);
+
+        long day = parseDate(indate, false);
+        if (day == INVALID_DAY) 
+        	return null;
+        LocalDate local = LocalDate.ofEpochDay(day);
+        
+        Date date1 = Date.from(local.atStartOfDay(ZoneId.systemDefault())
+        		                    .toInstant());
+ 
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+            		      "                 Output Value:  %s", date1);
+
+        return date1;
+
+    }
+
+    /**
+     * Converts a string date to a LocalDate value
+     * 		returns the date value, if it is invalid, returns null
+     *  
+     * @param indate string value of date to be converted
+     * @return LocalDate value of the converted date string, or null if error
+     */
+    public LocalDate localDateFromString(String indate) {
+        err.initErrs();
+
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix,
+               		      "----Parsing String input date:  %s", indate);
+
+        long day = parseDate(indate, false);
+        if (day == INVALID_DAY) 
+        	return null;
+        LocalDate local = LocalDate.ofEpochDay(day);
+ 
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+            		      "                 Output Value:  %s", local);
+
+        return local;
+    }
+
+    /**
+     * Converts a string date to the Instant of the start of that day, in 
+     * the default time zone
+     * 		returns the instant, if it is invalid, returns null
+     *  
+     * @param indate string value of date to be converted
+     * @return Instant value of the converted date string, or null if error
+     */
+    public Instant instantFromString(String indate) {
+        err.initErrs();
+
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix,
+               		      "----Parsing String input date:  %s", indate);
 
-        if (indate == null || indate.isEmpty() || indate.trim().isEmpty()) {
+        long day = parseDate(indate, false);
+        if (day == INVALID_DAY) 
+        	return null;
+        LocalDate local = LocalDate.ofEpochDay(day);
+        
+        Instant inst = local.atStartOfDay(ZoneId.systemDefault()).toInstant();
+ 
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+            		      "                 Output Value:  %s", inst);
+
+        return inst;
+    }
+
+    /**
+     * Converts a string date to the number of days since 1970-01-01 (the
+     * epoch day, as used by LocalDate.ofEpochDay). Nothing is allocated and
+     * no debugging messages are written, so it may be used for bulk loads.
+     * <br>
+     * If not strict, the month and day are rolled over the same as 
+     * dateFromString does ("2015-12-32" is 2016-01-01); if strict, months
+     * must be 1 to 12 and days must be in the month, including leap years.
+     *  
+     * @param indate CharSequence value of the date to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @return long value of the epoch day, or INVALID_DAY if error and
+     *                  the Err values are set
+     */
+    public long epochDayFromString(CharSequence indate, boolean strict) {
+        err.initErrs();
+        return parseDate(indate, strict);
+    }
+
+    /**
+     * Checks and parses a string date, setting the Err values if invalid
+     *  
+     * @param indate CharSequence value of date to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @return long value of the epoch day, or INVALID_DAY if error
+     */
+    private long parseDate(CharSequence indate, boolean strict) {
+
+        if (indate == null || isBlank(indate)) {
             err.eNbr     = 9800;
             err.eMessage = "Date string cannot be null or empty";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
-            return null;
+            TR.debugErr(dbg, dPreFix, err);
+            return INVALID_DAY;
         }
 
         if (indate.length() != 10 ||
-        	!indate.substring(4,5).equals(DATE_SEP) ||
-        	!indate.substring(7,8).equals(DATE_SEP)   ) {
+        	indate.charAt(4) != DATE_SEP.charAt(0) ||
+        	indate.charAt(7) != DATE_SEP.charAt(0)   ) {
             err.eNbr     = 9810;
             err.eMessage = "Date string must be in the format:  " + DATE_FMT;
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
-            return null;
+            TR.debugErr(dbg, dPreFix, err);
+            return INVALID_DAY;
         	
         }
         	
-        Date date1;
-        try {
-            date1 = new SimpleDateFormat(DATE_FMT).parse(indate);
-        } catch (ParseException e1) {
-            err.eNbr     = 9820;
+        long day = parseEpochDay(indate, strict);
+        if (day == INVALID_DAY) {
+            err.eNbr     = strict ? 9825 : 9820;
             err.eMessage = "Invalid date string; Must be in the format:  " + DATE_FMT;
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
-            return null;
+            TR.debugErr(dbg, dPreFix, err);
         }
- 
-        TR.debugMsgln(dFlag, dPreFix, 
-        		      "                 Output Value:  " +  date1 );
+        return day;
+    }
 
-        return date1;
+    /**
+     * Converts a string date in the DATE_FMT format (yyyy-MM-dd) to the 
+     * epoch day, reading the digits straight from the characters. No Err
+     * values are set and nothing is allocated.
+     *  
+     * @param indate CharSequence value of the date to be converted
+     * @param strict boolean <code>true</code> to check the month and day,
+     *                  <code>false</code> to roll them over
+     * @return long value of the epoch day, or INVALID_DAY if invalid
+     */
+    static public long parseEpochDay(CharSequence indate, boolean strict) {
+    	if (indate == null || indate.length() != 10 ||
+    		indate.charAt(4) != '-' || indate.charAt(7) != '-')
+    		return INVALID_DAY;
+
+    	int year  = digits(indate, 0, 4);
+    	int month = digits(indate, 5, 2);
+    	int day   = digits(indate, 8, 2);
+    	if ((year | month | day) < 0) 
+    		return INVALID_DAY;
+
+    	if (strict) {
+    		if (month < 1 || month > 12 || day < 1 || 
+    			day > daysInMonth(year, month))
+    			return INVALID_DAY;
+    		return epochDay(year, month, day);
+    	}
+
+    	// roll the month into the year, then add the days to the 1st
+    	int months = year * 12 + month - 1;
+    	return epochDay(months / 12, months % 12 + 1, 1) + day - 1;
+    }
+
+    /**
+     * Returns the value of a run of decimal digits
+     * 
+     * @param s CharSequence holding the digits
+     * @param from int value of the first digit
+     * @param len int value of the number of digits
+     * @return int value of the digits, -1 if any are not digits
+     */
+    static private int digits(CharSequence s, int from, int len) {
+    	int value = 0;
+    	for (int i = from; i < from + len; i++) {
+    		int d = s.charAt(i) - '0';
+    		if (d < 0 || d > 9) return -1;
+    		value = value * 10 + d;
+    	}
+    	return value;
+    }
+
+    /**
+     * Returns the number of days in a month, including leap years
+     * 
+     * @param year int value of the year
+     * @param month int value of the month, 1 to 12
+     * @return int value of the number of days
+     */
+    static private int daysInMonth(int year, int month) {
+    	if (month == 2) 
+    		return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) 
+    				? 29 : 28;
+    	return (month == 4 || month == 6 || month == 9 || month == 11) 
+    			? 30 : 31;
+    }
+
+    /**
+     * Returns the epoch day of a valid year, month and day, in the 
+     * (proleptic) Gregorian calendar, the same as LocalDate.toEpochDay
+     * 
+     * @param year int value of the year, 0 or greater
+     * @param month int value of the month, 1 to 12
+     * @param day int value of the day of the month
+     * @return long value of the epoch day
+     */
+    static private long epochDay(int year, int month, int day) {
+    	// count from March, so the leap day is the last day of the year
+    	int  y   = (month <= 2) ? year - 1 : year;
+    	long era = Math.floorDiv(y, 400);
+    	long yoe = y - era * 400;                                 // 0 - 399
+    	long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    	long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;         // 0 - 146096
+    	return era * 146097 + doe - 719468;
+    }
 
+    /**
+     * Checks if a CharSequence is empty or only white space
+     * 
+     * @param s CharSequence to be checked
+     * @return boolean <code>true</code> if blank
+     */
+    static private boolean isBlank(CharSequence s) {
+    	for (int i = 0; i < s.length(); i++) 
+    		if (s.charAt(i) > ' ') return false;
+    	return true;
     }
 
     //-------------------------------------------------------------------------
@@ -119,31 +358,33 @@ public class Dates {
     public String dateToString(Date inDate) {
         err.initErrs();
 
-        TR.debugMsgln(dFlag, dPreFix, 
-        		      "----Parsing Date  input value:  " +  inDate);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+            		      "----Parsing Date  input value:  %s", inDate);
 
         if (inDate == null) {
             err.eNbr     = 9830;
             err.eMessage = "Invalid Date value; cannot be null";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
             return "";
         }
 
-        SimpleDateFormat datefmt = new SimpleDateFormat(DATE_FMT);
         String dateS;
         try {
-            dateS = datefmt.format(inDate);
-        } catch (Exception e1) {
+            dateS = DATE_FORMATTER.format(
+            		    inDate.toInstant().atZone(ZoneId.systemDefault()));
+        } catch (DateTimeException e1) {
             err.eNbr     = 9840;
             err.eMessage = "Invalid Date value; Must be a valid date to convert";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
             return "";
         }
 
-        TR.debugMsgln(dFlag, dPreFix, 
-  		              "                 Output Value:  " +  dateS );
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+      		              "                 Output Value:  %s", dateS);
 
 
         return dateS;
@@ -166,37 +407,101 @@ public class Dates {
     public String dateToFullString(Date inDate) {
         err.initErrs();
 
-        TR.debugMsgln(dFlag, dPreFix, 
-        		      "----Parsing Date  input value:  " +  inDate);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+            		      "----Parsing Date  input value:  %s", inDate);
 
         if (inDate == null) {
             err.eNbr     = 9850;
             err.eMessage = "Invalid Date value; cannot be null";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
             return "";
         }
 
-        SimpleDateFormat datefmt = new SimpleDateFormat(DATE_FULL);
         String dateS;
         try {
-            dateS = datefmt.format(inDate);
-        } catch (Exception e1) {
+            dateS = FULL_FORMATTER.format(
+            		    inDate.toInstant().atZone(ZoneId.systemDefault()));
+        } catch (DateTimeException e1) {
             err.eNbr     = 9860;
             err.eMessage = "Invalid Date value; Must be a valid date to convert";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
             return "";
         }
 
-        TR.debugMsgln(dFlag, dPreFix, 
-  		              "                 Output Value:  " +  dateS );
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+      		              "                 Output Value:  %s", dateS);
 
 
         return dateS;
 
     }
 
+    /**
+     * converts a LocalDate to a string date;  
+     * returning the date value as a string.<br> 
+     * If the date is null, returns an empty string<br>
+     *  
+     * @param inDate LocalDate to be converted
+     * @return String value of the input LocalDate
+     */
+    public String dateToString(LocalDate inDate) {
+        err.initErrs();
+
+        if (inDate == null) {
+            err.eNbr     = 9830;
+            err.eMessage = "Invalid Date value; cannot be null";
+            err.eType    = Errs.ETYPE_ERROR;
+            TR.debugErr(dbg, dPreFix, err);
+            return "";
+        }
+
+        String dateS = DATE_FORMATTER.format(inDate);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+      		              "                 Output Value:  %s", dateS);
+        return dateS;
+    }
+
+    /**
+     * converts an Instant to a string date and time, in the default time 
+     * zone; returning the date value as a string.<br> 
+     * If the instant is null, returns an empty string<br>
+     *  
+     * @param inDate Instant to be converted
+     * @return String value of the input Instant
+     */
+    public String dateToFullString(Instant inDate) {
+        err.initErrs();
+
+        if (inDate == null) {
+            err.eNbr     = 9850;
+            err.eMessage = "Invalid Date value; cannot be null";
+            err.eType    = Errs.ETYPE_ERROR;
+            TR.debugErr(dbg, dPreFix, err);
+            return "";
+        }
+
+        String dateS;
+        try {
+            dateS = FULL_FORMATTER.format(inDate.atZone(ZoneId.systemDefault()));
+        } catch (DateTimeException e1) {
+            err.eNbr     = 9860;
+            err.eMessage = "Invalid Date value; Must be a valid date to convert";
+            err.eType    = Errs.ETYPE_ERROR;
+            TR.debugErr(dbg, dPreFix, err);
+            return "";
+        }
+
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+      		              "                 Output Value:  %s", dateS);
+        return dateS;
+    }
+
     //-------------------------------------------------------------------------
     // Calendar routines
     //-------------------------------------------------------------------------
@@ -213,23 +518,35 @@ public class Dates {
     public Date addMonths(Date inDate, int months) {
     	err.initErrs();
     	
-        TR.debugMsgln(dFlag, dPreFix, 
-  		      "----Add Months  input values:  " +  inDate + "\t" + months);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, 
+      		      "----Add Months  input values:  %s\t%s", inDate, months);
 
         if (inDate == null) {
             err.eNbr     = 9870;
             err.eMessage = "Invalid Date value; cannot be null";
             err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
             return null;
         }
 
-        Calendar cal = Calendar.getInstance();
-    	cal.setTime(inDate);
-    	cal.add(Calendar.MONTH, months);
+        // use the earlier result, if it is still in the cache
+        long in   = inDate.getTime();
+        long hash = (in ^ (in >>> 32)) * 31 + months;
+        int  slot = (int) (hash ^ (hash >>> 16)) & (AM_SLOTS - 1);
+        if (!amSet[slot] || amIn[slot] != in || amMonths[slot] != months) {
+        	Calendar cal = Calendar.getInstance();
+        	cal.setTime(inDate);
+        	cal.add(Calendar.MONTH, months);
+        	amIn[slot]     = in;
+        	amMonths[slot] = months;
+        	amOut[slot]    = cal.getTimeInMillis();
+        	amSet[slot]    = true;
+        }
     	
-    	Date retVal = cal.getTime();
-        TR.debugMsgln(dFlag, dPreFix, "    addMonths return:  " +  retVal );
+    	Date retVal = new Date(amOut[slot]);
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, "    addMonths return:  %s", retVal);
         return   retVal;
     }
 
@@ -245,19 +562,265 @@ public class Dates {
     public Date inactiveDate(int months) {
     	err.initErrs();
     	
-    	Date   retDate  = new Date();  // Today's date
+    	// a new day, forget the earlier results
+    	long now = System.currentTimeMillis();
+    	if (now < dayStart || now >= dayEnd) {
+    		ZoneId zone = ZoneId.systemDefault();
+    		today    = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+    		dayStart = today.atStartOfDay(zone).toInstant().toEpochMilli();
+    		dayEnd   = today.plusDays(1).atStartOfDay(zone)
+    				        .toInstant().toEpochMilli();
+    		Arrays.fill(iaSet, false);
+    	}
     	
-    	// strip off the seconds and convert it back to a date
-    	String todayS = dateToString(retDate);
-        retDate = dateFromString(todayS);
-        
-    	retDate  = addMonths(retDate, months); // "add" the months
-
-        TR.debugMsgln(dFlag, dPreFix, "    inactiveDate return:  " + retDate);
+    	// midnight today, plus the months
+    	int slot = months & (IA_SLOTS - 1);
+    	if (!iaSet[slot] || iaMonths[slot] != months) {
+    		iaMonths[slot] = months;
+    		iaOut[slot]    = today.plusMonths(months)
+    				              .atStartOfDay(ZoneId.systemDefault())
+    				              .toInstant().toEpochMilli();
+    		iaSet[slot]    = true;
+    	}
+    	Date   retDate  = new Date(iaOut[slot]);
+
+        if (dbg.isOn())
+            TR.debugMsgln(dbg, dPreFix, "    inactiveDate return:  %s", retDate);
 
     	return retDate;
     }
     
+    //-------------------------------------------------------------------------
+    // Bulk conversion routines
+    //-------------------------------------------------------------------------
+    /**
+     * Converts an array of string dates to epoch days (see 
+     * epochDayFromString). Each invalid entry is set to INVALID_DAY and its
+     * index is set in the passed BitSet; the Err values are only set once,
+     * with the number of invalid entries.
+     *  
+     * @param indates array of the string dates to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @param bad BitSet the indexes of the invalid entries are set in, or
+     *                  null if not needed
+     * @return long array of the epoch days, the same length as indates
+     */
+    public long[] epochDaysFromStrings(CharSequence[] indates, boolean strict,
+    		                           BitSet bad) {
+    	return epochDaysFromStrings(indates, strict, bad, null);
+    }
+
+    /**
+     * Converts an array of string dates to epoch days, the same as 
+     * epochDaysFromStrings(CharSequence[], boolean, BitSet), also adding
+     * each invalid entry to the passed ErrorCollector (error 9882, with the
+     * index and value of the entry).
+     *  
+     * @param indates array of the string dates to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @param bad BitSet the indexes of the invalid entries are set in, or
+     *                  null if not needed
+     * @param errors ErrorCollector the invalid entries are added to, or
+     *                  null if not needed
+     * @return long array of the epoch days, the same length as indates
+     */
+    public long[] epochDaysFromStrings(CharSequence[] indates, boolean strict,
+    		                           BitSet bad, ErrorCollector errors) {
+    	err.initErrs();
+    	
+    	long[] days   = new long[indates.length];
+    	int    nBad   = 0;
+    	for (int i = 0; i < indates.length; i++) {
+    		days[i] = parseEpochDay(indates[i], strict);
+    		if (days[i] == INVALID_DAY) {
+    			nBad++;
+    			if (bad != null) bad.set(i);
+    			if (errors != null) invalidDate(errors, i, indates[i]);
+    		}
+    	}
+    	
+    	bulkResult("epochDaysFromStrings", indates.length, nBad);
+    	return days;
+    }
+
+    /**
+     * Converts an array of string dates to yyyymmdd integers (for example
+     * "2015-04-01" to 20150401). Each invalid entry is set to 0 and its
+     * index is set in the passed BitSet; the Err values are only set once,
+     * with the number of invalid entries.
+     *  
+     * @param indates array of the string dates to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @param bad BitSet the indexes of the invalid entries are set in, or
+     *                  null if not needed
+     * @return int array of the yyyymmdd values, the same length as indates
+     */
+    public int[] yyyymmddFromStrings(CharSequence[] indates, boolean strict,
+    		                         BitSet bad) {
+    	return yyyymmddFromStrings(indates, strict, bad, null);
+    }
+
+    /**
+     * Converts an array of string dates to yyyymmdd integers, the same as
+     * yyyymmddFromStrings(CharSequence[], boolean, BitSet), also adding 
+     * each invalid entry to the passed ErrorCollector (error 9882, with the
+     * index and value of the entry).
+     *  
+     * @param indates array of the string dates to be converted
+     * @param strict boolean <code>true</code> to check the month and day
+     * @param bad BitSet the indexes of the invalid entries are set in, or
+     *                  null if not needed
+     * @param errors ErrorCollector the invalid entries are added to, or
+     *                  null if not needed
+     * @return int array of the yyyymmdd values, the same length as indates
+     */
+    public int[] yyyymmddFromStrings(CharSequence[] indates, boolean strict,
+    		                         BitSet bad, ErrorCollector errors) {
+    	err.initErrs();
+    	
+    	int[] dates = new int[indates.length];
+    	int   nBad  = 0;
+    	for (int i = 0; i < indates.length; i++) {
+    		long day = parseEpochDay(indates[i], strict);
+    		if (day == INVALID_DAY) {
+    			nBad++;
+    			if (bad != null) bad.set(i);
+    			if (errors != null) invalidDate(errors, i, indates[i]);
+    		} else 
+    			dates[i] = toYyyymmdd(day);
+    	}
+    	
+    	bulkResult("yyyymmddFromStrings", indates.length, nBad);
+    	return dates;
+    }
+
+    /**
+     * Adds a number of months to every epoch day in an array, the same as
+     * addMonths does: the day of the month is kept, or if the new month is
+     * shorter, the last day of that month is used. Entries that are 
+     * INVALID_DAY are left as they are.
+     *  
+     * @param days long array of the epoch days; it is not changed
+     * @param months  integer number of months to add (positive or negative)
+     * @return long array of the resulting epoch days
+     */
+    public long[] addMonths(long[] days, int months) {
+    	err.initErrs();
+    	
+    	long[] result = new long[days.length];
+    	for (int i = 0; i < days.length; i++) 
+    		result[i] = (days[i] == INVALID_DAY) ? INVALID_DAY 
+    				                             : addMonthsToDay(days[i], months);
+    	
+    	if (dbg.isOn())
+        	TR.debugMsgln(dbg, dPreFix, "    addMonths converted:  %d days", 
+        	                            days.length);
+    	return result;
+    }
+
+    /**
+     * Adds a number of months to every yyyymmdd value in an array, the same
+     * as addMonths does. Entries that are not valid dates are set to 0 and 
+     * their index is set in the passed BitSet.
+     *  
+     * @param dates int array of the yyyymmdd values; it is not changed
+     * @param months  integer number of months to add (positive or negative)
+     * @param bad BitSet the indexes of the invalid entries are set in, or
+     *                  null if not needed
+     * @return int array of the resulting yyyymmdd values
+     */
+    public int[] addMonths(int[] dates, int months, BitSet bad) {
+    	err.initErrs();
+    	
+    	int[] result = new int[dates.length];
+    	int   nBad   = 0;
+    	for (int i = 0; i < dates.length; i++) {
+    		int year  = dates[i] / 10000;
+    		int month = dates[i] / 100 % 100;
+    		int day   = dates[i] % 100;
+    		if (dates[i] < 0 || month < 1 || month > 12 || day < 1 || 
+    			day > daysInMonth(year, month)) {
+    			nBad++;
+    			if (bad != null) bad.set(i);
+    		} else 
+    			result[i] = toYyyymmdd(
+    					addMonthsToDay(epochDay(year, month, day), months));
+    	}
+    	
+    	bulkResult("addMonths", dates.length, nBad);
+    	return result;
+    }
+
+    /**
+     * Adds a number of months to an epoch day, keeping the day of the 
+     * month, or using the last day of the new month if it is shorter.
+     *  
+     * @param day long value of the epoch day
+     * @param months  integer number of months to add (positive or negative)
+     * @return long value of the resulting epoch day
+     */
+    static public long addMonthsToDay(long day, int months) {
+    	int  ymd   = toYyyymmdd(day);
+    	long total = (long) (ymd / 10000) * 12 + (ymd / 100 % 100 - 1) + months;
+    	int  year  = (int) Math.floorDiv(total, 12);
+    	int  month = Math.floorMod(total, 12) + 1;
+    	return epochDay(year, month, 
+    			        Math.min(ymd % 100, daysInMonth(year, month)));
+    }
+
+    /**
+     * Converts an epoch day to a yyyymmdd integer. Days before year 0 are 
+     * not supported.
+     *  
+     * @param day long value of the epoch day
+     * @return int value of the date as yyyymmdd
+     */
+    static public int toYyyymmdd(long day) {
+    	// the reverse of epochDay, counting from March
+    	long z     = day + 719468;
+    	long era   = Math.floorDiv(z, 146097);
+    	long doe   = z - era * 146097;                              // 0 - 146096
+    	long yoe   = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    	long doy   = doe - (365 * yoe + yoe / 4 - yoe / 100);       // 0 - 365
+    	long mp    = (5 * doy + 2) / 153;                           // 0 - 11
+    	int  dom   = (int) (doy - (153 * mp + 2) / 5 + 1);
+    	int  month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    	int  year  = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+    	return year * 10000 + month * 100 + dom;
+    }
+
+    /**
+     * Adds an invalid entry of a bulk conversion to an ErrorCollector
+     * 
+     * @param errors ErrorCollector the entry is added to
+     * @param i int value of the index of the entry
+     * @param indate the invalid string date
+     */
+    private static void invalidDate(ErrorCollector errors, int i, 
+    		                        CharSequence indate) {
+    	errors.add(9882, "date", i, "Invalid date at %d:  %s", i, indate);
+    }
+
+    /**
+     * Sets the Err values, and writes a debugging message, for the result 
+     * of a bulk conversion
+     * 
+     * @param method String value of the name of the bulk method
+     * @param total int value of the number of entries converted
+     * @param nBad int value of the number of invalid entries
+     */
+    private void bulkResult(String method, int total, int nBad) {
+    	if (dbg.isOn())
+        	TR.debugMsgln(dbg, dPreFix, "    %s converted:  %d dates, %d invalid",
+        	                            method, total, nBad);
+    	if (nBad > 0) {
+            err.eNbr     = 9880;
+            err.eMessage = "Invalid dates found:  " + nBad + " of " + total;
+            err.eType    = Errs.ETYPE_WARN;
+            TR.debugErr(dbg, dPreFix, err);
+    	}
+    }
+
     //-------------------------------------------------------------------------
     // Version Routines
     //-------------------------------------------------------------------------
@@ -290,6 +853,7 @@ public class Dates {
 		vlist.put(v, getVersion());
 		
 		vlist = Errs.getAllVersions(vlist);
+		vlist = ErrorCollector.getAllVersions(vlist);
 		vlist = Trace.getAllVersions(vlist);
 
     	return vlist;
@@ -0,0 +1,99 @@
+package jutils;
+import java.util.LinkedHashMap;
+
+/**
+ * The DebugHandle class holds the debug flag of a single Class Code, already
+ * looked up, so that checking it is a single field read. Handles are
+ * obtained from DebugStatus.debugHandle (normally through a Trace) once,
+ * for example when a class is created, and then passed to the Trace debug
+ * methods in place of the Class Code.<p>
+ * The flag includes the DB_ALL setting. Whenever a debug flag is defined or
+ * changed, the DebugStatus that created the handle updates it, so a change
+ * is seen by every thread the next time the handle is checked.
+ *
+ */
+
+public final class DebugHandle {
+
+    private final static String  version     = "Version 14.80";
+
+    private final String       classCode;
+    private volatile boolean   on;
+
+    /**
+     * Created by DebugStatus.debugHandle only
+     *
+     * @param cDCode String value of the Class Code
+     * @param value boolean value of the current debug flag
+     */
+    DebugHandle(String cDCode, boolean value) {
+    	classCode = cDCode;
+    	on        = value;
+    }
+
+    /**
+     * Returns if debugging is on for the Class Code (or DB_ALL is on)
+     *
+     * @return boolean value of the debug flag
+     */
+    public boolean isOn() {
+    	return on;
+    }
+
+    /**
+     * Returns the Class Code of this handle
+     *
+     * @return String value of the Class Code
+     */
+    public String classCode() {
+    	return classCode;
+    }
+
+    /**
+     * Sets the flag, called by DebugStatus when the flags change
+     *
+     * @param value boolean value of the debug flag
+     */
+    void set(boolean value) {
+    	on = value;
+    }
+
+    public String toString() {
+    	return classCode + "=" + on;
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = DebugHandle.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+    	return vlist;
+	}
+
+}
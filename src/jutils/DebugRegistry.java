@@ -0,0 +1,404 @@
+package jutils;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The DebugRegistry class holds the debug flags and the known debug params
+ * shared by a group of Trace instances. A Trace created from another Trace
+ * uses the same registry rather than a copy of it, so a flag set through
+ * any of them is seen by all of them. A Trace may still override flags for
+ * itself alone (see DebugStatus.setLocalDF).<p>
+ * The flags are held in a map that is never changed: each change builds a
+ * new map and replaces the old one, so the flags can be read by any number
+ * of threads without locking while another thread changes them. Changes are
+ * expected to be rare (a menu, or an edited debug.ini file), reads are not.
+ * <p>
+ * The registry is used through DebugStatus; only creating, copying and
+ * sharing a registry are public.
+ *
+ */
+
+public final class DebugRegistry {
+
+    private final static String  version     = "Version 14.80";
+
+    // details of a debug param; once in the flags a record is not changed,
+    // a changed copy replaces it
+    static final class Detail {
+    	String  classCode   = "";    // unique code/prefix
+    	String  className   = "";    // name of the class
+    	String  packageName = "";    // name of the class's package
+    	String  menuGroup   = "";    // Name of Menu Group
+    	String  displayName = "";    // Name to display to debugger
+    	boolean debugFlag   = false; // has it been set?
+
+    	Detail() {
+    	}
+
+    	Detail(Detail d) {
+    		classCode   = d.classCode;
+    		className   = d.className;
+    		packageName = d.packageName;
+    		menuGroup   = d.menuGroup;
+    		displayName = d.displayName;
+    		debugFlag   = d.debugFlag;
+    	}
+
+    	boolean sameAs(Detail d) {
+    		return classCode.equals(d.classCode)     &&
+    			   className.equals(d.className)     &&
+    			   menuGroup.equals(d.menuGroup)     &&
+    			   displayName.equals(d.displayName) &&
+    			   debugFlag == d.debugFlag;
+    	}
+    }
+
+    // all defined debug params, by classCode. The map is replaced, never
+    // changed, so it may be read without locking
+    private volatile HashMap<String, Detail> flags =
+    		                                  new HashMap<String, Detail>();
+
+    // known debug params, in the order to be shown, with their package
+    private final LinkedHashMap<String, String> knownParams =
+    		                              new LinkedHashMap<String, String>();
+
+    // held while building new flags, or changing the other fields
+    private final Object lock = new Object();
+
+    // the debug.ini file, as last read, and its watcher, if any
+    private String                  dbFileName = null;
+    private HashMap<String, Detail> fileFlags  = new HashMap<String, Detail>();
+    private FileWatcher             watcher    = null;
+
+    // the DebugStatus instances using the registry, told of each change so
+    // they can update their DebugHandles
+    private final List<WeakReference<DebugStatus>> users =
+    		         new CopyOnWriteArrayList<WeakReference<DebugStatus>>();
+
+    //-------------------------------------------------------------------------
+    // Constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates an empty registry
+     */
+    public DebugRegistry() {
+
+    }
+
+    /**
+     * Returns a new registry with the same flags and known params as this
+     * one, which is not shared with the users of this one. The debug.ini 
+     * file last read, and its records, are copied too, so a reload of the
+     * copy only applies what changed since; a watch of the file is not.
+     *
+     * @return DebugRegistry copy of this registry
+     */
+    public DebugRegistry copy() {
+    	DebugRegistry r = new DebugRegistry();
+    	synchronized (lock) {
+    		r.flags      = flags;
+    		r.knownParams.putAll(knownParams);
+    		r.dbFileName = dbFileName;
+    		r.fileFlags  = fileFlags;    // replaced, never changed
+    	}
+    	return r;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Users of the registry
+    //-------------------------------------------------------------------------
+    /**
+     * Adds a DebugStatus to be told of changes
+     *
+     * @param ds DebugStatus using the registry
+     */
+    void attach(DebugStatus ds) {
+    	users.add(new WeakReference<DebugStatus>(ds));
+    }
+
+    /**
+     * Removes a DebugStatus, which no longer uses the registry
+     *
+     * @param ds DebugStatus no longer using the registry
+     */
+    void detach(DebugStatus ds) {
+    	for (WeakReference<DebugStatus> ref : users) {
+    		DebugStatus u = ref.get();
+    		if (u == null || u == ds) users.remove(ref);
+    	}
+    }
+
+    /**
+     * Tells each user that the flags have changed, dropping those that are
+     * gone
+     */
+    private void changed() {
+    	for (WeakReference<DebugStatus> ref : users) {
+    		DebugStatus u = ref.get();
+    		if (u == null)
+    			users.remove(ref);
+    		else
+    			u.updateHandles();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    //  Reading the flags, without locking
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the current flags. The map returned is never changed.
+     *
+     * @return HashMap of the debug params, by class code
+     */
+    HashMap<String, Detail> flags() {
+    	return flags;
+    }
+
+    /**
+     * Returns the record of a debug param
+     *
+     * @param classCode String value of the Class Code
+     * @return Detail of the debug param, or null if not defined
+     */
+    Detail get(String classCode) {
+    	return flags.get(classCode);
+    }
+
+    /**
+     * Returns the debug flag of a debug param
+     *
+     * @param classCode String value of the Class Code
+     * @return boolean value of the flag, <code>false</code> if not defined
+     */
+    boolean flag(String classCode) {
+    	Detail d = flags.get(classCode);
+    	return d != null && d.debugFlag;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Changing the flags
+    //-------------------------------------------------------------------------
+    /**
+     * Adds or replaces the record of a single debug param
+     *
+     * @param code String value of the Class Code
+     * @param d Detail of the debug param, not changed after this call
+     */
+    void put(String code, Detail d) {
+    	synchronized (lock) {
+    		HashMap<String, Detail> next = new HashMap<String, Detail>(flags);
+    		next.put(code, d);
+    		flags = next;
+    	}
+    	changed();
+    }
+
+    /**
+     * Turns off the debug flags of all defined debug params
+     */
+    void clearAll() {
+    	synchronized (lock) {
+    		HashMap<String, Detail> next = new HashMap<String, Detail>(flags);
+    		for (Map.Entry<String, Detail> e : next.entrySet()) {
+    			Detail d    = new Detail(e.getValue());
+    			d.debugFlag = false;
+    			e.setValue(d);
+    		}
+    		flags = next;
+    	}
+    	changed();
+    }
+
+    /**
+     * Applies the records of a debug.ini file that changed since it was
+     * last read, replacing the flags once with all of the changes. Records
+     * removed from the file have their debug flag turned off.
+     *
+     * @param dbFile String value of the file name
+     * @param read HashMap of the records read, by class code
+     * @return List of the Class Codes changed
+     */
+    List<String> applyFile(String dbFile, HashMap<String, Detail> read) {
+    	List<String> changed = new ArrayList<String>();
+    	synchronized (lock) {
+    		// a different file has nothing in common with the last one
+    		if (!dbFile.equals(dbFileName)) {
+    			dbFileName = dbFile;
+    			fileFlags  = new HashMap<String, Detail>();
+    		}
+
+    		HashMap<String, Detail> next = new HashMap<String, Detail>(flags);
+
+    		// added or changed records
+    		for (Detail d : read.values()) {
+    			Detail last = fileFlags.get(d.classCode);
+    			if (last != null && last.sameAs(d)) continue;
+    			d.packageName = packageOf(d.classCode);
+    			next.put(d.classCode, d);
+    			changed.add(d.classCode);
+    		}
+
+    		// removed records are turned off
+    		for (String code : fileFlags.keySet()) {
+    			if (read.containsKey(code)) continue;
+    			Detail d = next.get(code);
+    			if (d == null || !d.debugFlag) continue;
+    			d           = new Detail(d);
+    			d.debugFlag = false;
+    			next.put(code, d);
+    			changed.add(code);
+    		}
+
+    		fileFlags = read;
+    		if (!changed.isEmpty()) flags = next;
+    	}
+    	if (!changed.isEmpty()) changed();
+    	return changed;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Watching the debug.ini file
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the name of the debug.ini file last read
+     *
+     * @return String value of the file name, or null if none
+     */
+    String fileName() {
+    	synchronized (lock) {
+    		return dbFileName;
+    	}
+    }
+
+    /**
+     * Starts watching the debug.ini file, if not already watched
+     *
+     * @param dbFile String value of the file name, if none has been read
+     * @param pollMillis long value of the milliseconds between checks
+     * @param reload Runnable run when the file changes
+     * @return String value of the file watched, or null if it was already
+     *                 being watched
+     */
+    String watch(String dbFile, long pollMillis, Runnable reload) {
+    	FileWatcher w;
+    	String      name;
+    	synchronized (lock) {
+    		if (watcher != null) return null;
+    		if (dbFileName == null) dbFileName = dbFile;
+    		name    = dbFileName;
+    		w       = new FileWatcher(name, pollMillis, reload);
+    		watcher = w;
+    	}
+    	w.start();
+    	return name;
+    }
+
+    /**
+     * Stops watching the debug.ini file
+     */
+    void stopWatch() {
+    	FileWatcher w;
+    	synchronized (lock) {
+    		w       = watcher;
+    		watcher = null;
+    	}
+    	if (w != null) w.stopWatching();
+    }
+
+    /**
+     * Returns if the debug.ini file is being watched
+     *
+     * @return boolean <code>true</code> if watching
+     */
+    boolean isWatching() {
+    	synchronized (lock) {
+    		return watcher != null;
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    //  Known debug params
+    //-------------------------------------------------------------------------
+    /**
+     * Adds a known debug param
+     *
+     * @param code String value of the Class Code
+     * @param pName String value of its package name
+     * @return boolean <code>false</code> if it was already known
+     */
+    boolean addKnown(String code, String pName) {
+    	synchronized (lock) {
+    		if (knownParams.containsKey(code)) return false;
+    		knownParams.put(code, pName);
+    		return true;
+    	}
+    }
+
+    /**
+     * Returns the package name of a known debug param, adding it to the
+     * known params if needed
+     *
+     * @param code String value of the Class Code
+     * @return String value of the package name, or DF_UNKNOWN
+     */
+    String packageOf(String code) {
+    	synchronized (lock) {
+    		String pName = knownParams.get(code);
+    		if (pName != null) return pName;
+    		knownParams.put(code, DebugStatus.DF_UNKNOWN);
+    		return DebugStatus.DF_UNKNOWN;
+    	}
+    }
+
+    /**
+     * Returns a copy of the known debug params
+     *
+     * @return LinkedHashMap of the known Params and their packages
+     */
+    LinkedHashMap<String, String> knownCopy() {
+    	synchronized (lock) {
+    		return new LinkedHashMap<String, String>(knownParams);
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = DebugRegistry.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = FileWatcher.getAllVersions(vlist);
+    	return vlist;
+	}
+
+}
@@ -16,10 +16,24 @@ import java.util.Set;
  * This process allows programs to set and un-set the debug flags for classes 
  * dynamically during runtime. While not actually having access to classes.
  * 
+ * Classes that check their flag often can get a DebugHandle for their class
+ * code (see debugHandle); the handle is kept up to date as flags change, so
+ * checking it needs no lookups.
+ * 
+ * The debug flags are kept in a DebugRegistry, which is shared by a Trace
+ * and the Traces created from it, rather than copied to each of them; a 
+ * flag set through one is set for all. Flags can also be overridden for a 
+ * single Trace (see setLocalDF).<p>
+ * The debug flags are never changed in place: each change builds a new map
+ * of flags and replaces the old one, so the flags can be read without 
+ * locking while they are being changed by another thread. This allows the 
+ * debug.ini file to be watched (see watchDebugFlags) and any changes to it 
+ * applied while the program runs.
+ * 
  */
 public class DebugStatus {
 
-    private static final String  version    = "Version 14.75";
+    private static final String  version    = "Version 14.80";
     private static final String   dFlag     = DebugInfo.DB_DEBUGSTATUS;    
     private static final String  dPreFix    = "DFlags:";
     
@@ -37,27 +51,17 @@ public class DebugStatus {
                     		           DF_DNAME, DF_MGROUP,
                     		           DF_DFLAG );
 
-    // details of an argument
-    private class DebugDetail {
-    	// Debug information
-    	private String  classCode   = "";    // unique code/prefix
-    	private String  className   = "";    // name of the class
-    	private String  packageName = "";    // name of the class's package
-    	private String  menuGroup   = "";    // Name of Menu Group
-    	private String  displayName = "";    // Name to display to debugger
-    	private boolean debugFlag   = false; // has it been set?
-    }
-    
-    // HashMap of all defined debug params (added through the debug.ini file,
-    // or other s; key will be the classCode
-    private HashMap<String, DebugDetail> dFlags = 
-    		                               new HashMap<String, DebugDetail>();
-
-    // List of known debug Params, in the order to be shown by showFlags();
-    // key will be the classCode, while the object will be the package name
-    // where the class is defined. 
-    private LinkedHashMap<String, String> knownParams = 
-    		                              new LinkedHashMap<String, String>();
+    // the debug flags and known debug params, shared with other Traces
+    private DebugRegistry registry = null;
+
+    // flags overridden for this instance only, by classCode. The map is 
+    // replaced, never changed, so it may be read without locking
+    private volatile HashMap<String, Boolean> localDF = 
+    		                                  new HashMap<String, Boolean>();
+
+    // Debug handles given out, by classCode; updated when the flags change
+    private final HashMap<String, DebugHandle> handles = 
+    		                              new HashMap<String, DebugHandle>();
     // passed in values
     private   Errs     err       = null;       // for returning errors 
     private   Trace    TR        = null;       // used to dump hard errors
@@ -87,7 +91,8 @@ public class DebugStatus {
 	 * @param errors instantiated Errs class for error reporting
      * @param dsT Trace class with debug information. Pass null
      *        when creating a Trace file for the first time, otherwise pass
-     *        an instantiated class to copy debugging values
+     *        an instantiated class whose debugging values (its 
+     *        DebugRegistry) are to be shared
      */
     protected void  initDebugStatus(Trace tr, Errs errors, Trace dsT) {
     	
@@ -98,11 +103,11 @@ public class DebugStatus {
     	// values. This cannot be done in the constructor because this method
     	// references TR and err!
     	if (dsT == null) {
+    		useDebugRegistry(new DebugRegistry());
         	addKnown(DebugInfo.DB_METH_CODES, DebugInfo.DB_PACKAGE);
     	} else {
-    		// copy the known values and the current debug Flags
-   			knownParams = dsT.copyKP();
-   			dFlags      = dsT.copyDFlags();
+    		// share the known values and the current debug Flags
+    		useDebugRegistry(dsT.debugRegistry());
     	}
   	
     }
@@ -115,18 +120,16 @@ public class DebugStatus {
      * Trace Class), subsequent classes may need to copy the DebugStatus
      * information from one Trace class to the other (for example when creating
      * a Trace Thread. These methods are provided to support that process.
+     * The debug flags are shared with the passed Trace, not copied.
      * 
      * @param tr instantiated Trace class for tracing debugging errors
      */
     protected void  copyDebugStatus(Trace tr) {
     	
-    	// if there are previous values, copy them
+    	// if there are previous values, share them
     	Set <String> kp = tr.debugParams(); // previous values
     	if (!kp.isEmpty()) {  // previous values exist!
-    		// copy the values to this instance
-        	knownParams = tr.copyKP();
-        	dFlags      = tr.copyDFlags();
-        	
+    		useDebugRegistry(tr.debugRegistry());
     	}
   	
     }
@@ -137,16 +140,32 @@ public class DebugStatus {
      *           packages
      */
     protected LinkedHashMap<String, String> copyKP() {
-    	return new LinkedHashMap<String, String>(knownParams);
+    	return registry.knownCopy();
     }
- 
+
+    /**
+     * Returns the registry holding the debug flags of this instance
+     * 
+     * @return DebugRegistry of the debug flags
+     */
+    public DebugRegistry debugRegistry() {
+    	return registry;
+    }
+
     /**
-     * Returns a copy of the dFlags, the defined debug flags and values
+     * Changes the registry holding the debug flags of this instance, for 
+     * example to share one registry between many Traces, or to give a 
+     * Trace its own flags (with DebugRegistry.copy()). Flags overridden 
+     * for this instance are kept.
      * 
-     * @return a copy of the HashMap of defined debug flags
+     * @param reg DebugRegistry of the debug flags to be used
      */
-    protected HashMap<String, DebugDetail> copyDFlags () {
-    	return new HashMap<String, DebugDetail>(dFlags);
+    public void useDebugRegistry(DebugRegistry reg) {
+    	if (registry == reg) return;
+    	if (registry != null) registry.detach(this);
+    	registry = reg;
+    	registry.attach(this);
+    	updateHandles();
     }
     
     //-------------------------------------------------------------------------
@@ -160,7 +179,7 @@ public class DebugStatus {
      * @return Set of Strings of known debug params
      */
    public Set<String> debugParams(){
-    	Set<String> kp = knownParams.keySet();
+    	Set<String> kp = copyKP().keySet();
     	return kp;
     	
     }
@@ -205,14 +224,49 @@ public class DebugStatus {
      *                 <code>false</code> if not defined
      */
      public boolean getClassDF(String classCode) {
+     	// overridden for this instance?
+     	HashMap<String, Boolean> local = localDF;
+     	if (!local.isEmpty()) {
+     		Boolean val = local.get(classCode);
+     		if (val != null) return val;
+     	}
+
      	// check individually
-     	if (dFlags.containsKey(classCode))
-     		 return dFlags.get(classCode).debugFlag;
-     	
-     	// it's not there!
-    		return false;
+     	return registry.flag(classCode);
 
      }
+
+    /**
+     * Returns the debug handle for the given Class Code, creating it if 
+     * needed. The handle's flag is the same as getDF(classCode), and is 
+     * updated whenever a debug flag is defined or changed, so callers can 
+     * get it once and check it as often as they like.
+     * 
+     * @param classCode String value of the Class Code
+     * @return DebugHandle for the class code
+     */
+    public DebugHandle debugHandle(String classCode) {
+    	synchronized (handles) {
+    		DebugHandle h = handles.get(classCode);
+    		if (h == null) {
+    			h = new DebugHandle(classCode, getDF(classCode));
+    			handles.put(classCode, h);
+    		}
+    		return h;
+    	}
+    }
+
+    /**
+     * Updates all of the debug handles given out, after the flags change.
+     * A change to DB_ALL affects every handle, so all are checked. Called
+     * by the registry when the shared flags change.
+     */
+    void updateHandles() {
+    	synchronized (handles) {
+    		for (DebugHandle h : handles.values())
+    			h.set(getDF(h.classCode()));
+    	}
+    }
      
    /**
     * Gets the one of the Fields for the given 
@@ -226,7 +280,7 @@ public class DebugStatus {
    public String getField(String classCode, String fldName) {
    
    	err.initErrs();
-   	DebugDetail cVal;
+   	DebugRegistry.Detail cVal;
    	
    	// verify we have a correct type of field
    	if (!fieldTypes.contains(fldName) ) {
@@ -239,9 +293,8 @@ public class DebugStatus {
 
    	
    	// get the record
-   	if (dFlags.containsKey(classCode)) {
-   		cVal = dFlags.get(classCode);
-   	} else {
+   	cVal = registry.get(classCode);
+   	if (cVal == null) {
    		err.eNbr     =   9440;
    		err.eType    =   Errs.ETYPE_WARN;
    		err.eMessage =   "Debug Class not defined:  " + classCode;
@@ -298,28 +351,17 @@ public class DebugStatus {
     					   boolean val) {
     	err.initErrs();
     	
-    	//if the code is known, get it's Package Name
-    	String pName = "";
-    	if (knownParams.containsKey(iCode))
-    		pName = knownParams.get(iCode);
-    	else { 
-        	// add it to the list of known flags 
-        	if (!addKnown(iCode, DF_UNKNOWN)) 
-        		err.initErrs();
-    		pName = DF_UNKNOWN;
-    	}
-    	
     	// build a Debug Detail Record
-    	DebugDetail nVal = new DebugDetail();
+    	DebugRegistry.Detail nVal = new DebugRegistry.Detail();
     	nVal.classCode   = iCode;
-    	nVal.packageName = pName;
+    	nVal.packageName = registry.packageOf(iCode);
     	nVal.menuGroup   = iMGroup;
     	nVal.className   = iClassName;
     	nVal.displayName = iDisplay;
     	nVal.debugFlag   = val;
     	
     	// add it to the list of debug flags
-    	dFlags.put(iCode,  nVal);
+    	registry.put(iCode, nVal);
 
     	return;
     	
@@ -337,7 +379,7 @@ public class DebugStatus {
     public boolean setField(String Code, String fldName, String val) {
     
     	err.initErrs();
-    	DebugDetail cVal;
+    	DebugRegistry.Detail cVal;
     	
     	// verify we have a correct type of field
     	if (!fieldTypes.contains(fldName) ) {
@@ -349,12 +391,10 @@ public class DebugStatus {
     	}
 
     	
-    	// get the current record
-    	if (dFlags.containsKey(Code)) {
-    		cVal = dFlags.get(Code);
-    	} else {
-    		cVal = new DebugDetail();
-    	}
+    	// get a copy of the current record
+    	cVal = registry.get(Code);
+    	cVal = (cVal == null) ? new DebugRegistry.Detail() 
+    			              : new DebugRegistry.Detail(cVal);
 
     	// set the value
 		switch  (fldName)  {
@@ -383,7 +423,7 @@ public class DebugStatus {
 		}
 		
 		// update the record
-		dFlags.put(Code, cVal);
+		registry.put(Code, cVal);
 		return true;
 
     }
@@ -392,7 +432,9 @@ public class DebugStatus {
      * Set the debug flag value for the given Class.<P>
      * <b>NOTE:  </b> If the classCode is "DB_CLEAR" then the
      *                debug Flags for all Defined classes are set
-     *                to false, regardless of the value passed in val.
+     *                to false, regardless of the value passed in val.<br>
+     *                The flag is set in the shared registry, so it is set
+     *                for every Trace sharing it (see setLocalDF).
      * 
      * @param classCode String value of the  code
      * @param val boolean value of the value to be set 
@@ -403,19 +445,20 @@ public class DebugStatus {
     		clearAll();
     	}
  
-    	// get the current record
-    	if (dFlags.containsKey(classCode)) {
-    		DebugDetail cVal = dFlags.get(classCode);
+    	// get a copy of the current record
+    	DebugRegistry.Detail cVal = registry.get(classCode);
+    	if (cVal != null) {
+    		cVal             = new DebugRegistry.Detail(cVal);
     		cVal.debugFlag   = val;
-    		dFlags.put(classCode, cVal);
+    		registry.put(classCode, cVal);
     		return;
     	}
     	
     	// value not there, set it anyway
-    	DebugDetail nVal = new DebugDetail();
+    	DebugRegistry.Detail nVal = new DebugRegistry.Detail();
     	nVal.classCode   = classCode;
     	nVal.debugFlag   = val;
-    	dFlags.put(classCode,  nVal);
+    	registry.put(classCode, nVal);
     	
     }
  
@@ -424,11 +467,48 @@ public class DebugStatus {
      */
      private void clearAll() {
     	 // turning off debugging for all defined s
-    	 for (String key : dFlags.keySet()) {
-     		DebugDetail cVal = dFlags.get(key);   // get it
-     		cVal.debugFlag   = false;             // set it
-     		dFlags.put(key, cVal);                // update it
+    	 registry.clearAll();
+     }
+
+    /**
+     * Overrides the debug flag value for the given Class, for this instance
+     * only; other Traces sharing the same registry are not affected.
+     * 
+     * @param classCode String value of the  code
+     * @param val Boolean value of the value to be used, or null to remove
+     *            the override and use the shared value again
+     */
+     public void setLocalDF(String classCode, Boolean val) {
+    	 synchronized (handles) {
+    		 HashMap<String, Boolean> next = 
+    				                  new HashMap<String, Boolean>(localDF);
+    		 if (val == null)
+    			 next.remove(classCode);
+    		 else
+    			 next.put(classCode, val);
+    		 localDF = next;
     	 }
+    	 updateHandles();
+     }
+
+     /**
+      * Removes all of the debug flags overridden for this instance
+      */
+     public void clearLocalDF() {
+    	 synchronized (handles) {
+    		 localDF = new HashMap<String, Boolean>();
+    	 }
+    	 updateHandles();
+     }
+
+     /**
+      * Returns the debug flag overridden for this instance
+      * 
+      * @param classCode String value of the  code
+      * @return Boolean value of the override, or null if not overridden
+      */
+     public Boolean getLocalDF(String classCode) {
+    	 return localDF.get(classCode);
      }
 
      //-------------------------------------------------------------------------
@@ -463,16 +543,102 @@ public class DebugStatus {
     	 if (dbFile == null || dbFile.isEmpty() || dbFile.trim().isEmpty())
     		 dbFile = "debug.ini";  // default value
     	 
+    	 // read the file, if not there, just return
+    	 HashMap<String, DebugRegistry.Detail> read = 
+    			                             readDebugFile(dbFile, true);
+    	 if (read == null) return;
+    	 
+    	 registry.applyFile(dbFile, read);
+    	 
+    	 // if requested, show the current list of all known debug flags
+    	 if (show) showFlags();
+    	 
+     }
+
+     /**
+      * Starts watching the debug.ini file last read by getDebugFlags (or 
+      * debug.ini if none has been read), and applies any changes to it 
+      * while the program runs. Only the records that were added, changed,
+      * or removed in the file are applied, so flags changed by the program
+      * for records that did not change in the file are kept. A record 
+      * removed from the file has its debug flag turned off.<br>
+      * The file is watched for the registry, so the changes are seen by all
+      * of the Traces sharing it; only one watcher is started per registry.
+      * 
+      * @param pollMillis long value of the milliseconds between checks of
+      *                   the file (see FileWatcher)
+      */
+     public void watchDebugFlags(long pollMillis) {
+    	 String dbFile = registry.watch("debug.ini", pollMillis, 
+    			                        new Runnable() {
+    		 public void run() { reloadDebugFlags(); }
+    	 });
+    	 if (dbFile != null)
+    		 TR.debugMsgln(dFlag, dPreFix, "Watching debug file:  %s", dbFile);
+     }
+
+     /**
+      * Stops watching the debug.ini file
+      */
+     public void stopDebugWatch() {
+    	 registry.stopWatch();
+     }
+
+     /**
+      * Returns if the debug.ini file is being watched
+      * 
+      * @return boolean <code>true</code> if watching
+      */
+     public boolean isDebugWatched() {
+    	 return registry.isWatching();
+     }
+
+     /**
+      * Reads the debug.ini file again and applies the records that changed
+      * since it was last read. Called when a watched file changes, but may 
+      * also be called directly. If the file cannot be read, nothing is 
+      * changed.
+      * 
+      * @return List of the Class Codes changed, or null if the file could
+      *              not be read
+      */
+     public List<String> reloadDebugFlags() {
+    	 String dbFile = registry.fileName();
+    	 if (dbFile == null) dbFile = "debug.ini";
+    	 HashMap<String, DebugRegistry.Detail> read = 
+    			                             readDebugFile(dbFile, false);
+    	 if (read == null) return null;
+
+    	 List<String> changed = registry.applyFile(dbFile, read);
+    	 TR.debugMsgln(dFlag, dPreFix, "Reloaded %s, changed:  %s", 
+    			                       dbFile, changed);
+    	 return changed;
+     }
+
+     /**
+      * Reads the records of the debug.ini file
+      * 
+      * @param dbFile String value of the file name
+      * @param report boolean <code>true</code> to set the Err values if the
+      *               file cannot be opened
+      * @return HashMap of the records read, by class code, or null if the 
+      *               file could not be opened
+      */
+     private HashMap<String, DebugRegistry.Detail> readDebugFile(
+    		                                 String dbFile, boolean report) {
     	 String line = null;
     	 FIO fs = new FIO(TR);  // define the file IO
     	 
     	 // open the file, if not there, just return
     	 if (!fs.open(dbFile, FIO.FIO_READ)) {
-			 err = fs.getErrs();
+    		 if (report) err = fs.getErrs();
 //			 TR.printErr(err, "Error opening " + dbFile);
-    	 	return;
+    	 	return null;
     	 }
     	 
+    	 HashMap<String, DebugRegistry.Detail> read = 
+    			                   new HashMap<String, DebugRegistry.Detail>();
+
     	 // get and process each record
     	 while (!fs.eof()) {
     		 // get the next record
@@ -480,8 +646,9 @@ public class DebugStatus {
     		 if (line == null) {
     			 // error or eof
     			 if (fs.eof())  break;
-    			 err = fs.getErrs();
-    			 TR.printErr(err, "Error reading " + dbFile);
+    			 Errs rErr = fs.getErrs();
+    			 if (report) err = rErr;
+    			 TR.printErr(rErr, "Error reading " + dbFile);
     			 break;  // just close and forget about it
     		 }
     		 
@@ -496,18 +663,21 @@ public class DebugStatus {
     		 if (info[0].isEmpty()) continue; // must have Class Code to add
     		 
     		 // define the flag
-    		 defineFlag(info[0], info[1], info[2], info[3],
-    				    (info[4].equalsIgnoreCase("true") || 
-    				     info[4].equalsIgnoreCase("on")      ) );
+    		 DebugRegistry.Detail nVal = new DebugRegistry.Detail();
+    		 nVal.classCode   = info[0];
+    		 nVal.menuGroup   = info[1];
+    		 nVal.className   = info[2];
+    		 nVal.displayName = info[3];
+    		 nVal.debugFlag   = info[4].equalsIgnoreCase("true") || 
+    				            info[4].equalsIgnoreCase("on");
+    		 read.put(nVal.classCode, nVal);
     	 }
     	 
     	 // close the file
     	 fs.close();
     	 // ignore any errors
     	 
-    	 // if requested, show the current list of all known debug flags
-    	 if (show) showFlags();
-    	 
+    	 return read;
      }
 
      //-------------------------------------------------------------------------
@@ -523,18 +693,14 @@ public class DebugStatus {
       */
      public boolean addKnown(String paramCode, String pName) {
 
-    	 if (knownParams.containsKey(paramCode)) {
-     		err.eNbr     =   9460;
-     		err.eType    =   Errs.ETYPE_WARN;
-     		err.eMessage =   "Debug Param is already known:  " + paramCode;
-     		TR.debugMsgln(dFlag, dPreFix, err.eMessage);
-     		return false;
-    	}
-
     	 // add it to the list of known params
-    	 knownParams.put(paramCode, pName);
-    	 
-    	 return true;
+    	 if (registry.addKnown(paramCode, pName)) return true;
+
+    	 err.eNbr     =   9460;
+    	 err.eType    =   Errs.ETYPE_WARN;
+    	 err.eMessage =   "Debug Param is already known:  " + paramCode;
+    	 TR.debugMsgln(dFlag, dPreFix, err.eMessage);
+    	 return false;
      }
      
      /**
@@ -580,10 +746,11 @@ public class DebugStatus {
      /**
       * Displays the defined Debug Flags on the Trace file in the order defined
       * known Debug Flags. If a Debug Flag is "known", but not defined, it is 
-      * not printed. Menu Group is NOT displayed.
+      * not printed. Menu Group is NOT displayed. The value shown includes any
+      * override for this instance (see setLocalDF).
       */
      public void showFlags() {
-     	DebugDetail cVal;
+     	DebugRegistry.Detail cVal;
      	String line = "";
         String fmt = "  %-12s : %-7s : %-16s : %-16s : %-12s : %s";
     	
@@ -606,13 +773,14 @@ public class DebugStatus {
         
         // print out the values, in a specific order, 
         // to make visual comparisons easier
-        for (String key: knownParams.keySet() ){ //DebugInfo.DB_METH_CODES ) {
-            if (dFlags.containsKey(key) ) {
+        HashMap<String, DebugRegistry.Detail> flags = registry.flags();
+        for (String key: copyKP().keySet() ){ //DebugInfo.DB_METH_CODES ) {
+            if (flags.containsKey(key) ) {
             	// get the current record
-            	cVal = dFlags.get(key);
+            	cVal = flags.get(key);
             	line = String.format(fmt, 
             			             " " + cVal.classCode, 
-            			             " "     + cVal.debugFlag,
+            			             " "     + getClassDF(key),
             			             " "     + cVal.className,
             			             " "     + cVal.packageName,
             			             " "     + cVal.menuGroup,
@@ -660,6 +828,8 @@ public class DebugStatus {
      	vlist = FIO.getAllVersions(vlist);
      	vlist = TraceThread.getAllVersions(vlist);
      	vlist = Errs.getAllVersions(vlist);
+     	vlist = DebugHandle.getAllVersions(vlist);
+     	vlist = DebugRegistry.getAllVersions(vlist);
 
     	 return vlist;
      }
@@ -0,0 +1,282 @@
+package jutils;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * The ErrorCollector class gathers the errors found while checking a batch
+ * of values (a command line, an array of dates, ...), where an Errs only
+ * holds the last one. Each error is kept as its number, the field and the
+ * index it was found at, and a String.format template with its arguments;
+ * the message text is only built when it is asked for (message, render or
+ * toErrs), so a batch with many errors that are only counted costs no
+ * string building.<p>
+ * The entries are held in arrays that grow as needed, up to the maximum
+ * passed to the constructor. Errors beyond it are counted but not kept.
+ * clear() empties the collector while keeping the arrays, so a single
+ * collector can be reused for batch after batch.<p>
+ * The arguments are kept as passed, not copied; render the messages before
+ * changing any of them. A template passed with no arguments is used as it
+ * is, so it may contain '%'.<p>
+ * toErrs fills an Errs with the number of errors and the rendered messages,
+ * so a caller can still be given the usual getErrs() result.
+ *
+ */
+
+public final class ErrorCollector {
+
+    private final static String  version     = "Version 14.80";
+
+    // default number of errors kept
+    static public final int    EC_MAX      = 100;
+
+    // starting size of the arrays
+    static private final int   EC_START    = 8;
+
+    private static final Object[] NO_ARGS  = new Object[0];
+
+    private final int          max;        // most errors kept
+
+    // the errors kept, one entry per error
+    private int[]              code        = new int[0];
+    private int[]              index       = new int[0];
+    private String[]           field       = new String[0];
+    private String[]           template    = new String[0];
+    private Object[][]         args        = new Object[0][];
+
+    private int                size        = 0;    // errors kept
+    private int                total       = 0;    // errors found
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates a collector keeping up to EC_MAX errors
+     */
+    public ErrorCollector() {
+    	this(EC_MAX);
+    }
+
+    /**
+     * Creates a collector keeping up to the passed number of errors
+     *
+     * @param maxErrors int value of the most errors kept, if less than 1,
+     *                  EC_MAX is used
+     */
+    public ErrorCollector(int maxErrors) {
+    	max = (maxErrors < 1) ? EC_MAX : maxErrors;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Adding errors
+    //-------------------------------------------------------------------------
+    /**
+     * Adds an error. If the collector is full, the error is only counted.
+     *
+     * @param eNbr int value of the error number
+     * @param eField String value of the field in error, or null
+     * @param idx int value of the index of the value in error in the batch,
+     *                  or -1 if none
+     * @param msg String value of the message, a String.format template if
+     *                  arguments are passed
+     * @param msgArgs Object values of the template arguments
+     */
+    public void add(int eNbr, String eField, int idx, String msg,
+    		        Object... msgArgs) {
+    	total++;
+    	if (size == max) return;
+
+    	if (size == code.length) {
+    		int n    = Math.min(max, Math.max(EC_START, size * 2));
+    		code     = Arrays.copyOf(code, n);
+    		index    = Arrays.copyOf(index, n);
+    		field    = Arrays.copyOf(field, n);
+    		template = Arrays.copyOf(template, n);
+    		args     = Arrays.copyOf(args, n);
+    	}
+    	code[size]     = eNbr;
+    	index[size]    = idx;
+    	field[size]    = eField;
+    	template[size] = msg;
+    	args[size]     = (msgArgs == null) ? NO_ARGS : msgArgs;
+    	size++;
+    }
+
+    /**
+     * Removes all of the errors, keeping the arrays for reuse
+     */
+    public void clear() {
+    	Arrays.fill(field, 0, size, null);
+    	Arrays.fill(template, 0, size, null);
+    	Arrays.fill(args, 0, size, null);
+    	size  = 0;
+    	total = 0;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Access to the errors
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of errors kept
+     *
+     * @return int value of the number of errors kept
+     */
+    public int size() {
+    	return size;
+    }
+
+    /**
+     * Returns the number of errors found, including those not kept
+     *
+     * @return int value of the number of errors added
+     */
+    public int total() {
+    	return total;
+    }
+
+    /**
+     * Returns the number of errors found but not kept
+     *
+     * @return int value of the number of errors dropped
+     */
+    public int dropped() {
+    	return total - size;
+    }
+
+    /**
+     * Returns if no errors have been found
+     *
+     * @return boolean <code>true</code> if there are no errors
+     */
+    public boolean isEmpty() {
+    	return total == 0;
+    }
+
+    /**
+     * Returns the error number of a kept error
+     *
+     * @param i int value of the entry, 0 to size()-1
+     * @return int value of the error number
+     */
+    public int code(int i) {
+    	check(i);
+    	return code[i];
+    }
+
+    /**
+     * Returns the field of a kept error
+     *
+     * @param i int value of the entry, 0 to size()-1
+     * @return String value of the field, or null if none
+     */
+    public String field(int i) {
+    	check(i);
+    	return field[i];
+    }
+
+    /**
+     * Returns the index, in the batch, of a kept error
+     *
+     * @param i int value of the entry, 0 to size()-1
+     * @return int value of the index, or -1 if none
+     */
+    public int index(int i) {
+    	check(i);
+    	return index[i];
+    }
+
+    /**
+     * Returns the message of a kept error, building it from its template
+     *
+     * @param i int value of the entry, 0 to size()-1
+     * @return String value of the message
+     */
+    public String message(int i) {
+    	check(i);
+    	return (args[i].length == 0) ? template[i]
+    			                     : String.format(template[i], args[i]);
+    }
+
+    private void check(int i) {
+    	if (i < 0 || i >= size)
+    		throw new IndexOutOfBoundsException("Error " + i + " of " + size);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Rendering the errors
+    //-------------------------------------------------------------------------
+    /**
+     * Appends the message of each kept error, one per line, followed by a
+     * line with the number of errors not kept, if any
+     *
+     * @param sb StringBuilder the messages are appended to
+     * @return StringBuilder passed
+     */
+    public StringBuilder render(StringBuilder sb) {
+    	for (int i = 0; i < size; i++)
+    		sb.append(message(i)).append('\n');
+    	if (total > size)
+    		sb.append("... ").append(total - size)
+    		  .append(" more errors not kept\n");
+    	return sb;
+    }
+
+    /**
+     * Fills an Errs with the errors found. eNbr is the passed base number
+     * plus the number of errors, eMessage is the passed header followed by
+     * the rendered messages. Nothing is changed if there are no errors.
+     *
+     * @param err Errs to be filled
+     * @param eNbrBase int value added to the number of errors for eNbr
+     * @param header String value put before the messages
+     * @return boolean value <code>true</code> if there were errors and the
+     *                  Errs was filled, otherwise <code>false</code>
+     */
+    public boolean toErrs(Errs err, int eNbrBase, String header) {
+    	if (total == 0) return false;
+
+    	err.eNbr     = eNbrBase + total;
+    	err.eMessage = render(new StringBuilder(header)).toString();
+    	err.eType    = Errs.ETYPE_ERROR;
+    	return true;
+    }
+
+    public String toString() {
+    	return render(new StringBuilder()).toString();
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = ErrorCollector.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = Errs.getAllVersions(vlist);
+    	return vlist;
+	}
+
+}
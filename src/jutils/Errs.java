@@ -1,4 +1,6 @@
 package jutils;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.LinkedHashMap;
 
 /**
@@ -6,14 +8,23 @@ import java.util.LinkedHashMap;
  * information including a number, a type (None, Error, Warning), an Error
  * Message and StackTrace. This allows this information to be easily obtained
  * by a class without having to always pass it, as it can get it only when 
- * needed.
+ * needed.<p>
+ * When the error comes from an exception, the exception can be kept with
+ * setCause rather than rendering its stack trace into eStackTrace. The text
+ * is only built when stackTrace() is called (Trace does this when it prints
+ * the error), so errors that nobody prints cost no more than the exception
+ * itself. eStackTrace is superseded by stackTrace(); it is still filled by
+ * the copy constructor, which the getErrs() methods use, so callers reading
+ * eStackTrace from getErrs() see the same text as before.<p>
+ * An Errs may be reused: initErrs resets it, and copy fills it from another
+ * one without creating a new instance.
  * 
  */
 
 
 public class Errs {
 
-    private static final String  version     = "Version 14.70";
+    private static final String  version     = "Version 14.80";
 
     public               int     eNbr        = 0;
     public               String  eMessage    = "";
@@ -24,6 +35,9 @@ public class Errs {
     static public final int  ETYPE_WARN      = 2;
     public               String  eField      = "";
 
+    // exception causing the error, rendered by stackTrace() when needed
+    private              Throwable eCause    = null;
+
     /**
      * Constructor for Error class
      */
@@ -32,16 +46,34 @@ public class Errs {
     }
     
     /**
-     * Constructor for Error class, copying values from a current one
+     * Constructor for Error class, copying values from a current one. The
+     * stack trace of a cause kept with setCause is rendered into 
+     * eStackTrace.
      * 
      * @param err Errs instance to copy values from 
      */
     public Errs(Errs err) {
+        copy(err);
+        if (eCause != null) stackTrace();
+    }
+
+    /**
+     * Copies the values of another Errs into this one, so an existing 
+     * instance can be reused rather than creating a new one. Unlike the 
+     * copy constructor, a kept cause is not rendered until stackTrace() is
+     * called.
+     * 
+     * @param err Errs instance to copy values from 
+     * @return this Errs
+     */
+    public Errs copy(Errs err) {
         eNbr        = err.eNbr;
         eMessage    = err.eMessage;
         eStackTrace = err.eStackTrace;
         eType       = err.eType;
         eField      = err.eField;
+        eCause      = err.eCause;
+        return this;
     }
  
    /**
@@ -53,7 +85,47 @@ public class Errs {
         eStackTrace    = "";
         eType          = ETYPE_NONE;
         eField         = "";
+        eCause         = null;
+
+    }
+
+    //-------------------------------------------------------------------------
+    // Stack Trace Routines
+    //-------------------------------------------------------------------------
+    /**
+     * Keeps the exception that caused the error, in place of its stack 
+     * trace text. Any text already in eStackTrace is cleared.
+     * 
+     * @param e Throwable causing the error, or null
+     */
+    public void setCause(Throwable e) {
+        eCause      = e;
+        eStackTrace = "";
+    }
+
+    /**
+     * Returns the exception that caused the error
+     * 
+     * @return Throwable causing the error, or null if none was kept
+     */
+    public Throwable getCause() {
+        return eCause;
+    }
 
+    /**
+     * Returns the stack trace text of the error. If an exception was kept
+     * with setCause, its stack trace is rendered the first time this is 
+     * called, and saved in eStackTrace; otherwise eStackTrace is returned.
+     * 
+     * @return String value of the stack trace, or empty if there is none
+     */
+    public String stackTrace() {
+        if (eCause != null && (eStackTrace == null || eStackTrace.isEmpty())) {
+            StringWriter sw = new StringWriter();
+            eCause.printStackTrace(new PrintWriter(sw));
+            eStackTrace = "Error msg:  " + eCause + "\n" + sw;
+        }
+        return (eStackTrace == null) ? "" : eStackTrace;
     }
     
     //-------------------------------------------------------------------------
@@ -4,15 +4,29 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * The FIO class brings together some common File functionality including
@@ -24,14 +38,21 @@ import java.util.LinkedHashMap;
 
 public class FIO {
 
-    private  final static String   version      = "Version 14.70";
+    private  final static String   version      = "Version 14.80";
     private  final static String   dFlag        = DebugInfo.DB_FIO;
     private  final static String   dPreFix      = "fio:";
 
 	// Types of files
 	static public final String FIO_READ   = "R";
+	static public final String FIO_READ_MMAP    = "M";   // memory mapped read
 	static public final String FIO_WRITE  = "W"; 
 	static public final String FIO_APPEND = "A";
+	static public final String FIO_WRITE_BATCH  = "WB";  // flushed in batches
+	static public final String FIO_APPEND_BATCH = "AB";  // flushed in batches
+
+	// default thresholds for batched writes
+	static public final int    FIO_BATCH_CHARS  = 64 * 1024;
+	static public final long   FIO_BATCH_MILLIS = 1000L;
 	
 	private  String          fileType   = "";
     private  String          fileName   = "";
@@ -43,19 +64,33 @@ public class FIO {
     private  BufferedWriter  bw         = null;
     private  PrintWriter     out        = null;
 
+    // For batched File Writers and Appenders
+    private  FileOutputStream fos       = null;
+    private  boolean         batched    = false;
+    private  int             batchChars = FIO_BATCH_CHARS;   // flush size
+    private  long            batchMillis = FIO_BATCH_MILLIS; // flush time
+    private  boolean         syncOnClose = false;  // fsync when closed?
+    private  long            pending    = 0;       // chars since flush
+    private  long            lastFlush  = 0;       // time of last flush
+
     // For File Readers
 	private File              file      = null;
 	private FileInputStream   fis       = null;
 	private BufferedReader    br        = null;
 	private InputStreamReader isr       = null; 
 
+    // For memory mapped File Readers
+	private FileChannel       fch       = null;
+	private MappedLines       mLines    = null;
+	private int               mapWindow = MappedLines.ML_WINDOW;
+
     private  boolean         traceable  = false;
     
     private  Errs            err        = null;
-    private  StringWriter    errors     = new StringWriter(); 
 
     // passed values
     private Trace              TR;                        // trace, passed in
+    private DebugHandle        dbg;                       // TR's flag for dFlag
     
     /**
      * File I/O routines<p>
@@ -89,6 +124,7 @@ public class FIO {
     	} else {
     		traceable = true;
     		TR        = tr;
+    		dbg       = TR.debugHandle(dFlag);
     	}
     	
     }  
@@ -115,9 +151,12 @@ public class FIO {
 	 * Opens the file for reading, writing, or appending.
      * 
      * @param  fileName String value of the file to be opened
-     * @param  fileType String value of <b>R</b>, <b>W</b>, or <b>A</b>,
-     *                  indicating we will open the file in Read, Write, or
-     *                  Append mode 
+     * @param  fileType String value of <b>R</b>, <b>M</b>, <b>W</b>, 
+     *                  <b>A</b>, <b>WB</b>, or <b>AB</b>, indicating we will
+     *                  open the file in Read, memory Mapped read, Write, 
+     *                  Append, batched Write or batched Append mode. 
+     *                  See setBatch() for batched modes and readlineView() 
+     *                  for memory mapped reads.
      * @return boolean <code>true</code> if successful, 
      *                 otherwise <code>false</code>
      */
@@ -129,22 +168,28 @@ public class FIO {
 		this.fileType = fileType;
 		
     	if (traceable)     // only printed for traceable opens!  14.03  
-    		debugMsg("Open called for :  " + fileName);
+    		debugMsg("Open called for :  %s", fileName);
 		
 		switch (fileType) {
 		case FIO_READ:   return openRead();
-		case FIO_WRITE:  return openWrite(false);
-		case FIO_APPEND: return openWrite(true);
+		case FIO_READ_MMAP:    return openMapped();
+		case FIO_WRITE:  return openWrite(false, false);
+		case FIO_APPEND: return openWrite(true,  false);
+		case FIO_WRITE_BATCH:  return openWrite(false, true);
+		case FIO_APPEND_BATCH: return openWrite(true,  true);
 		default:
 			// invalid file type
 			err.eNbr        = 9500;
 			err.eMessage    = "Invalid File Type:  " + fileType + 
 					          ". Must be either: " +
 					          FIO_READ +", " +
-					          FIO_WRITE + ", or " + 
-					          FIO_APPEND; 
+					          FIO_READ_MMAP +", " +
+					          FIO_WRITE + ", " + 
+					          FIO_APPEND + ", " +
+					          FIO_WRITE_BATCH + ", or " +
+					          FIO_APPEND_BATCH; 
 			err.eType     = Errs.ETYPE_ERROR;
-			debugErr(err, "Error attempting to open the file:  " + fileName);
+			debugErr(err, "Error attempting to open the file:  %s", fileName);
 			return false;
 		}	
 	}	
@@ -166,10 +211,9 @@ public class FIO {
 			err.eNbr        = 9510;
 			err.eMessage    = "Unable to open the file:  " + fileName; 
 			err.eType       = Errs.ETYPE_ERROR;
-			e.printStackTrace(new PrintWriter(errors));
-			err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
+			err.setCause(e);
 			debugErr(err, "Error attempting to open the file for Read Access");
-			debugMsg(err.eStackTrace);
+			debugMsg(err::stackTrace);
 			return false;
 		}
 
@@ -181,15 +225,59 @@ public class FIO {
 		return true;
 	}
 
+	/**
+	 * Opens a  file for memory mapped reading.
+	 * 
+	 * @return boolean <code>true</code> if successful, 
+	 *                 otherwise <code>false</code>
+	 */
+	private boolean openMapped() {
+		err.initErrs();
+
+		file    = new File(fileName);
+
+		try {
+			fch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			mLines = new MappedLines(fch, 0L, fch.size(), mapWindow, 
+					                 Charset.defaultCharset());
+		} catch (IOException e) {
+			err.eNbr        = 9515;
+			err.eMessage    = "Unable to open the file:  " + fileName; 
+			err.eType       = Errs.ETYPE_ERROR;
+			err.setCause(e);
+			debugErr(err, "Error attempting to open the file for Mapped Read Access");
+			debugMsg(err::stackTrace);
+			return false;
+		}
+
+		fileOpen = true;
+		eof      = false;
+		return true;
+	}
+
+	/**
+	 * Sets the size of the window mapped at one time for files opened in
+	 * memory mapped read mode (M). Should be called before the file is 
+	 * opened.
+	 * 
+	 * @param bytes int value of the window size, if less than 1, 
+	 *                 MappedLines.ML_WINDOW is used
+	 */
+	public void setMapWindow(int bytes) {
+		mapWindow = (bytes < 1) ? MappedLines.ML_WINDOW : bytes;
+	}
+
 	/**
 	 * Opens a  file for writing
 	 * 
 	 * @param  boolean set to <code>true</code> to append to file, 
 	 *                 <code>false</code> to overwrite
+	 * @param  boolean set to <code>true</code> to flush in batches, 
+	 *                 <code>false</code> to flush every line
 	 * @return boolean <code>true</code> if successful, 
 	 *                 otherwise <code>false</code>
 	 */
-    private boolean openWrite(boolean appendit) {
+    private boolean openWrite(boolean appendit, boolean batchit) {
 		err.initErrs();
 		
 		String type = "";
@@ -200,21 +288,31 @@ public class FIO {
 		}
 
 		file    = new File(fileName);
+		batched = batchit;
 
 		// try to open the file, catching any errors
     	try{
-    		fw  = new FileWriter(fileName, appendit);
-    	    bw  = new BufferedWriter(fw);
-    	    out = new PrintWriter(bw, true);
+    		if (batched) {
+    			// keep the stream so it can be synced on close
+    			fos = new FileOutputStream(fileName, appendit);
+    			bw  = new BufferedWriter(new OutputStreamWriter(fos), 
+    					                 Math.max(batchChars, 8192));
+    			out = new PrintWriter(bw, false);
+    			pending   = 0;
+    			lastFlush = System.currentTimeMillis();
+    		} else {
+    			fw  = new FileWriter(fileName, appendit);
+    			bw  = new BufferedWriter(fw);
+    			out = new PrintWriter(bw, true);
+    		}
    	  	} catch( IOException e ){
             err.eNbr        = 9520;
             err.eMessage    = "Unable to open the file:  " + fileName; 
             err.eType       = Errs.ETYPE_ERROR;
-            e.printStackTrace(new PrintWriter(errors));
-            err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
-            debugErr(err, "Error attempting to the file for " + type +
-            		      " access");
-   	  		debugMsg(err.eStackTrace);
+            err.setCause(e);
+            debugErr(err, "Error attempting to the file for %s access", 
+            		      type);
+   	  		debugMsg(err::stackTrace);
    	  		return false;
     	}
 
@@ -234,7 +332,7 @@ public class FIO {
 	public boolean close() {
 		err.initErrs();
 
-		debugMsg("Close called for :  " + fileName);
+		debugMsg("Close called for :  %s", fileName);
 		
 		
 		if (!fileOpen) {
@@ -242,19 +340,25 @@ public class FIO {
 		}
 		
 		switch (fileType) {
-		case FIO_READ:   return closeRead();
+		case FIO_READ:   
+		case FIO_READ_MMAP:    return closeRead();
 		case FIO_WRITE:
-		case FIO_APPEND: return closeWrite();
+		case FIO_APPEND:
+		case FIO_WRITE_BATCH:
+		case FIO_APPEND_BATCH: return closeWrite();
 		default:
 			// invalid file type
 			err.eNbr        = 9530;
 			err.eMessage    = "Invalid File Type:  " + fileType + 
 					          ". Must be either: " +
 					          FIO_READ +", " +
-					          FIO_WRITE + ", or " + 
-					          FIO_APPEND; 
+					          FIO_READ_MMAP +", " +
+					          FIO_WRITE + ", " + 
+					          FIO_APPEND + ", " +
+					          FIO_WRITE_BATCH + ", or " +
+					          FIO_APPEND_BATCH; 
 			err.eType       = Errs.ETYPE_ERROR;
-			debugErr(err, "Error attempting to close the file:  " + fileName);
+			debugErr(err, "Error attempting to close the file:  %s", fileName);
 			return false;
 		}
 	}	
@@ -269,18 +373,23 @@ public class FIO {
 		err.initErrs();
 		
 		try {
-			br.close();
-			isr.close();
-			fis.close();
+			if (fch != null) {
+				fch.close();
+				fch    = null;
+				mLines = null;
+			} else {
+				br.close();
+				isr.close();
+				fis.close();
+			}
 			//	inFile.close();
 		} catch (IOException e) {
             err.eNbr        = 9540;
             err.eMessage    = "Unable to close the file:  " + fileName; 
             err.eType       = Errs.ETYPE_ERROR;
-            e.printStackTrace(new PrintWriter(errors));
-            err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
+            err.setCause(e);
             debugErr(err, "Error attempting to close the file with Read Access");
-   	  		debugMsg(err.eStackTrace);
+   	  		debugMsg(err::stackTrace);
 			return false;
 		}
 		
@@ -304,25 +413,40 @@ public class FIO {
     	}
  
 		String type = "";
-		if (fileType.equals(FIO_APPEND)) {
+		if (fileType.equals(FIO_APPEND) || fileType.equals(FIO_APPEND_BATCH)) {
 			type = "Append";
 		} else {
 			type = "Write";
 		}
 
     	try{
-    		fw.close();
-    	    bw.close();
-    	    out.close();
+    		if (batched) {
+    			// write out what is left, then make it durable if requested;
+    			// the file is closed even if that fails
+    			try {
+    				out.flush();
+    				if (out.checkError())
+    					throw new IOException("Error flushing the file");
+    				if (syncOnClose) 
+    					fos.getFD().sync();
+    			} finally {
+    				out.close();
+    				fos      = null;
+    				fileOpen = false;
+    			}
+    		} else {
+    			fw.close();
+    			bw.close();
+    			out.close();
+    		}
    	  	} catch( IOException e ){
             err.eNbr        = 9550;
             err.eMessage    = "Unable to close the file:  " + fileName; 
             err.eType       = Errs.ETYPE_ERROR;
-            e.printStackTrace(new PrintWriter(errors));
-            err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
-            debugErr(err, "Error attempting to the file for " + type +
-      		      " access");
-   	  		debugMsg(err.eStackTrace);
+            err.setCause(e);
+            debugErr(err, "Error attempting to the file for %s access", 
+      		      type);
+   	  		debugMsg(err::stackTrace);
    	  		return false;
     	}
     	
@@ -341,6 +465,12 @@ public class FIO {
 	public String readline(){
 		err.initErrs();
 		
+		// memory mapped files only build the String when asked
+		if (mLines != null) {
+			CharSequence view = readlineView();
+			return (view == null) ? null : view.toString();
+		}
+		
 		String line = null;
 		try {
 			line = br.readLine();
@@ -348,10 +478,9 @@ public class FIO {
             err.eNbr        = 9560;
             err.eMessage    = "Unable to read the file:  " + fileName; 
             err.eType       = Errs.ETYPE_ERROR;
-            e.printStackTrace(new PrintWriter(errors));
-            err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
+            err.setCause(e);
             debugErr(err, "Error attempting to read the file");
-   	  		debugMsg(err.eStackTrace);
+   	  		debugMsg(err::stackTrace);
 		}
 		
 		if (line == null) {
@@ -361,6 +490,50 @@ public class FIO {
 		return line;
 		
 	}
+
+	/**
+	 * Reads a line from a file opened in memory mapped read mode (M), 
+	 * without building a String. The returned view is reused for every 
+	 * line, so it is only valid until the next read; call toString() on it
+	 * to keep the line.
+     * 
+     * @return CharSequence view of the line read, null if end of File is 
+     *                      encountered or the file is not memory mapped
+	 */
+	public CharSequence readlineView(){
+		err.initErrs();
+		
+		if (mLines == null) {
+            err.eNbr        = 9565;
+            err.eMessage    = "File not open for mapped read:  " + fileName; 
+            err.eType       = Errs.ETYPE_ERROR;
+            debugErr(err, "Error attempting to read the file");
+			return null;
+		}
+		
+		if (mLines.next()) 
+			return mLines;
+		
+		// end of file or an error
+		if (mLines.getErrs().eType != Errs.ETYPE_NONE) {
+			err = mLines.getErrs();
+            debugErr(err, "Error attempting to read the file");
+		}
+		eof = true;
+		return null;
+	}
+
+	/**
+	 * Returns the bytes of the line last read by readlineView(), without
+	 * the line end. The returned buffer is reused for every line.
+     * 
+     * @return ByteBuffer view of the line, null if the file is not memory
+     *                    mapped
+	 */
+	public ByteBuffer lineBuffer(){
+		if (mLines == null) return null;
+		return mLines.lineBuffer();
+	}
 	
     //-------------------------------------------------------------------------
     // Writes routine
@@ -384,6 +557,8 @@ public class FIO {
  
     	// write the line to the file
     	out.print(line);
+    	if (batched) 
+    		return batchFlush(line);
     	out.flush();
     	return true;
 	}
@@ -407,10 +582,297 @@ public class FIO {
  
     	// write the line to the file
     	out.println(line);
+    	if (batched) 
+    		return batchFlush(line);
     	out.flush();
     	return true;
 	}
+
+	/**
+	 * Flushes anything written to the file, but not yet written to disk.
+	 * Only needed for files opened in a batched mode (WB or AB), as all
+	 * other modes are flushed after every write.
+     * 
+     * @return boolean value indicating success or failure of the flush
+	 */
+	public boolean flush() {
+		err.initErrs();
+		// Make sure file is opened for write!
+    	if (out == null) {
+            err.eNbr        = 9585;
+            err.eMessage    = "File not open for write:  " + fileName; 
+            err.eType       = Errs.ETYPE_ERROR;
+            debugErr(err, "Error attempting to flush the file");
+    		return false;
+    	}
+    	
+    	out.flush();
+    	pending   = 0;
+    	lastFlush = System.currentTimeMillis();
+    	if (out.checkError()) {
+            err.eNbr        = 9587;
+            err.eMessage    = "Unable to write to the file:  " + fileName; 
+            err.eType       = Errs.ETYPE_ERROR;
+            debugErr(err, "Error attempting to flush the file");
+    		return false;
+    	}
+    	return true;
+	}
+
+	/**
+	 * Counts the characters written in a batched mode, and flushes the file
+	 * once either the size or time threshold has been reached. Note the 
+	 * time threshold is only checked when something is written.
+	 * 
+	 * @param line String line that was just written
+     * @return boolean value indicating success or failure of the write
+	 */
+	private boolean batchFlush(String line) {
+		pending += (line == null) ? 4 : line.length() + 1;
+		if (pending < batchChars &&
+			System.currentTimeMillis() - lastFlush < batchMillis)
+			return true;
+		return flush();
+	}
+
+    //-------------------------------------------------------------------------
+    // Batched write settings
+    //-------------------------------------------------------------------------
+	/**
+	 * Sets the thresholds for files opened in a batched mode (WB or AB). 
+	 * Rather than flushing after every line, the file is flushed when
+	 * maxChars characters have been written, or maxMillis milliseconds 
+	 * have passed since the last flush, or when flush() or close() is
+	 * called. Should be called before the file is opened.
+	 * 
+	 * @param maxChars int value of the characters written before flushing,
+	 *                 if less than 1 FIO_BATCH_CHARS is used
+	 * @param maxMillis long value of the milliseconds between flushes, 
+	 *                 if less than 1 FIO_BATCH_MILLIS is used
+	 */
+	public void setBatch(int maxChars, long maxMillis) {
+		batchChars  = (maxChars  < 1) ? FIO_BATCH_CHARS  : maxChars;
+		batchMillis = (maxMillis < 1) ? FIO_BATCH_MILLIS : maxMillis;
+	}
+
+	/**
+	 * Sets if a file opened in a batched mode (WB or AB) is forced to disk
+	 * (fsync) when it is closed, so the data survives a system crash.
+	 * 
+	 * @param sync boolean <code>true</code> to sync on close, 
+	 *                 otherwise <code>false</code> (the default)
+	 */
+	public void setSyncOnClose(boolean sync) {
+		syncOnClose = sync;
+	}
 	
+    //-------------------------------------------------------------------------
+    // Parallel read routines
+    //-------------------------------------------------------------------------
+	/**
+	 * Reads all the lines of a file in parallel. The file is split into 
+	 * chunks on line boundaries, and each chunk is read (memory mapped) by a
+	 * fork-join worker that passes every line to the lineConsumer. The file
+	 * does not need to be, and is not, opened by this FIO instance.<p>
+	 * The lineConsumer is called from several threads at once, so it must
+	 * be thread safe. The line passed is a reused view, only valid during
+	 * the call; see readlineView().
+     * 
+     * @param fileName String value of the file to be read
+     * @param chunks int value of the number of chunks to split the file 
+     *                  into, if less than 1 the number of processors is used
+     * @param lineConsumer Consumer called for every line of the file
+     * @return boolean <code>true</code> if successful, 
+     *                 otherwise <code>false</code>
+	 */
+	public boolean processLines(String fileName, int chunks,
+			                    Consumer<CharSequence> lineConsumer) {
+		processLines(fileName, chunks, () -> null,
+				     (r, line) -> lineConsumer.accept(line), null);
+		return err.eType == Errs.ETYPE_NONE;
+	}
+
+	/**
+	 * Reads all the lines of a file in parallel, building a result for
+	 * each chunk and merging them. The file is split into chunks on line
+	 * boundaries, and each chunk is read (memory mapped) by a fork-join 
+	 * worker. Each worker creates its own result with newResult and passes
+	 * it, with every line of its chunk, to the lineConsumer. When the 
+	 * workers finish, their results are merged with the reducer.<p>
+	 * Each result is only used by one worker at a time, so the lineConsumer 
+	 * does not need to be thread safe when it only changes the result. 
+	 * The line passed is a reused view, only valid during the call; 
+	 * see readlineView().
+     * 
+     * @param <R> type of the result built for each chunk
+     * @param fileName String value of the file to be read
+     * @param chunks int value of the number of chunks to split the file 
+     *                  into, if less than 1 the number of processors is used
+     * @param newResult Supplier of an empty result for each chunk
+     * @param lineConsumer BiConsumer called with the chunk's result and 
+     *                  every line of the chunk
+     * @param reducer BinaryOperator merging two results, may be null if the
+     *                  results are not needed (null is then returned)
+     * @return the merged result of all of the chunks, or null if there was
+     *                  an error (the Err values are set) 
+	 */
+	public <R> R processLines(String fileName, int chunks,
+			                  Supplier<R> newResult,
+			                  BiConsumer<R, CharSequence> lineConsumer,
+			                  BinaryOperator<R> reducer) {
+		err.initErrs();
+		
+    	if (traceable)
+    		debugMsg("Parallel read called for :  %s", fileName);
+    	
+    	if (chunks < 1) 
+    		chunks = Runtime.getRuntime().availableProcessors();
+
+    	try (FileChannel ch = FileChannel.open(new File(fileName).toPath(), 
+    			                               StandardOpenOption.READ)) {
+    		// split the file on line boundaries
+    		List<long[]> ranges = splitLines(ch, chunks);
+    		if (ranges.isEmpty()) 
+    			return (reducer == null) ? null : newResult.get();
+
+    		AtomicReference<Errs> firstErr = new AtomicReference<Errs>();
+    		ChunkTask<R> task = new ChunkTask<R>(ch, ranges, 0, ranges.size(),
+    				                             newResult, lineConsumer, 
+    				                             reducer, firstErr);
+    		R result = ForkJoinPool.commonPool().invoke(task);
+    		
+    		if (firstErr.get() != null) {
+    			err = firstErr.get();
+                debugErr(err, "Error attempting to read the file in parallel");
+    			return null;
+    		}
+    		return result;
+    		
+    	} catch (IOException e) {
+            err.eNbr        = 9596;
+            err.eMessage    = "Unable to read the file:  " + fileName; 
+            err.eType       = Errs.ETYPE_ERROR;
+            err.setCause(e);
+            debugErr(err, "Error attempting to read the file in parallel");
+   	  		debugMsg(err::stackTrace);
+   	  		return null;
+    	} catch (RuntimeException e) {
+    		// thrown by the caller's consumer or reducer 
+            err.eNbr        = 9598;
+            err.eMessage    = "Error processing the file:  " + fileName; 
+            err.eType       = Errs.ETYPE_ERROR;
+            err.setCause(e);
+            debugErr(err, "Error attempting to read the file in parallel");
+   	  		debugMsg(err::stackTrace);
+   	  		return null;
+    	}
+	}
+	
+	/**
+	 * Splits the file into about the requested number of byte ranges, each
+	 * starting at the beginning of a line. Empty ranges are dropped. Ranges
+	 * only end after a "\n", so a file whose lines end with a lone "\r" 
+	 * is read as a single range.
+	 * 
+	 * @param ch FileChannel of the file to be split
+	 * @param chunks int value of the number of ranges wanted
+	 * @return List of long[2] values holding the start and end of each range
+	 */
+	private List<long[]> splitLines(FileChannel ch, int chunks) 
+			                                       throws IOException {
+		List<long[]> ranges = new ArrayList<long[]>();
+		long size  = ch.size();
+		long start = 0;
+		ByteBuffer buf = ByteBuffer.allocate(8192);
+		
+		for (int k = 1; k <= chunks && start < size; k++) {
+			long end = (k == chunks) ? size : (size / chunks) * k;
+			
+			// move the end past the next new line
+			if (end <= start) continue;
+			long p = end;
+			boolean found = false;
+			while (!found && p < size) {
+				buf.clear();
+				int n = ch.read(buf, p - 1);
+				if (n <= 0) break;
+				for (int i = 0; i < n; i++) {
+					if (buf.get(i) == '\n') {
+						end   = p + i;  // byte after the new line
+						found = true;
+						break;
+					}
+				}
+				if (!found) p += n;
+			}
+			if (!found) end = size;
+			
+			ranges.add(new long[] {start, end});
+			start = end;
+		}
+		return ranges;
+	}
+	
+	/**
+	 * Fork-join task reading one or more ranges of the file. If given more
+	 * than one range the task splits itself in half until each task has
+	 * one range, then merges the results.
+	 */
+	@SuppressWarnings("serial")
+	private static class ChunkTask<R> extends RecursiveTask<R> {
+		private final FileChannel                 ch;
+		private final List<long[]>                ranges;
+		private final int                         from;
+		private final int                         to;
+		private final Supplier<R>                 newResult;
+		private final BiConsumer<R, CharSequence> lineConsumer;
+		private final BinaryOperator<R>           reducer;
+		private final AtomicReference<Errs>       firstErr;
+		
+		ChunkTask(FileChannel ch, List<long[]> ranges, int from, int to,
+				  Supplier<R> newResult, 
+				  BiConsumer<R, CharSequence> lineConsumer,
+				  BinaryOperator<R> reducer, AtomicReference<Errs> firstErr) {
+			this.ch           = ch;
+			this.ranges       = ranges;
+			this.from         = from;
+			this.to           = to;
+			this.newResult    = newResult;
+			this.lineConsumer = lineConsumer;
+			this.reducer      = reducer;
+			this.firstErr     = firstErr;
+		}
+
+		protected R compute() {
+			// more than one range, split the work
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				ChunkTask<R> left  = new ChunkTask<R>(ch, ranges, from, mid, 
+						             newResult, lineConsumer, reducer, firstErr);
+				ChunkTask<R> right = new ChunkTask<R>(ch, ranges, mid, to, 
+						             newResult, lineConsumer, reducer, firstErr);
+				left.fork();
+				R rRight = right.compute();
+				R rLeft  = left.join();
+				return (reducer == null) ? null : reducer.apply(rLeft, rRight);
+			}
+			
+			// read the lines of this range
+			long[] range  = ranges.get(from);
+			int    window = (int) Math.min(MappedLines.ML_WINDOW, 
+					                       range[1] - range[0]);
+			MappedLines lines = new MappedLines(ch, range[0], range[1], window,
+					                            Charset.defaultCharset());
+			R result = newResult.get();
+			while (lines.next()) 
+				lineConsumer.accept(result, lines);
+			
+			if (lines.getErrs().eType != Errs.ETYPE_NONE) 
+				firstErr.compareAndSet(null, lines.getErrs());
+			return result;
+		}
+	}
+
     //-------------------------------------------------------------------------
     // Rename routine
     //-------------------------------------------------------------------------
@@ -444,10 +906,9 @@ public class FIO {
 //			err.eMessage    = "Unable to move the file:  " + file.getName() +
 //			          " to " + newFile.getName();
 			err.eType       = Errs.ETYPE_ERROR;
-			e.printStackTrace(new PrintWriter(errors));
-			err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
+			err.setCause(e);
 			debugErr(err, "Error attempting rename the files");
-			debugMsg(err.eStackTrace);
+			debugMsg(err::stackTrace);
 			return false;
         }
         
@@ -478,12 +939,38 @@ public class FIO {
     private void debugMsg(String message) {
     	
     	if (traceable) {  
-    		TR.debugMsgln(dFlag, dPreFix, message);
+    		TR.debugMsgln(dbg, dPreFix, message);
     	} else {
     		System.out.println(dPreFix + "\t" + message);
     	}
     }
 
+    /**
+     * Displays a debugging message, built by the Supplier only if it is to
+     * be shown
+     */
+    private void debugMsg(Supplier<String> message) {
+    	
+    	if (traceable) {  
+    		TR.debugMsgln(dbg, dPreFix, message);
+    	} else {
+    		System.out.println(dPreFix + "\t" + message.get());
+    	}
+    }
+
+    /**
+     * Displays a debugging message, built from a String.format template 
+     * only if it is to be shown
+     */
+    private void debugMsg(String template, Object... args) {
+    	
+    	if (traceable) {  
+    		TR.debugMsgln(dbg, dPreFix, template, args);
+    	} else {
+    		System.out.println(dPreFix + "\t" + String.format(template, args));
+    	}
+    }
+
     /**
      * Displays an error/warning message with a debugging message<p>
      * Coded here because the "TR" trace may not be available (such as when
@@ -491,7 +978,7 @@ public class FIO {
      */
     private void debugErr(Errs err, String title) {
     	if (traceable) { 
-    		TR.debugErr(dFlag, dPreFix, err, title);
+    		TR.debugErr(dbg, dPreFix, err, title);
     	} else {
     		if (err.eNbr != 0) {
     			String msg = dPreFix + "\t"    + title             +
@@ -502,6 +989,18 @@ public class FIO {
     	}
     }
 
+    /**
+     * Displays an error/warning message with a debugging message, built 
+     * from a String.format template only if it is to be shown
+     */
+    private void debugErr(Errs err, String template, Object... args) {
+    	if (traceable) { 
+    		TR.debugErr(dbg, dPreFix, err, template, args);
+    	} else {
+    		debugErr(err, String.format(template, args));
+    	}
+    }
+
     //-------------------------------------------------------------------------
     // Version Routines
     //-------------------------------------------------------------------------
@@ -534,6 +1033,7 @@ public class FIO {
 		vlist.put(v, getVersion());
 
 		vlist = Trace.getAllVersions(vlist);
+    	vlist = MappedLines.getAllVersions(vlist);
     	vlist = Errs.getAllVersions(vlist);
     	return vlist;
 	}
@@ -0,0 +1,663 @@
+package jutils;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The FileEntries class holds every occurrence of the files loaded by a
+ * FileSearch: the directory each copy is in, its size and its last modified
+ * time. The values are kept in primitive arrays, one slot per file, with
+ * each parent directory stored only once, so a large number of files can be
+ * held in a small amount of memory.<p>
+ * Each different name is stored once, in a shared array of characters, and
+ * the slots hold the number of their name. The names are found through an
+ * open addressing table of name numbers, so no String or boxed Integer is
+ * kept for a file.<p>
+ * The copies of a name are chained together, so all the locations of a
+ * name are found without looking at any other files, and the files of a
+ * directory are chained together, so a directory is listed or removed
+ * without looking at any other directory. Names are matched ignoring case,
+ * the same as FileSearch.locateFile.<p>
+ * Nothing is kept for long once it is no longer used: the number of a
+ * directory whose last file is removed is used again, and when most of the
+ * stored names are no longer used by any file, the names are stored again
+ * without them. Files and directories created and deleted over and over
+ * therefore do not make the store grow.<p>
+ * The size and last modified time of a file are the values it was added
+ * with; they are only changed when it is added again.<p>
+ * All methods are synchronized, so the entries may be added by several
+ * threads at once.
+ *
+ */
+
+public class FileEntries {
+
+    private final static String  version     = "Version 14.80";
+
+    // initial number of slots
+    static private final int   FE_INITIAL    = 1024;
+    // initial number of names, and characters for them
+    static private final int   FE_NAMES      = 256;
+    static private final int   FE_CHARS      = 4096;
+
+    /**
+     * A single copy of a file, as returned by FileEntries
+     */
+    public static final class Entry {
+    	/** full path of the file */
+    	public final String  path;
+    	/** name of the file, as loaded */
+    	public final String  name;
+    	/** size of the file in bytes */
+    	public final long    size;
+    	/** last modified time of the file, in milliseconds */
+    	public final long    mtime;
+
+    	Entry(String dir, String name, long size, long mtime) {
+    		this.path  = new File(dir, name).getPath();
+    		this.name  = name;
+    		this.size  = size;
+    		this.mtime = mtime;
+    	}
+
+    	public String toString() {
+    		return path;
+    	}
+    }
+
+    // parent directories, each stored once, with the first slot of each;
+    // the numbers of removed directories are kept to be used again
+    private ArrayList<String>         dirs     = new ArrayList<String>();
+    private HashMap<String, Integer>  dirIds   = new HashMap<String, Integer>();
+    private int[]     dirHead  = new int[FE_NAMES];
+    private int[]     freeDirs = new int[16];
+    private int       freeDirCount = 0;
+
+    // each different name, as an offset and length in chars. Names that
+    // differ only in case share the chain of the first of them (its lead),
+    // whose head is the first slot holding any of them, or -1.
+    private char[]    chars    = new char[FE_CHARS];
+    private int       charsUsed = 0;
+    private int[]     nameStart = new int[FE_NAMES];
+    private int[]     nameLen   = new int[FE_NAMES];
+    private int[]     nameLead  = new int[FE_NAMES];
+    private int[]     nameHead  = new int[FE_NAMES];
+    private int[]     nameRefs  = new int[FE_NAMES];  // slots holding it
+    private int       nameCount = 0;
+    private int       deadNames = 0;                  // with no slots
+    // open addressing table of name numbers + 1, 0 is an empty entry;
+    // hashed ignoring case and never more than half full
+    private int[]     nameTable = new int[FE_NAMES * 2];
+
+    // one slot per file; a dirIdx of -1 is a free slot. Each slot is on
+    // the chain of its name (next, prev) and of its directory (dirNext,
+    // dirPrev); free slots are chained through next.
+    private int[]     nameIdx  = new int[FE_INITIAL];
+    private int[]     dirIdx   = new int[FE_INITIAL];
+    private long[]    sizes    = new long[FE_INITIAL];
+    private long[]    mtimes   = new long[FE_INITIAL];
+    private int[]     next     = new int[FE_INITIAL];
+    private int[]     prev     = new int[FE_INITIAL];
+    private int[]     dirNext  = new int[FE_INITIAL];
+    private int[]     dirPrev  = new int[FE_INITIAL];
+    private int       used     = 0;                    // slots ever used
+    private int       freeHead = -1;                   // chain of free slots
+    private int       count    = 0;                    // files held
+
+    //-------------------------------------------------------------------------
+    //  Public access to private values
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of files held
+     *
+     * @return int value of the number of files
+     */
+    public synchronized int size() {
+    	return count;
+    }
+
+    /**
+     * Returns the number of different parent directories held
+     *
+     * @return int value of the number of directories
+     */
+    public synchronized int dirCount() {
+    	return dirIds.size();
+    }
+
+    /**
+     * Returns the number of different names stored, including those no
+     * longer used by any file that have not yet been dropped
+     *
+     * @return int value of the number of names stored
+     */
+    public synchronized int namesStored() {
+    	return nameCount;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Adding and removing files
+    //-------------------------------------------------------------------------
+    /**
+     * Adds all of the files of a directory
+     *
+     * @param dir String value of the directory's path
+     * @param files String array of the file names
+     * @param fSizes long array of the file sizes
+     * @param fMtimes long array of the files' last modified times
+     * @return boolean array, <code>true</code> for each file added, 
+     *                 <code>false</code> for each already held and updated
+     */
+    public synchronized boolean[] addDir(String dir, String[] files,
+    		                             long[] fSizes, long[] fMtimes) {
+    	boolean[] added = new boolean[files.length];
+    	if (files.length == 0) return added;
+    	int d = dirId(dir);
+    	for (int i = 0; i < files.length; i++)
+    		added[i] = addEntry(d, files[i], fSizes[i], fMtimes[i]);
+    	return added;
+    }
+
+    /**
+     * Adds a single file, or updates its size and time if it is held
+     *
+     * @param dir String value of the directory's path
+     * @param name String value of the file name
+     * @param size long value of the file size
+     * @param mtime long value of the file's last modified time
+     * @return boolean <code>true</code> if the file was added,
+     *                 <code>false</code> if it was already held
+     */
+    public synchronized boolean add(String dir, String name,
+    		                        long size, long mtime) {
+    	return addEntry(dirId(dir), name, size, mtime);
+    }
+
+    /**
+     * Removes all of the files of a directory
+     *
+     * @param dir String value of the directory's path
+     * @return String array of the names of the files removed
+     */
+    public synchronized String[] removeDir(String dir) {
+    	Integer d = dirIds.get(dir);
+    	if (d == null) return new String[0];
+
+    	List<String> removed = new ArrayList<String>();
+    	for (int i = dirHead[d]; i >= 0; ) {
+    		int after = dirNext[i];
+    		removed.add(nameOf(nameIdx[i]));
+    		removeSlot(i);
+    		i = after;
+    	}
+    	freeDir(d);
+    	compactIfNeeded();
+    	return removed.toArray(new String[removed.size()]);
+    }
+
+    /**
+     * Removes a single file
+     *
+     * @param dir String value of the directory's path
+     * @param name String value of the file name
+     * @return boolean <code>true</code> if the file was removed,
+     *                 <code>false</code> if it was not held
+     */
+    public synchronized boolean remove(String dir, String name) {
+    	Integer d = dirIds.get(dir);
+    	if (d == null) return false;
+    	int i = find(d, name);
+    	if (i < 0) return false;
+
+    	removeSlot(i);
+    	if (dirHead[d] < 0) freeDir(d);
+    	compactIfNeeded();
+    	return true;
+    }
+
+    /**
+     * Removes all of the files and directories
+     */
+    public synchronized void clear() {
+    	dirs.clear();
+    	dirIds.clear();
+    	freeDirCount = 0;
+    	Arrays.fill(nameTable, 0);
+    	charsUsed = 0;
+    	nameCount = 0;
+    	deadNames = 0;
+    	used     = 0;
+    	freeHead = -1;
+    	count    = 0;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Finding files
+    //-------------------------------------------------------------------------
+    /**
+     * Returns every copy of a file name, ignoring case
+     *
+     * @param name String value of the file name
+     * @return List of the copies, empty if there are none
+     */
+    public synchronized List<Entry> locateAll(String name) {
+    	List<Entry> found = new ArrayList<Entry>();
+    	int n = findName(name, true);
+    	for (int i = (n < 0) ? -1 : nameHead[nameLead[n]]; i >= 0; i = next[i])
+    		found.add(entryAt(i));
+    	return found;
+    }
+
+    /**
+     * Returns a single file of a directory
+     *
+     * @param dir String value of the directory's path
+     * @param name String value of the file name
+     * @return Entry of the file, or null if it is not held
+     */
+    public synchronized Entry get(String dir, String name) {
+    	Integer d = dirIds.get(dir);
+    	if (d == null) return null;
+    	int i = find(d, name);
+    	return (i < 0) ? null : new Entry(dir, name, sizes[i], mtimes[i]);
+    }
+
+    /**
+     * Checks if a directory holds a file
+     *
+     * @param dir String value of the directory's path
+     * @param name String value of the file name
+     * @return boolean <code>true</code> if the file is held
+     */
+    public synchronized boolean contains(String dir, String name) {
+    	Integer d = dirIds.get(dir);
+    	return d != null && find(d, name) >= 0;
+    }
+
+    /**
+     * Returns all of the files of a directory
+     *
+     * @param dir String value of the directory's path
+     * @return List of the files, empty if there are none
+     */
+    public synchronized List<Entry> list(String dir) {
+    	List<Entry> found = new ArrayList<Entry>();
+    	Integer d = dirIds.get(dir);
+    	for (int i = (d == null) ? -1 : dirHead[d]; i >= 0; i = dirNext[i])
+    		found.add(entryAt(i));
+    	return found;
+    }
+
+    /**
+     * Passes each different name held, with the number of files holding
+     * it, to the consumer
+     *
+     * @param action ObjIntConsumer taking the name and the number of files
+     */
+    public synchronized void forEachName(ObjIntConsumer<String> action) {
+    	for (int n = 0; n < nameCount; n++)
+    		if (nameRefs[n] > 0) action.accept(nameOf(n), nameRefs[n]);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Slot handling
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the index of a directory, adding it if needed
+     *
+     * @param dir String value of the directory's path
+     * @return int value of the directory's index
+     */
+    private int dirId(String dir) {
+    	Integer d = dirIds.get(dir);
+    	if (d == null) {
+    		if (freeDirCount > 0) {
+    			d = freeDirs[--freeDirCount];
+    			dirs.set(d, dir);
+    		} else {
+    			d = dirs.size();
+    			dirs.add(dir);
+    			if (d == dirHead.length)
+    				dirHead = Arrays.copyOf(dirHead, d * 2);
+    		}
+    		dirHead[d] = -1;
+    		dirIds.put(dir, d);
+    	}
+    	return d;
+    }
+
+    /**
+     * Drops a directory holding no files, keeping its index to be used
+     * again
+     *
+     * @param d int value of the directory's index
+     */
+    private void freeDir(int d) {
+    	dirIds.remove(dirs.get(d));
+    	dirs.set(d, null);
+    	if (freeDirCount == freeDirs.length)
+    		freeDirs = Arrays.copyOf(freeDirs, freeDirCount * 2);
+    	freeDirs[freeDirCount++] = d;
+    }
+
+    /**
+     * Finds the slot of a file in a directory
+     *
+     * @param d int value of the directory's index
+     * @param name String value of the file name
+     * @return int value of the slot, -1 if not found
+     */
+    private int find(int d, String name) {
+    	int n = findName(name, false);
+    	if (n < 0) return -1;
+    	for (int i = nameHead[nameLead[n]]; i >= 0; i = next[i])
+    		if (dirIdx[i] == d && nameIdx[i] == n) return i;
+    	return -1;
+    }
+
+    private Entry entryAt(int i) {
+    	return new Entry(dirs.get(dirIdx[i]), nameOf(nameIdx[i]),
+    			         sizes[i], mtimes[i]);
+    }
+
+    private boolean addEntry(int d, String name, long size, long mtime) {
+    	// already held, just update it
+    	int i = find(d, name);
+    	if (i >= 0) {
+    		sizes[i]  = size;
+    		mtimes[i] = mtime;
+    		return false;
+    	}
+
+    	// take a free slot, or the next unused one
+    	if (freeHead >= 0) {
+    		i        = freeHead;
+    		freeHead = next[i];
+    	} else {
+    		if (used == nameIdx.length) grow();
+    		i = used++;
+    	}
+
+    	int n = addName(name);
+    	if (nameRefs[n]++ == 0) deadNames--;
+    	nameIdx[i] = n;
+    	dirIdx[i]  = d;
+    	sizes[i]   = size;
+    	mtimes[i]  = mtime;
+    	linkName(i, nameLead[n]);
+
+    	dirPrev[i] = -1;
+    	dirNext[i] = dirHead[d];
+    	if (dirHead[d] >= 0) dirPrev[dirHead[d]] = i;
+    	dirHead[d] = i;
+    	count++;
+    	return true;
+    }
+
+    /**
+     * Puts a slot at the head of the chain of a name
+     *
+     * @param i int value of the slot
+     * @param lead int value of the number of the lead name
+     */
+    private void linkName(int i, int lead) {
+    	prev[i] = -1;
+    	next[i] = nameHead[lead];
+    	if (nameHead[lead] >= 0) prev[nameHead[lead]] = i;
+    	nameHead[lead] = i;
+    }
+
+    /**
+     * Unlinks a slot from its chains and puts it on the free chain. The
+     * directory is left to the caller to free.
+     *
+     * @param i int value of the slot
+     */
+    private void removeSlot(int i) {
+    	int n    = nameIdx[i];
+    	int lead = nameLead[n];
+    	if (prev[i] >= 0) next[prev[i]]   = next[i];
+    	else              nameHead[lead]  = next[i];
+    	if (next[i] >= 0) prev[next[i]]   = prev[i];
+
+    	int d = dirIdx[i];
+    	if (dirPrev[i] >= 0) dirNext[dirPrev[i]] = dirNext[i];
+    	else                 dirHead[d]          = dirNext[i];
+    	if (dirNext[i] >= 0) dirPrev[dirNext[i]] = dirPrev[i];
+
+    	if (--nameRefs[n] == 0) deadNames++;
+    	dirIdx[i] = -1;
+    	next[i]   = freeHead;
+    	freeHead  = i;
+    	count--;
+    }
+
+    private void grow() {
+    	int cap = nameIdx.length * 2;
+    	nameIdx = Arrays.copyOf(nameIdx, cap);
+    	dirIdx  = Arrays.copyOf(dirIdx, cap);
+    	sizes   = Arrays.copyOf(sizes, cap);
+    	mtimes  = Arrays.copyOf(mtimes, cap);
+    	next    = Arrays.copyOf(next, cap);
+    	prev    = Arrays.copyOf(prev, cap);
+    	dirNext = Arrays.copyOf(dirNext, cap);
+    	dirPrev = Arrays.copyOf(dirPrev, cap);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Name handling
+    //-------------------------------------------------------------------------
+    /**
+     * Finds the number of a name
+     *
+     * @param name String value of the name
+     * @param anyCase boolean <code>true</code> to match any name differing
+     *                only in case, <code>false</code> for this name only
+     * @return int value of the name's number, -1 if it is not held
+     */
+    private int findName(String name, boolean anyCase) {
+    	int mask = nameTable.length - 1;
+    	for (int h = hash(name) & mask; nameTable[h] != 0; h = (h + 1) & mask) {
+    		int n = nameTable[h] - 1;
+    		if (sameName(n, name, anyCase)) return n;
+    	}
+    	return -1;
+    }
+
+    /**
+     * Returns the number of a name, adding it if it is not held. A name
+     * differing only in case from one already held is led by it.
+     *
+     * @param name String value of the name
+     * @return int value of the name's number
+     */
+    private int addName(String name) {
+    	int mask = nameTable.length - 1;
+    	int lead = -1;
+    	int h    = hash(name) & mask;
+    	for (; nameTable[h] != 0; h = (h + 1) & mask) {
+    		int n = nameTable[h] - 1;
+    		if (!sameName(n, name, true)) continue;
+    		if (sameName(n, name, false)) return n;
+    		lead = nameLead[n];
+    	}
+
+    	if (nameCount == nameStart.length) {
+    		int cap   = nameStart.length * 2;
+    		nameStart = Arrays.copyOf(nameStart, cap);
+    		nameLen   = Arrays.copyOf(nameLen, cap);
+    		nameLead  = Arrays.copyOf(nameLead, cap);
+    		nameHead  = Arrays.copyOf(nameHead, cap);
+    		nameRefs  = Arrays.copyOf(nameRefs, cap);
+    	}
+    	if (charsUsed + name.length() > chars.length)
+    		chars = Arrays.copyOf(chars,
+    				        Math.max(chars.length * 2, charsUsed + name.length()));
+
+    	int n = nameCount++;
+    	name.getChars(0, name.length(), chars, charsUsed);
+    	nameStart[n] = charsUsed;
+    	nameLen[n]   = name.length();
+    	nameLead[n]  = (lead < 0) ? n : lead;
+    	nameHead[n]  = -1;
+    	nameRefs[n]  = 0;
+    	charsUsed   += name.length();
+    	deadNames++;                      // until a slot holds it
+
+    	if (nameCount * 2 > nameTable.length) rehash(nameTable.length * 2);
+    	else                                  nameTable[h] = n + 1;
+    	return n;
+    }
+
+    /**
+     * Makes a new table of names, placing all of them again
+     *
+     * @param size int value of the table size, a power of 2
+     */
+    private void rehash(int size) {
+    	nameTable = new int[size];
+    	int mask  = nameTable.length - 1;
+    	for (int n = 0; n < nameCount; n++) {
+    		int h = hash(nameOf(n)) & mask;
+    		while (nameTable[h] != 0) h = (h + 1) & mask;
+    		nameTable[h] = n + 1;
+    	}
+    }
+
+    /**
+     * Stores the names again, without those no longer held by any file,
+     * once they are more than half of the names stored
+     */
+    private void compactIfNeeded() {
+    	if (deadNames <= FE_NAMES || deadNames * 2 <= nameCount) return;
+
+    	char[] oldChars = chars;
+    	int[]  oldStart = nameStart;
+    	int[]  oldLen   = nameLen;
+    	int[]  oldRefs  = nameRefs;
+    	int    oldCount = nameCount;
+    	int    live     = nameCount - deadNames;
+    	int    liveChars = 0;
+    	for (int n = 0; n < oldCount; n++)
+    		if (oldRefs[n] > 0) liveChars += oldLen[n];
+
+    	int cap   = Math.max(FE_NAMES, live * 2);
+    	chars     = new char[Math.max(FE_CHARS, liveChars * 2)];
+    	nameStart = new int[cap];
+    	nameLen   = new int[cap];
+    	nameLead  = new int[cap];
+    	nameHead  = new int[cap];
+    	nameRefs  = new int[cap];
+    	nameTable = new int[Integer.highestOneBit(cap) * 2];
+    	charsUsed = 0;
+    	nameCount = 0;
+    	deadNames = 0;
+
+    	// the names still held, by their old numbers
+    	int[] moved = new int[oldCount];
+    	for (int n = 0; n < oldCount; n++) {
+    		if (oldRefs[n] == 0) continue;
+    		moved[n] = addName(new String(oldChars, oldStart[n], oldLen[n]));
+    		nameRefs[moved[n]] = oldRefs[n];
+    	}
+    	deadNames = 0;
+
+    	// and the chains of the names made again
+    	for (int i = 0; i < used; i++) {
+    		if (dirIdx[i] < 0) continue;
+    		nameIdx[i] = moved[nameIdx[i]];
+    		linkName(i, nameLead[nameIdx[i]]);
+    	}
+    }
+
+    /**
+     * Returns a held name
+     *
+     * @param n int value of the name's number
+     * @return String value of the name
+     */
+    private String nameOf(int n) {
+    	return new String(chars, nameStart[n], nameLen[n]);
+    }
+
+    /**
+     * Checks if a held name is the same as the passed one
+     *
+     * @param n int value of the held name's number
+     * @param name String value of the name to compare
+     * @param anyCase boolean <code>true</code> to ignore case
+     * @return boolean <code>true</code> if they are the same
+     */
+    private boolean sameName(int n, String name, boolean anyCase) {
+    	if (nameLen[n] != name.length()) return false;
+    	int start = nameStart[n];
+    	for (int i = 0; i < name.length(); i++) {
+    		char a = chars[start + i];
+    		char b = name.charAt(i);
+    		if (a != b && (!anyCase || fold(a) != fold(b))) return false;
+    	}
+    	return true;
+    }
+
+    /**
+     * Returns a hash of the name that is the same whatever its case
+     *
+     * @param name String value of the name
+     * @return int value of the hash
+     */
+    private static int hash(String name) {
+    	int h = 0;
+    	for (int i = 0; i < name.length(); i++) h = 31 * h + fold(name.charAt(i));
+    	return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a character in the case used to compare names, the same as
+     * String.equalsIgnoreCase
+     *
+     * @param c char value to be folded
+     * @return char value folded
+     */
+    private static char fold(char c) {
+    	return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = FileEntries.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+    	return vlist;
+	}
+
+}
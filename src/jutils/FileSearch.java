@@ -1,7 +1,45 @@
 package jutils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The FileSearch class brings together some common file locating
@@ -10,6 +48,17 @@ import java.util.LinkedHashMap;
  * 
  * 14.70  Added isDir to allow the check of Directory existance without
  *        loading all the files into a HashMap.
+ * 14.80  Added loadDir(File, boolean) to load the files in parallel, 
+ *        using NIO, with an optional quiet mode.
+ *        Added saveIndex, loadIndex and refreshIndex to keep the loaded
+ *        directories in a file between runs.
+ *        Added startWatch and stopWatch to keep the loaded directories
+ *        up to date as files are created and deleted.
+ *        Added findPrefix, findSuffix and findGlob to search the loaded
+ *        names without going back to the disk.
+ *        Added locateAll to return the full path, size and modified time 
+ *        of every copy of a name.
+ *        Debugging checks use a DebugHandle rather than a flag lookup.
  * 
  *
  */
@@ -17,16 +66,68 @@ import java.util.LinkedHashMap;
 
 public class FileSearch {
 
-    private static final String  version  = "Version 03.00";
+    private static final String  version  = "Version 14.80";
     private static final String  dFlag       = DebugInfo.DB_FILESEARCH;
     private static final String  dPreFix     = "FSearch:";
     
-    // List of files to be searched through
-    private HashMap<String, String> fNames = new HashMap<String, String>();
+    // List of files to be searched through; concurrent so it can be loaded
+    // by several threads at once
+    private ConcurrentHashMap<String, String> fNames = 
+    		                        new ConcurrentHashMap<String, String>();
+    
+    // Number of loaded directories holding each name, so a name is only 
+    // removed from fNames when its last copy is deleted
+    private ConcurrentHashMap<String, Integer> nameCount = 
+    		                        new ConcurrentHashMap<String, Integer>();
+
+    // Directories loaded by loadDir(File, boolean), key is the directory's
+    // absolute path. Used to save the index and refresh it later.
+    private ConcurrentHashMap<String, DirInfo> dirIndex = 
+    		                        new ConcurrentHashMap<String, DirInfo>();
+    // Top level directories loaded, in the order loaded
+    private List<String> roots = new ArrayList<String>();
+
+    // sub-directories of a loaded directory; its files are held by entries.
+    // Live mode changes the map in place, so it is concurrent
+    private static class DirInfo {
+    	volatile long mtime;  // last modified time when listed
+    	// names of the sub-directories, and their last modified times when 
+    	// listed
+    	final ConcurrentHashMap<String, Long> subDirs = 
+    			                        new ConcurrentHashMap<String, Long>();
+    }
+
+    // saved index file identifier and format
+    private static final int     IDX_MAGIC   = 0x4A465358;  // "JFSX"
+    private static final int     IDX_FORMAT  = 2;    // 2 added file sizes
+
+    // every copy of the files in the loaded directories
+    private volatile FileEntries entries = new FileEntries();
+
+    // the fNames keys, and the keys reversed, for the prefix, suffix and 
+    // glob searches. Kept sorted as each name is added or removed.
+    private ConcurrentSkipListSet<String> sortedKeys   = 
+    		                        new ConcurrentSkipListSet<String>();
+    private ConcurrentSkipListSet<String> reversedKeys = 
+    		                        new ConcurrentSkipListSet<String>();
+
+    // live mode, the watched directories by their WatchKey
+    private volatile WatchService  watcher   = null;
+    private Thread                 watchThread = null;
+    private ConcurrentHashMap<WatchKey, Path> watchKeys = 
+    		                        new ConcurrentHashMap<WatchKey, Path>();
+
+    // counts for the parallel loading of directories
+    private LongAdder dirCount  = new LongAdder();
+    private LongAdder fileCount = new LongAdder();
+
+    // how often the directories searched are reported, when not quiet
+    private static final long    REPORT_MS   = 200;
     
     // support classes
     private Errs     err       = new Errs();       // for returning errors 
     private Trace    TR;                           // passed in constructor
+    private DebugHandle dbg;                       // TR's flag for dFlag
     
     
     //-------------------------------------------------------------------------
@@ -39,7 +140,8 @@ public class FileSearch {
      */
 	public FileSearch(Trace tr){
 		// save the trace class for future access
-		TR = tr;
+		TR  = tr;
+		dbg = (TR == null) ? null : TR.debugHandle(dFlag);
 
 	}
 
@@ -78,11 +180,190 @@ public class FileSearch {
     	err.eNbr     = 9900;
 		err.eMessage = "File not found in Map:\t" + fileNameToSearch;
 		err.eType    = Errs.ETYPE_WARN;
-        TR.debugErr(dFlag, dPreFix, err);
+        TR.debugErr(dbg, dPreFix, err);
     	return false;
 
     }
 
+    /**
+     * Returns every copy of the passed File Name found in the directories
+     * loaded by loadDir(File, boolean) or loadIndex, ignoring case, with the
+     * full path, size and last modified time of each. Names added with 
+     * loadFile or loadDir(File) have no location and are not returned.<p>
+     * <b>Note:  </b> The size and last modified time are those read when
+     *                the file's directory was last listed. In live mode 
+     *                they are updated as files are changed; otherwise a 
+     *                file changed in place keeps the old values, as its 
+     *                directory's time does not change.
+     * 
+     * @param fileNameToSearch String value of the file name to look for
+     * @return List of the copies found, empty if there are none and the 
+     *               Err values are set
+     */
+    public List<FileEntries.Entry> locateAll(String fileNameToSearch) {
+
+    	err.initErrs();
+    	
+    	List<FileEntries.Entry> found = entries.locateAll(fileNameToSearch);
+    	if (found.isEmpty()) {
+    		err.eNbr     = 9905;
+    		err.eMessage = "File not found in loaded directories:\t" + 
+    		                fileNameToSearch;
+    		err.eType    = Errs.ETYPE_WARN;
+    		TR.debugErr(dbg, dPreFix, err);
+    	}
+    	return found;
+    }
+
+    //-------------------------------------------------------------------------
+    //  File name searching
+    //-------------------------------------------------------------------------
+    /**
+     * Returns all of the loaded file names starting with the passed prefix,
+     * ignoring case. The names are returned as loaded (original case) and in
+     * upper case order. Only the sorted names from the prefix on are read.
+     * 
+     * @param prefix String value the names must start with
+     * @return List of the matching names, empty if none match
+     */
+    public List<String> findPrefix(String prefix) {
+    	String up = prefix.toUpperCase();
+    	
+    	List<String> found = new ArrayList<String>();
+    	for (String key : sortedKeys.tailSet(up)) {
+    		if (!key.startsWith(up)) break;
+    		addFound(found, key);
+    	}
+    	return found;
+    }
+
+    /**
+     * Returns all of the loaded file names ending with the passed suffix 
+     * (such as an extension ".cfg"), ignoring case. The names are returned 
+     * as loaded (original case). Only the sorted reversed names from the
+     * reversed suffix on are read.
+     * 
+     * @param suffix String value the names must end with
+     * @return List of the matching names, empty if none match
+     */
+    public List<String> findSuffix(String suffix) {
+    	String up = reverse(suffix.toUpperCase());
+    	
+    	List<String> found = new ArrayList<String>();
+    	for (String key : reversedKeys.tailSet(up)) {
+    		if (!key.startsWith(up)) break;
+    		addFound(found, reverse(key));
+    	}
+    	return found;
+    }
+
+    /**
+     * Returns all of the loaded file names matching the passed pattern, 
+     * ignoring case. A "*" in the pattern matches any number of characters
+     * and a "?" matches any single character. The names are returned as 
+     * loaded (original case).<p>
+     * The characters before the first wildcard, or if there are none, the
+     * characters after the last wildcard, are used to narrow the search 
+     * with findPrefix or findSuffix; only a pattern with neither checks 
+     * every name.
+     * 
+     * @param pattern String value of the pattern, such as "app*.cfg"
+     * @return List of the matching names, empty if none match
+     */
+    public List<String> findGlob(String pattern) {
+    	String up    = pattern.toUpperCase();
+    	int    first = firstWild(up);
+    	
+    	// no wildcards, a single name
+    	List<String> found = new ArrayList<String>();
+    	if (first < 0) {
+    		String name = fNames.get(up);
+    		if (name != null) found.add(name);
+    		return found;
+    	}
+    	
+    	int last = Math.max(up.lastIndexOf('*'), up.lastIndexOf('?'));
+    	List<String> candidates;
+    	if (first > 0) 
+    		candidates = findPrefix(up.substring(0, first));
+    	else if (last < up.length() - 1) 
+    		candidates = findSuffix(up.substring(last + 1));
+    	else {
+    		candidates = new ArrayList<String>();
+    		for (String key : sortedKeys) addFound(candidates, key);
+    	}
+
+    	for (String name : candidates) 
+    		if (globMatch(up, name.toUpperCase())) found.add(name);
+    	return found;
+    }
+
+    /**
+     * Adds the loaded (original case) name of a key to the list, if it is 
+     * still loaded.
+     * 
+     * @param found List the name is added to
+     * @param key String value of the upper case key
+     */
+    private void addFound(List<String> found, String key) {
+    	String name = fNames.get(key);
+    	if (name != null) found.add(name);
+    }
+
+    /**
+     * Returns the passed String reversed
+     * 
+     * @param value String value to be reversed
+     * @return String value reversed
+     */
+    private static String reverse(String value) {
+    	return new StringBuilder(value).reverse().toString();
+    }
+
+    /**
+     * Returns the index of the first "*" or "?" in the pattern
+     * 
+     * @param pattern String value of the pattern
+     * @return int value of the index, -1 if there are no wildcards
+     */
+    private static int firstWild(String pattern) {
+    	for (int i = 0; i < pattern.length(); i++) {
+    		char c = pattern.charAt(i);
+    		if (c == '*' || c == '?') return i;
+    	}
+    	return -1;
+    }
+
+    /**
+     * Checks if a name matches a pattern of "*" and "?" wildcards. Both
+     * should already be in the same case.
+     * 
+     * @param pattern String value of the pattern
+     * @param name String value of the name to check
+     * @return boolean <code>true</code> if the name matches, 
+     *                 otherwise <code>false</code>
+     */
+    private static boolean globMatch(String pattern, String name) {
+    	int p = 0, n = 0;
+    	int star = -1, mark = 0;   // last "*" seen, and where it matched to
+    	while (n < name.length()) {
+    		if (p < pattern.length() && (pattern.charAt(p) == '?' || 
+    				pattern.charAt(p) == name.charAt(n))) {
+    			p++;
+    			n++;
+    		} else if (p < pattern.length() && pattern.charAt(p) == '*') {
+    			star = p++;
+    			mark = n;
+    		} else if (star >= 0) {
+    			p = star + 1;      // let the last "*" take one more character
+    			n = ++mark;
+    		} else 
+    			return false;
+    	}
+    	while (p < pattern.length() && pattern.charAt(p) == '*') p++;
+    	return p == pattern.length();
+    }
+
     //-------------------------------------------------------------------------
     // File Name Map loading
     //-------------------------------------------------------------------------
@@ -110,6 +391,259 @@ public class FileSearch {
     	return true;
     }
 
+    /**
+     * Verifies the passed file is a directory and then loads all of the files
+     * in the passed directory and all sub-directories into the HashMap, 
+     * in parallel. Each sub-directory is listed by its own fork-join task, 
+     * using the file attributes read while listing rather than checking 
+     * each file again. Symbolic links are not followed.<p>
+     * If not quiet, a "Searching directory" message is printed for every
+     * directory, as loadDir(File) does; otherwise a single summary is 
+     * printed when done. The messages are printed by the calling thread,
+     * as the directories are searched, never by the fork-join workers. 
+     * If a sub-directory cannot be read, the rest are still loaded and a
+     * warning is returned.
+     *  
+     * @param dirName File class for the Top level directory name to be 
+     *                 searched for files
+     * @param quiet boolean <code>true</code> to print only a summary, 
+     *                 <code>false</code> to print every directory searched
+     * @return boolean value indicating that if there were any problems. 
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    public boolean loadDir(File dirName, boolean quiet) {
+    	err.initErrs();
+
+    	// Make sure the file is a directory and it exists
+    	if (!isDir(dirName))
+    		return false;
+
+    	dirCount.reset();
+    	fileCount.reset();
+    	AtomicReference<Errs> firstErr = new AtomicReference<Errs>();
+    	
+    	// load the files, if any, into the HashMap, 
+    	// including those in sub directories
+    	Path root = dirName.toPath().toAbsolutePath();
+    	long mtime = dirName.lastModified();
+    	synchronized (roots) {
+    		if (!roots.contains(root.toString())) roots.add(root.toString());
+    	}
+    	Queue<Path> searched = quiet ? null : new ConcurrentLinkedQueue<Path>();
+    	runTask(new DirTask(root, mtime, searched, firstErr), searched);
+
+    	if (quiet)
+    		TR.printMsgln("Searched " + dirCount.sum()  + " directories, " + 
+    	                  fileCount.sum() + " files in " + 
+    			          dirName.getAbsoluteFile());
+
+    	if (firstErr.get() != null) {
+    		err = firstErr.get();
+            TR.debugErr(dbg, dPreFix, err);
+    		return false;
+    	}
+    	return true;
+    }
+
+    /**
+     * Runs a fork-join task loading or refreshing directories, and waits
+     * for it. If not quiet, the directories searched by the workers are 
+     * printed by this (the calling) thread while waiting, as Trace is not
+     * safe to use from many threads at once.
+     * 
+     * @param task ForkJoinTask to be run
+     * @param searched Queue the workers add the directories searched to,
+     *                 or null if quiet
+     */
+    private void runTask(ForkJoinTask<?> task, Queue<Path> searched) {
+    	if (searched == null) {
+    		ForkJoinPool.commonPool().invoke(task);
+    		return;
+    	}
+    	
+    	ForkJoinPool.commonPool().execute(task);
+    	try {
+    		while (true) {
+    			try {
+    				task.get(REPORT_MS, TimeUnit.MILLISECONDS);
+    				break;
+    			} catch (TimeoutException e) {
+    				report(searched);
+    			}
+    		}
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	} catch (ExecutionException e) {
+    		// thrown by a worker, pass it on as invoke() would
+    		if (e.getCause() instanceof RuntimeException)
+    			throw (RuntimeException) e.getCause();
+    		if (e.getCause() instanceof Error)
+    			throw (Error) e.getCause();
+    		throw new IllegalStateException(e.getCause());
+    	} finally {
+    		report(searched);
+    	}
+    }
+
+    /**
+     * Prints the directories searched since the last call
+     * 
+     * @param searched Queue of the directories searched
+     */
+    private void report(Queue<Path> searched) {
+    	Path dir;
+    	while ((dir = searched.poll()) != null) 
+    		TR.printMsgln("Searching directory... " + dir);
+    }
+
+    /**
+     * Fork-join task loading the files in one directory, and creating a
+     * task for each of its sub-directories.
+     */
+    @SuppressWarnings("serial")
+	private class DirTask extends RecursiveAction {
+    	private final Path                  dir;
+    	private final long                  mtime;
+    	private final Queue<Path>           searched;
+    	private final AtomicReference<Errs> firstErr;
+    	
+    	DirTask(Path dir, long mtime, Queue<Path> searched, 
+    			AtomicReference<Errs> firstErr) {
+    		this.dir      = dir;
+    		this.mtime    = mtime;
+    		this.searched = searched;
+    		this.firstErr = firstErr;
+    	}
+    	
+    	protected void compute() {
+    		if (searched != null) searched.add(dir);
+
+    		DirInfo info = listDir(dir, mtime, firstErr);
+    		if (info == null) return;
+    		
+    		List<DirTask> subDirs = new ArrayList<DirTask>();
+    		for (Map.Entry<String, Long> sub : info.subDirs.entrySet()) 
+    			subDirs.add(new DirTask(dir.resolve(sub.getKey()), 
+    					                sub.getValue(), searched, firstErr));
+    		invokeAll(subDirs);
+    	}
+    }
+
+    /**
+     * Lists a single directory, loading its files into the HashMap and 
+     * saving its contents in the directory index. In live mode the 
+     * directory is registered before it is listed, so nothing created 
+     * while it is read is missed. A directory listed again is updated in
+     * place: only the names that are new or gone are changed.
+     * 
+     * @param dir Path of the directory to be listed
+     * @param mtime long value of the directory's last modified time
+     * @param firstErr holder of the first error found while listing
+     * @return DirInfo of the directory, or null if it could not be read
+     */
+    private DirInfo listDir(Path dir, long mtime, 
+    		                AtomicReference<Errs> firstErr) {
+		dirCount.increment();
+		
+		List<String> files   = new ArrayList<String>();
+		List<Long>   fSize   = new ArrayList<Long>();
+		List<Long>   fTime   = new ArrayList<Long>();
+		List<String> subs    = new ArrayList<String>();
+		List<Long>   subTime = new ArrayList<Long>();
+		
+		// a new directory is put in the index before it is registered, so 
+		// the events for it are not dropped while it is listed
+		String  key   = dir.toString();
+		DirInfo info  = dirIndex.get(key);
+		boolean added = (info == null);
+		if (added) {
+			DirInfo made = new DirInfo();
+			info  = dirIndex.putIfAbsent(key, made);
+			added = (info == null);
+			if (added) info = made;
+		}
+		if (watcher != null) watchDir(dir);
+		
+		// a walk of depth 1 passes each entry with the attributes read while
+		// listing the directory, where the file system provides them
+		SimpleFileVisitor<Path> lister = new SimpleFileVisitor<Path>() {
+			public FileVisitResult visitFile(Path entry, 
+					                         BasicFileAttributes attrs) {
+				String name = entry.getFileName().toString();
+				if (attrs.isDirectory()) {
+					subs.add(name);
+					subTime.add(attrs.lastModifiedTime().toMillis());
+				} else {
+					files.add(name);
+					fSize.add(attrs.size());
+					fTime.add(attrs.lastModifiedTime().toMillis());
+					fileCount.increment();
+				}
+				return FileVisitResult.CONTINUE;
+			}
+			public FileVisitResult visitFileFailed(Path entry, IOException e) 
+					                                       throws IOException {
+				// the directory itself cannot be read; an entry that has 
+				// gone since it was listed is skipped
+				if (entry.equals(dir)) throw e;
+				return FileVisitResult.CONTINUE;
+			}
+			public FileVisitResult postVisitDirectory(Path d, IOException e)
+					                                       throws IOException {
+				if (e != null) throw e;
+				return FileVisitResult.CONTINUE;
+			}
+		};
+		try {
+			Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, 
+					           lister);
+		} catch (IOException e) {
+			Errs dErr     = new Errs();
+			dErr.eNbr     = 9930;
+			dErr.eMessage = "Unable to read directory:\t" + dir;
+			dErr.eType    = Errs.ETYPE_WARN;
+			dErr.setCause(e);
+			firstErr.compareAndSet(null, dErr);
+			if (added && dirIndex.remove(key, info)) 
+				for (String f : entries.removeDir(key)) dropName(f);
+			return null;
+		}
+
+		// names only count once per directory, however they were added
+		String[] names  = files.toArray(new String[files.size()]);
+		long[]   sizes  = new long[names.length];
+		long[]   mtimes = new long[names.length];
+		for (int i = 0; i < names.length; i++) {
+			sizes[i]  = fSize.get(i);
+			mtimes[i] = fTime.get(i);
+		}
+		boolean[] isNew = entries.addDir(key, names, sizes, mtimes);
+		for (int i = 0; i < names.length; i++) 
+			if (isNew[i]) addName(names[i]);
+		for (int i = 0; i < subs.size(); i++) 
+			info.subDirs.putIfAbsent(subs.get(i), subTime.get(i));
+		
+		// drop what is gone; a name created since the walk is kept
+		if (!added) {
+			Set<String> listed = new HashSet<String>(files);
+			for (FileEntries.Entry f : entries.list(key)) 
+				if (!listed.contains(f.name) && 
+						!Files.exists(dir.resolve(f.name), 
+						              LinkOption.NOFOLLOW_LINKS) &&
+						entries.remove(key, f.name)) 
+					dropName(f.name);
+			listed = new HashSet<String>(subs);
+			for (String sub : info.subDirs.keySet()) 
+				if (!listed.contains(sub) && !Files.exists(dir.resolve(sub), 
+						                         LinkOption.NOFOLLOW_LINKS) &&
+						info.subDirs.remove(sub) != null) 
+					removeDir(dir.resolve(sub).toString());
+		}
+		info.mtime = mtime;
+		return info;
+    }
+
     /**
      * Verifies the passed file is a directory. 
      * If the passed in file is not a directory, an error is returned.
@@ -128,7 +662,7 @@ public class FileSearch {
         	err.eNbr     = 9910;
     		err.eMessage = "Directory does not exist:\t" + dirName;
     		err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
     		return false;
     	}
 
@@ -137,7 +671,7 @@ public class FileSearch {
         	err.eNbr     = 9920;
     		err.eMessage = "File is not a directory:\t" + dirName;
     		err.eType    = Errs.ETYPE_ERROR;
-            TR.debugErr(dFlag, dPreFix, err);
+            TR.debugErr(dbg, dPreFix, err);
     		return false;
     	}
 
@@ -172,12 +706,572 @@ public class FileSearch {
      * @param fileName  String value of the file Name
      */
     public void loadFile(String fileName) {
-		// if not already in the HashMap, add it
-		String key = fileName.toUpperCase();
-		if (!fNames.containsKey(key) ) {
-				fNames.put(key, fileName);
-		}
+		// if not already in the HashMap, add it; done through nameCount, 
+		// so it is not mixed with a copy of the name being dropped
+		nameCount.compute(fileName.toUpperCase(), (k, v) -> {
+			if (fNames.putIfAbsent(k, fileName) == null) keyAdded(k);
+			return v;
+		});
+    }
+
+    //-------------------------------------------------------------------------
+    // Saved index methods
+    //-------------------------------------------------------------------------
+    /**
+     * Writes the directories loaded by loadDir(File, boolean) or loadIndex,
+     * along with their last modified times and file names, to a binary 
+     * index file. The index can be loaded by a later run with loadIndex 
+     * and brought up to date with refreshIndex.
+     * 
+     * @param fileName String value of the index file to be written
+     * @return boolean value indicating that if there were any problems. 
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    public boolean saveIndex(String fileName) {
+    	err.initErrs();
+    	
+    	try (DataOutputStream out = new DataOutputStream(
+    			new BufferedOutputStream(new FileOutputStream(fileName)))) {
+    		out.writeInt(IDX_MAGIC);
+    		out.writeInt(IDX_FORMAT);
+    		
+    		synchronized (roots) {
+    			out.writeInt(roots.size());
+    			for (String root : roots) out.writeUTF(root);
+    		}
+    		
+    		// take a copy, so the count matches what is written
+    		List<Map.Entry<String, DirInfo>> dirs = 
+    				new ArrayList<Map.Entry<String, DirInfo>>(dirIndex.entrySet());
+    		out.writeInt(dirs.size());
+    		for (Map.Entry<String, DirInfo> dir : dirs) {
+    			DirInfo info = dir.getValue();
+    			out.writeUTF(dir.getKey());
+    			out.writeLong(info.mtime);
+    			// copies, so the counts match what is written
+    			List<FileEntries.Entry> files = entries.list(dir.getKey());
+    			List<Map.Entry<String, Long>> subs = 
+    					new ArrayList<Map.Entry<String, Long>>(
+    							                   info.subDirs.entrySet());
+    			out.writeInt(files.size());
+    			for (FileEntries.Entry f : files) {
+    				out.writeUTF(f.name);
+    				out.writeLong(f.size);
+    				out.writeLong(f.mtime);
+    			}
+    			out.writeInt(subs.size());
+    			for (Map.Entry<String, Long> sub : subs) {
+    				out.writeUTF(sub.getKey());
+    				out.writeLong(sub.getValue());
+    			}
+    		}
+    	} catch (IOException e) {
+        	err.eNbr     = 9940;
+    		err.eMessage = "Unable to write the index file:\t" + fileName;
+    		err.eType    = Errs.ETYPE_ERROR;
+    		err.setCause(e);
+            TR.debugErr(dbg, dPreFix, err);
+    		return false;
+    	}
     	
+    	return true;
+    }
+
+    /**
+     * Reads an index file written by saveIndex, replacing the loaded 
+     * directories and file names with the ones in the file. Nothing is 
+     * read from the directories themselves; call refreshIndex to pick up 
+     * changes made since the index was saved.
+     * 
+     * @param fileName String value of the index file to be read
+     * @return boolean value indicating that if there were any problems. 
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    public boolean loadIndex(String fileName) {
+    	err.initErrs();
+    	
+    	List<String>                 newRoots = new ArrayList<String>();
+    	Map<String, DirInfo>         newIndex = new HashMap<String, DirInfo>();
+    	FileEntries                  newFiles = new FileEntries();
+    	try (DataInputStream in = new DataInputStream(
+    			new BufferedInputStream(new FileInputStream(fileName)))) {
+    		int format = 0;
+    		if (in.readInt() != IDX_MAGIC || 
+    				(format = in.readInt()) < 1 || format > IDX_FORMAT) {
+            	err.eNbr     = 9955;
+        		err.eMessage = "Not a valid index file:\t" + fileName;
+        		err.eType    = Errs.ETYPE_ERROR;
+                TR.debugErr(dbg, dPreFix, err);
+        		return false;
+    		}
+    		
+    		int nRoots = in.readInt();
+    		for (int i = 0; i < nRoots; i++) newRoots.add(in.readUTF());
+    		
+    		int nDirs = in.readInt();
+    		for (int d = 0; d < nDirs; d++) {
+    			String  dir  = in.readUTF();
+    			DirInfo info = new DirInfo();
+    			info.mtime   = in.readLong();
+    			String[] files  = new String[in.readInt()];
+    			long[]   sizes  = new long[files.length];
+    			long[]   mtimes = new long[files.length];
+    			for (int i = 0; i < files.length; i++) {
+    				files[i] = in.readUTF();
+    				if (format > 1) {
+    					sizes[i]  = in.readLong();
+    					mtimes[i] = in.readLong();
+    				}
+    			}
+    			newFiles.addDir(dir, files, sizes, mtimes);
+    			int nSubs = in.readInt();
+    			for (int i = 0; i < nSubs; i++) 
+    				info.subDirs.put(in.readUTF(), in.readLong());
+    			newIndex.put(dir, info);
+    		}
+    	} catch (IOException e) {
+        	err.eNbr     = 9950;
+    		err.eMessage = "Unable to read the index file:\t" + fileName;
+    		err.eType    = Errs.ETYPE_ERROR;
+    		err.setCause(e);
+            TR.debugErr(dbg, dPreFix, err);
+    		return false;
+    	}
+    	
+    	// replace the current values
+    	synchronized (roots) {
+    		roots.clear();
+    		roots.addAll(newRoots);
+    	}
+    	dirIndex.clear();
+    	dirIndex.putAll(newIndex);
+    	entries = newFiles;
+    	rebuildNames();
+    	
+    	return true;
+    }
+
+    /**
+     * Brings the loaded directories up to date. Every loaded directory's 
+     * last modified time is checked, but only those that have changed 
+     * since they were listed are listed again; new sub-directories are
+     * loaded and removed ones are dropped. The file names are then rebuilt
+     * from the directories.<p>
+     * <b>Note:  </b> Names added with loadFile, or by loadDir(File), are 
+     *                not part of the directory index and are dropped.<br>
+     *                The sizes and last modified times returned by 
+     *                locateAll are only read again for the directories
+     *                listed, so a file changed in place keeps the values 
+     *                from the index.
+     * 
+     * @param quiet boolean <code>true</code> to print only a summary, 
+     *                 <code>false</code> to print every directory listed
+     * @return boolean value indicating that if there were any problems. 
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    public boolean refreshIndex(boolean quiet) {
+    	err.initErrs();
+    	
+    	dirCount.reset();
+    	fileCount.reset();
+    	AtomicReference<Errs> firstErr = new AtomicReference<Errs>();
+
+    	List<String> rootList;
+    	synchronized (roots) {
+    		rootList = new ArrayList<String>(roots);
+    	}
+    	Queue<Path> searched = quiet ? null : new ConcurrentLinkedQueue<Path>();
+    	for (String root : rootList) 
+    		runTask(new RefreshTask(new File(root).toPath(), searched, firstErr),
+    				searched);
+    	
+    	rebuildNames();
+    	
+    	if (quiet)
+    		TR.printMsgln("Refreshed " + dirIndex.size() + " directories, " + 
+    	                  dirCount.sum() + " listed again");
+
+    	if (firstErr.get() != null) {
+    		err = firstErr.get();
+            TR.debugErr(dbg, dPreFix, err);
+    		return false;
+    	}
+    	return true;
+    }
+
+    /**
+     * Fork-join task checking if a loaded directory has changed, listing it
+     * again if it has, and checking each of its sub-directories.
+     */
+    @SuppressWarnings("serial")
+	private class RefreshTask extends RecursiveAction {
+    	private final Path                  dir;
+    	private final Queue<Path>           searched;
+    	private final AtomicReference<Errs> firstErr;
+    	
+    	RefreshTask(Path dir, Queue<Path> searched, 
+    			    AtomicReference<Errs> firstErr) {
+    		this.dir      = dir;
+    		this.searched = searched;
+    		this.firstErr = firstErr;
+    	}
+    	
+    	protected void compute() {
+    		String  key = dir.toString();
+    		DirInfo old = dirIndex.get(key);
+    		
+    		// get the current modified time, if gone drop it
+    		long mtime;
+    		try {
+    			BasicFileAttributes attrs = Files.readAttributes(dir, 
+    					   BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    			if (!attrs.isDirectory()) {
+    				removeDir(key);
+    				return;
+    			}
+    			mtime = attrs.lastModifiedTime().toMillis();
+    		} catch (IOException e) {
+    			removeDir(key);
+    			return;
+    		}
+    		
+    		// unchanged, only the sub-directories need to be checked
+    		DirInfo info = old;
+    		if (old == null || old.mtime != mtime) {
+    			if (searched != null) searched.add(dir);
+    			// sub-directories that are gone are dropped by the listing
+    			info = listDir(dir, mtime, firstErr);
+    			if (info == null) return;
+    		}
+    		
+    		List<RecursiveAction> subDirs = new ArrayList<RecursiveAction>();
+    		for (Map.Entry<String, Long> s : info.subDirs.entrySet()) {
+    			Path sub = dir.resolve(s.getKey());
+    			if (dirIndex.containsKey(sub.toString())) 
+    				subDirs.add(new RefreshTask(sub, searched, firstErr));
+    			else
+    				subDirs.add(new DirTask(sub, s.getValue(), 
+    						                searched, firstErr));
+    		}
+    		invokeAll(subDirs);
+    	}
+    }
+
+    /**
+     * Removes a directory, and all of its sub-directories, from the 
+     * directory index.
+     * 
+     * @param key String value of the directory's absolute path
+     */
+    private void removeDir(String key) {
+    	DirInfo info = dirIndex.remove(key);
+    	if (info == null) return;
+    	for (String f : entries.removeDir(key)) dropName(f);
+    	for (String sub : info.subDirs.keySet()) 
+    		removeDir(new File(key, sub).toPath().toString());
+    }
+
+    /**
+     * Rebuilds the HashMap of file names from the loaded files.
+     */
+    private void rebuildNames() {
+    	fNames.clear();
+    	nameCount.clear();
+    	sortedKeys.clear();
+    	reversedKeys.clear();
+    	entries.forEachName((name, copies) -> {
+    		String k = name.toUpperCase();
+    		nameCount.merge(k, copies, (v, c) -> v + c);
+    		if (fNames.putIfAbsent(k, name) == null) keyAdded(k);
+    	});
+    }
+
+    /**
+     * Adds a file name found in a loaded directory to the HashMap, counting 
+     * the number of directories holding it.
+     * 
+     * @param name String value of the file name
+     */
+    private void addName(String name) {
+    	nameCount.compute(name.toUpperCase(), (k, v) -> {
+    		if (fNames.putIfAbsent(k, name) == null) keyAdded(k);
+    		return (v == null) ? 1 : v + 1;
+    	});
+    }
+
+    /**
+     * Drops one copy of a file name found in a loaded directory, removing it
+     * from the HashMap when no copies are left.
+     * 
+     * @param name String value of the file name
+     */
+    private void dropName(String name) {
+    	nameCount.computeIfPresent(name.toUpperCase(), (k, v) -> {
+    		if (v > 1) return v - 1;
+    		if (fNames.remove(k) != null) {
+    			sortedKeys.remove(k);
+    			reversedKeys.remove(reverse(k));
+    		}
+    		return null;
+    	});
+    }
+
+    /**
+     * Adds a new key of the HashMap to the sorted keys, and reversed to the
+     * sorted reversed keys.
+     * 
+     * @param key String value of the upper case key
+     */
+    private void keyAdded(String key) {
+    	sortedKeys.add(key);
+    	reversedKeys.add(reverse(key));
+    }
+
+    //-------------------------------------------------------------------------
+    // Live mode methods
+    //-------------------------------------------------------------------------
+    /**
+     * Starts live mode. Every directory loaded by loadDir(File, boolean) or 
+     * loadIndex is registered with a WatchService, and a background thread 
+     * applies the files created and deleted to the loaded names, so 
+     * locateFile stays current without reloading. A file that is changed
+     * has its size and last modified time updated for locateAll. New sub-directories are 
+     * loaded and watched as they appear. If events are lost (overflow), 
+     * only the directory they were for is listed again.<p>
+     * <b>Note:  </b> The directories should be loaded, or the index loaded 
+     *                and refreshed, before starting; refreshIndex should 
+     *                not be called while watching.
+     * 
+     * @return boolean value indicating that if there were any problems. 
+     *               <code>true</code> is returned if no problems, otherwise
+     *               <code>false</code> is returned and the Err values are set
+     */
+    public synchronized boolean startWatch() {
+    	err.initErrs();
+    	
+    	if (watcher != null) return true;
+    	
+    	try {
+    		watcher = FileSystems.getDefault().newWatchService();
+    	} catch (IOException e) {
+        	err.eNbr     = 9970;
+    		err.eMessage = "Unable to start watching the directories";
+    		err.eType    = Errs.ETYPE_ERROR;
+    		err.setCause(e);
+            TR.debugErr(dbg, dPreFix, err);
+    		return false;
+    	}
+    	
+    	for (String dir : dirIndex.keySet()) 
+    		watchDir(new File(dir).toPath());
+    	
+    	watchThread = new Thread(() -> watchLoop(watcher), "FileSearchWatch");
+    	watchThread.setDaemon(true);
+    	watchThread.start();
+    	return true;
+    }
+
+    /**
+     * Stops live mode, waiting for the background thread to end.
+     */
+    public synchronized void stopWatch() {
+    	if (watcher == null) return;
+    	
+    	try {
+    		watcher.close();
+    	} catch (IOException e) {
+    		// nothing more can be done
+    	}
+    	watcher = null;
+    	watchKeys.clear();
+    	
+    	try {
+    		watchThread.join();
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
+    	watchThread = null;
+    }
+
+    /**
+     * Returns if live mode is running
+     * 
+     * @return boolean <code>true</code> if watching, 
+     *                 otherwise <code>false</code>
+     */
+    public boolean isWatching() {
+    	return watcher != null;
+    }
+
+    /**
+     * Registers a directory with the WatchService.
+     * 
+     * @param dir Path of the directory to be watched
+     */
+    private void watchDir(Path dir) {
+    	WatchService ws = watcher;
+    	if (ws == null) return;
+    	
+    	try {
+    		WatchKey key = dir.register(ws, 
+    				StandardWatchEventKinds.ENTRY_CREATE,
+    				StandardWatchEventKinds.ENTRY_DELETE,
+    				StandardWatchEventKinds.ENTRY_MODIFY);
+    		watchKeys.put(key, dir);
+    	} catch (ClosedWatchServiceException e) {
+    		// live mode was stopped
+    	} catch (IOException e) {
+    		Errs wErr     = new Errs();
+    		wErr.eNbr     = 9975;
+    		wErr.eMessage = "Unable to watch directory:\t" + dir;
+    		wErr.eType    = Errs.ETYPE_WARN;
+    		wErr.setCause(e);
+            TR.debugErr(dbg, dPreFix, wErr);
+    	}
+    }
+
+    /**
+     * Body of the background thread, applying the events for each watched
+     * directory until the WatchService is closed.
+     * 
+     * @param ws WatchService to take the events from
+     */
+    private void watchLoop(WatchService ws) {
+    	while (true) {
+    		WatchKey key;
+    		try {
+    			key = ws.take();
+    		} catch (InterruptedException | ClosedWatchServiceException e) {
+    			return;
+    		}
+    		
+    		Path dir = watchKeys.get(key);
+    		if (dir != null) {
+    			for (WatchEvent<?> ev : key.pollEvents()) {
+    				WatchEvent.Kind<?> kind = ev.kind();
+    				if (kind == StandardWatchEventKinds.OVERFLOW) 
+    					rescanDir(dir);
+    				else if (kind == StandardWatchEventKinds.ENTRY_CREATE)
+    					entryCreated(dir, ev.context().toString());
+    				else if (kind == StandardWatchEventKinds.ENTRY_DELETE)
+    					entryDeleted(dir, ev.context().toString());
+    				else if (kind == StandardWatchEventKinds.ENTRY_MODIFY)
+    					entryModified(dir, ev.context().toString());
+    			}
+    		}
+    		
+    		// directory is gone or no longer accessible
+    		if (!key.reset()) watchKeys.remove(key);
+    	}
+    }
+
+    /**
+     * Applies a created file or directory to the loaded names. A new 
+     * directory is loaded, along with any sub-directories.
+     * 
+     * @param dir Path of the watched directory
+     * @param name String value of the name created in it
+     */
+    private void entryCreated(Path dir, String name) {
+    	DirInfo info = dirIndex.get(dir.toString());
+    	if (info == null) return;
+    	
+    	Path entry = dir.resolve(name);
+    	BasicFileAttributes attrs;
+    	try {
+    		attrs = Files.readAttributes(entry, 
+    				   BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    	} catch (IOException e) {
+    		return;       // already gone again, a delete event will follow
+    	}
+    	
+    	info.mtime = dir.toFile().lastModified();
+    	
+    	if (attrs.isDirectory()) {
+    		long mtime = attrs.lastModifiedTime().toMillis();
+    		if (info.subDirs.putIfAbsent(name, mtime) != null) return;
+    		
+    		AtomicReference<Errs> firstErr = new AtomicReference<Errs>();
+    		ForkJoinPool.commonPool().invoke(
+    				new DirTask(entry, mtime, null, firstErr));
+    		if (firstErr.get() != null)
+                TR.debugErr(dbg, dPreFix, firstErr.get());
+    	} else {
+    		if (entries.add(dir.toString(), name, attrs.size(), 
+    				        attrs.lastModifiedTime().toMillis())) 
+    			addName(name);
+    	}
+    }
+
+    /**
+     * Applies a deleted file or directory to the loaded names. A deleted
+     * directory is dropped along with all of its sub-directories.
+     * 
+     * @param dir Path of the watched directory
+     * @param name String value of the name deleted from it
+     */
+    private void entryDeleted(Path dir, String name) {
+    	DirInfo info = dirIndex.get(dir.toString());
+    	if (info == null) return;
+    	
+    	info.mtime = dir.toFile().lastModified();
+    	
+    	if (entries.remove(dir.toString(), name)) {
+    		dropName(name);
+    	} else if (info.subDirs.remove(name) != null) {
+    		removeDir(dir.resolve(name).toString());
+    	}
+    }
+
+    /**
+     * Applies a changed file to its size and last modified time. A changed
+     * directory is left alone; its own events keep it current.
+     * 
+     * @param dir Path of the watched directory
+     * @param name String value of the name changed in it
+     */
+    private void entryModified(Path dir, String name) {
+    	DirInfo info = dirIndex.get(dir.toString());
+    	if (info == null || !entries.contains(dir.toString(), name)) return;
+    	
+    	BasicFileAttributes attrs;
+    	try {
+    		attrs = Files.readAttributes(dir.resolve(name), 
+    				   BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    	} catch (IOException e) {
+    		return;       // already gone, a delete event will follow
+    	}
+    	entries.add(dir.toString(), name, attrs.size(), 
+    			    attrs.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Lists a watched directory again after events for it were lost, 
+     * loading new sub-directories and dropping removed ones.
+     * 
+     * @param dir Path of the watched directory
+     */
+    private void rescanDir(Path dir) {
+    	if (!dirIndex.containsKey(dir.toString())) return;
+    	
+    	// the listing drops what is gone, so only the new sub-directories 
+    	// are left to be loaded
+    	AtomicReference<Errs> firstErr = new AtomicReference<Errs>();
+    	DirInfo info = listDir(dir, dir.toFile().lastModified(), firstErr);
+    	if (info != null) {
+    		List<DirTask> subDirs = new ArrayList<DirTask>();
+    		for (Map.Entry<String, Long> sub : info.subDirs.entrySet()) 
+    			if (!dirIndex.containsKey(dir.resolve(sub.getKey()).toString())) 
+    				subDirs.add(new DirTask(dir.resolve(sub.getKey()), 
+    						                sub.getValue(), null, firstErr));
+    		for (DirTask task : subDirs) 
+    			ForkJoinPool.commonPool().invoke(task);
+    	}
+    	if (firstErr.get() != null)
+            TR.debugErr(dbg, dPreFix, firstErr.get());
     }
 
     //-------------------------------------------------------------------------
@@ -216,6 +1310,7 @@ public class FileSearch {
     	// supporting classes
     	vlist = Errs.getAllVersions(vlist);
     	vlist = Trace.getAllVersions(vlist);
+    	vlist = FileEntries.getAllVersions(vlist);
 
     	return vlist;
     }
@@ -0,0 +1,160 @@
+package jutils;
+import java.io.File;
+import java.util.LinkedHashMap;
+
+/**
+ * The FileWatcher class checks a single file, on a background thread, for
+ * changes to its modified time or size, and runs the passed action when it
+ * changes (including when it is created or deleted). It is used to reload
+ * configuration files while a program is running.<p>
+ * The file is checked by polling, so it works on any file system, and only
+ * the file's attributes are read until it changes.
+ *
+ */
+
+public class FileWatcher extends Thread {
+
+    private final static String  version     = "Version 14.80";
+
+    // default time between checks
+    static public final long   FW_POLL_MILLIS  = 1000;
+
+    // passed values
+    private final File         file;
+    private final long         pollMillis;
+    private final Runnable     onChange;
+
+    // the file as last seen
+    private long               lastTime;
+    private long               lastSize;
+    private volatile boolean   stopping    = false;
+
+    // support classes
+    private Errs               err         = new Errs();
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates the watcher, taking the current state of the file as the
+     * starting point. The thread is not started until start() is called.
+     *
+     * @param fileName String value of the file to be watched
+     * @param poll long value of the milliseconds between checks, if less
+     *                  than 1, FW_POLL_MILLIS is used
+     * @param action Runnable run, on the watcher thread, each time the
+     *                  file changes
+     */
+    public FileWatcher(String fileName, long poll, Runnable action) {
+    	super("FileWatcher " + fileName);
+    	setDaemon(true);
+
+    	file       = new File(fileName);
+    	pollMillis = (poll < 1) ? FW_POLL_MILLIS : poll;
+    	onChange   = action;
+    	lastTime   = file.lastModified();
+    	lastSize   = file.length();
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error results
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the most recent error information, set if the action failed
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public synchronized Errs getErrs() {
+        return new Errs(err);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Watching
+    //-------------------------------------------------------------------------
+    /**
+     * Checks the file now, running the action if it has changed. Called by
+     * the watcher thread, but may also be called directly.
+     *
+     * @return boolean <code>true</code> if the file had changed
+     */
+    public synchronized boolean check() {
+    	long time = file.lastModified();
+    	long size = file.length();
+    	if (time == lastTime && size == lastSize)
+    		return false;
+
+    	lastTime = time;
+    	lastSize = size;
+    	try {
+    		onChange.run();
+    	} catch (RuntimeException e) {
+    		// keep watching, the next change may be good
+    		err.eNbr        = 9599;
+    		err.eMessage    = "File change action failed:  " + file;
+    		err.eType       = Errs.ETYPE_ERROR;
+    		err.setCause(e);
+    	}
+    	return true;
+    }
+
+    /**
+     * Stops the watcher thread and waits for it to end.
+     */
+    public void stopWatching() {
+    	stopping = true;
+    	interrupt();
+    	if (Thread.currentThread() == this) return;
+    	try {
+    		join();
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
+    }
+
+    public void run() {
+    	while (!stopping) {
+    		try {
+    			Thread.sleep(pollMillis);
+    		} catch (InterruptedException e) {
+    			if (stopping) return;
+    		}
+    		if (!stopping) check();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = FileWatcher.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = Errs.getAllVersions(vlist);
+    	return vlist;
+	}
+
+}
@@ -3,8 +3,6 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -18,7 +16,7 @@ import java.util.List;
  */
 public class Help{
 
-    private final static  String version     = "Version 03.00";
+    private final static  String version     = "Version 14.80";
     // no debugging trace info currently configured
     //private static final String  dFlag       = DebugInfo.DB_HELP;
     //private static final String  dPreFix     = "Help:";
@@ -30,7 +28,6 @@ public class Help{
 
     // error handling
     private Errs                  err        = new Errs();
-    private StringWriter          errors     = new StringWriter();
 
     
     //-------------------------------------------------------------------------
@@ -227,8 +224,7 @@ public class Help{
 			err.eNbr        = 9650;
 			err.eMessage    = "Unable to process Help File:  " + fName; 
 			err.eType       = Errs.ETYPE_ERROR;
-			e.printStackTrace(new PrintWriter(errors));
-			err.eStackTrace = "Error msg:  " + e + "\n" + errors.toString();
+			err.setCause(e);
     	}
 
     	return helpBuffer;  // return what we have
@@ -0,0 +1,157 @@
+package jutils;
+import java.util.LinkedHashMap;
+
+/**
+ * The LineLimits class keeps the start of each line of a text that only
+ * grows at the end, such as the text of a WindowRpt, and works out how
+ * much of the oldest text must be removed to keep it within a number of
+ * lines or characters. The starts are recorded as the text is added, so
+ * finding where to cut never rescans the text.<p>
+ * The starts are offsets into all of the text ever added, kept in a ring
+ * with the oldest first; the offset into the text still kept is that less
+ * the text already removed.<p>
+ * It is not synchronized; WindowRpt uses it on the event thread only.
+ *
+ */
+
+public final class LineLimits {
+
+    private final static String  version     = "Version 14.80";
+
+    // start of each line kept, oldest at lsHead
+    private long[]               lineStarts  = new long[64];
+    private int                  lsHead      = 0;
+    private int                  lsCount     = 0;
+    private long                 written     = 0;  // all text ever added
+    private long                 removed     = 0;  // text cut from the start
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates the limits of an empty text
+     */
+    public LineLimits() {
+    	reset();
+    }
+
+    //-------------------------------------------------------------------------
+    //  Tracking the text
+    //-------------------------------------------------------------------------
+    /**
+     * Records the start of each line in text just added at the end
+     *
+     * @param text CharSequence added
+     */
+    public void add(CharSequence text) {
+    	int n = text.length();
+    	for (int i = 0; i < n; i++)
+    		if (text.charAt(i) == '\n')
+    			addLineStart(written + i + 1);
+    	written += n;
+    }
+
+    /**
+     * Works out how much of the oldest text is over the limits, and counts
+     * it as removed. Whole lines are removed, unless a single line is
+     * longer than the most characters, when it is cut part way.
+     *
+     * @param lines int value of the most lines kept, 0 for no limit
+     * @param chars int value of the most characters kept, 0 for no limit
+     * @return int value of the characters to be removed from the start of
+     *                 the text, 0 if it is within the limits
+     */
+    public int trim(int lines, int chars) {
+    	// a line that is still empty (after the last new line) is not counted
+    	int kept = lsCount;
+    	if (lineStarts[(lsHead + lsCount - 1) % lineStarts.length] == written)
+    		kept--;
+    	if (lines > 0 && kept > lines) {
+    		for (int i = kept - lines; i > 0; i--)
+    			dropFirstLine();
+    	}
+    	if (chars > 0 && written - firstLineStart() > chars) {
+    		long keepFrom = written - chars;
+    		while (lsCount > 1 && firstLineStart() < keepFrom)
+    			dropFirstLine();
+    		// a single line longer than the limit is cut part way
+    		if (firstLineStart() < keepFrom)
+    			lineStarts[lsHead] = keepFrom;
+    	}
+
+    	long cut = firstLineStart() - removed;
+    	if (cut <= 0) return 0;
+    	removed += cut;
+    	return (int) cut;
+    }
+
+    /**
+     * Starts tracking an empty text
+     */
+    public void reset() {
+    	lsHead  = 0;
+    	lsCount = 0;
+    	written = 0;
+    	removed = 0;
+    	addLineStart(0);
+    }
+
+    //-------------------------------------------------------------------------
+    //  The ring of line starts
+    //-------------------------------------------------------------------------
+    private void addLineStart(long start) {
+    	if (lsCount == lineStarts.length) {
+    		long[] grown = new long[lsCount * 2];
+    		for (int i = 0; i < lsCount; i++)
+    			grown[i] = lineStarts[(lsHead + i) % lsCount];
+    		lineStarts = grown;
+    		lsHead     = 0;
+    	}
+    	lineStarts[(lsHead + lsCount) % lineStarts.length] = start;
+    	lsCount++;
+    }
+
+    private long firstLineStart() {
+    	return lineStarts[lsHead];
+    }
+
+    private void dropFirstLine() {
+    	lsHead = (lsHead + 1) % lineStarts.length;
+    	lsCount--;
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = LineLimits.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+    	return vlist;
+	}
+
+}
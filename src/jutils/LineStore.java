@@ -0,0 +1,412 @@
+package jutils;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * The LineStore class holds any number of lines of text, such as trace
+ * messages, without keeping them on the heap. Lines can only be added at
+ * the end; they are written to a temporary file, through a buffer outside
+ * of the heap, and read back by their number when needed. Only the byte
+ * offset of each line (8 bytes a line) and the most recently used lines
+ * are kept in memory, so a million lines cost a few megabytes however long
+ * they are.<p>
+ * The lines are numbered from 0. The temporary file is deleted by close(),
+ * or when the program ends.<p>
+ * All methods are synchronized, so lines may be added on one thread while
+ * they are read on another. A search holds the lock for one block of lines
+ * at a time, so lines can be added and read while it runs.
+ *
+ */
+
+public final class LineStore {
+
+    private final static String  version     = "Version 14.80";
+
+    // size of the write buffer
+    static public final int    LS_BUFFER   = 64 * 1024;
+
+    // lines kept in memory, direct mapped on the line number
+    static private final int   LS_CACHE    = 1024;      // must be power of 2
+
+    static private final Charset CS        = StandardCharsets.UTF_8;
+
+    // returned by findBlock when there are more lines to check
+    static private final int   LS_MORE     = -2;
+
+    // the temporary file, opened when the first line is added
+    private File               file        = null;
+    private RandomAccessFile   raf         = null;
+    private FileChannel        ch          = null;
+
+    // lines not yet written to the file
+    private final ByteBuffer   wbuf        = ByteBuffer.allocateDirect(LS_BUFFER);
+    private long               fileEnd     = 0;   // bytes in the file
+
+    // offsets[i] is the start of line i, offsets[size] the end of the last
+    private long[]             offsets     = new long[1024];
+    private int                size        = 0;
+
+    // recently used lines
+    private final String[]     cache       = new String[LS_CACHE];
+    private final int[]        cacheLine   = new int[LS_CACHE];
+
+    // changed when the lines are cleared, so a search still running stops
+    private int                generation  = 0;
+
+    // a search in progress, between the blocks of lines it checks
+    private static final class Search {
+    	String  text;
+    	boolean forward;
+    	boolean ignoreCase;
+    	int     next;          // next line to check
+    	int     generation;    // of the lines being searched
+    	byte[]  blk;           // the block of the file last read
+    	long    blkStart;
+    	int     blkLen;
+    }
+
+    // support classes
+    private Errs               err         = new Errs();
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates an empty store. The temporary file is not created until the
+     * first line is added.
+     */
+    public LineStore() {
+    	Arrays.fill(cacheLine, -1);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error routines
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the most recent error information
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public synchronized Errs getErrs() {
+        return new Errs(err);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Adding lines
+    //-------------------------------------------------------------------------
+    /**
+     * Adds a line at the end of the store
+     *
+     * @param line String value of the line, without its line end
+     * @return boolean <code>true</code> if added, otherwise
+     *                 <code>false</code> and the Err values are set
+     */
+    public synchronized boolean add(String line) {
+    	err.initErrs();
+    	if (ch == null && !open()) return false;
+
+    	byte[] b = line.getBytes(CS);
+    	try {
+    		if (b.length > wbuf.remaining()) flush();
+    		if (b.length > wbuf.capacity()) {
+    			ByteBuffer big = ByteBuffer.wrap(b);
+    			while (big.hasRemaining())
+    				fileEnd += ch.write(big, fileEnd);
+    		} else {
+    			wbuf.put(b);
+    		}
+    	} catch (IOException e) {
+			err.eNbr     = 9310;
+			err.eMessage = "Unable to write to line store:  " + file;
+			err.eType    = Errs.ETYPE_ERROR;
+			err.setCause(e);
+			return false;
+    	}
+
+    	if (size + 1 == offsets.length)
+    		offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    	size++;
+    	offsets[size] = fileEnd + wbuf.position();
+
+    	// a line just added is likely to be shown next
+    	int slot        = (size - 1) & (LS_CACHE - 1);
+    	cache[slot]     = line;
+    	cacheLine[slot] = size - 1;
+    	return true;
+    }
+
+    /**
+     * Removes all of the lines
+     */
+    public synchronized void clear() {
+    	err.initErrs();
+    	generation++;
+    	wbuf.clear();
+    	fileEnd = 0;
+    	size    = 0;
+    	Arrays.fill(cache, null);
+    	Arrays.fill(cacheLine, -1);
+    	if (ch == null) return;
+    	try {
+    		ch.truncate(0);
+    	} catch (IOException e) {
+			err.eNbr     = 9320;
+			err.eMessage = "Unable to clear line store:  " + file;
+			err.eType    = Errs.ETYPE_WARN;
+			err.setCause(e);
+    	}
+    }
+
+    /**
+     * Closes and deletes the temporary file. The store is empty afterwards
+     * and can still be used, a new file is created as needed.
+     */
+    public synchronized void close() {
+    	generation++;
+    	wbuf.clear();
+    	fileEnd = 0;
+    	size    = 0;
+    	Arrays.fill(cache, null);
+    	Arrays.fill(cacheLine, -1);
+    	if (ch == null) return;
+    	try {
+    		raf.close();
+    	} catch (IOException e) {
+    		// nothing more to be done with it
+    	}
+    	file.delete();
+    	raf  = null;
+    	ch   = null;
+    	file = null;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Reading lines
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of lines
+     *
+     * @return int value of the number of lines
+     */
+    public synchronized int size() {
+    	return size;
+    }
+
+    /**
+     * Returns a line
+     *
+     * @param i int value of the line number, 0 to size()-1
+     * @return String value of the line, or an empty String if it could not
+     *                 be read (the Err values are set)
+     */
+    public synchronized String get(int i) {
+    	if (i < 0 || i >= size)
+    		throw new IndexOutOfBoundsException("Line " + i + " of " + size);
+
+    	int slot = i & (LS_CACHE - 1);
+    	if (cacheLine[slot] == i) return cache[slot];
+
+    	String line     = read(i);
+    	cache[slot]     = line;
+    	cacheLine[slot] = i;
+    	return line;
+    }
+
+    /**
+     * Finds the next line holding the passed text. The file is read in 
+     * blocks of lines, not a line at a time, and the lock is only held 
+     * while a block is checked. The search stops if the calling thread is
+     * interrupted, or the lines are cleared, so a search that is no longer
+     * wanted can be abandoned.
+     *
+     * @param text String value of the text to be found
+     * @param from int value of the first line to be checked
+     * @param forward boolean <code>true</code> to search toward the last
+     *                 line, <code>false</code> toward the first
+     * @param ignoreCase boolean <code>true</code> to ignore case
+     * @return int value of the line number found, or -1 if not found, the
+     *                 search was stopped, or the file could not be read 
+     *                 (the Err values are set)
+     */
+    public int find(String text, int from, boolean forward,
+    		        boolean ignoreCase) {
+    	Search s = new Search();
+    	synchronized (this) {
+    		err.initErrs();
+    		s.generation = generation;
+    	}
+    	if (text == null || text.isEmpty()) return -1;
+    	s.text       = ignoreCase ? text.toLowerCase() : text;
+    	s.forward    = forward;
+    	s.ignoreCase = ignoreCase;
+    	s.next       = from;
+
+    	while (!Thread.currentThread().isInterrupted()) {
+    		int found = findBlock(s);
+    		if (found != LS_MORE) return found;
+    	}
+    	return -1;
+    }
+
+    /**
+     * Checks the lines of a search up to the end of the next block read
+     *
+     * @param s Search in progress
+     * @return int value of the line number found, -1 if the search is 
+     *                 done, or LS_MORE to check the next block
+     */
+    private synchronized int findBlock(Search s) {
+    	if (s.generation != generation) return -1;
+    	int step  = s.forward ? 1 : -1;
+    	int reads = 0;
+
+    	for (int i = s.next; i >= 0 && i < size; i += step) {
+    		// lines not in memory are read without replacing those that are
+    		int    slot = i & (LS_CACHE - 1);
+    		String line;
+    		long   start = offsets[i];
+    		long   end   = offsets[i + 1];
+    		if (cacheLine[slot] == i) {
+    			line = cache[slot];
+    		} else if (end - start > LS_BUFFER) {
+    			if (reads++ > 0) { s.next = i; return LS_MORE; }
+    			line = read(i);
+    		} else {
+    			if (s.blk == null || start < s.blkStart || 
+    					end > s.blkStart + s.blkLen) {
+    				if (reads++ > 0) { s.next = i; return LS_MORE; }
+    				if (s.blk == null) s.blk = new byte[LS_BUFFER];
+    				// the block runs on in the direction of the search
+    				s.blkStart = s.forward ? start 
+    						               : Math.max(0, end - LS_BUFFER);
+    				s.blkLen   = readBlock(s.blk, s.blkStart);
+    				if (s.blkLen < 0) return -1;
+    			}
+    			line = new String(s.blk, (int) (start - s.blkStart),
+    					          (int) (end - start), CS);
+    		}
+    		if (s.ignoreCase) line = line.toLowerCase();
+    		if (line.contains(s.text)) return i;
+    	}
+    	return -1;
+    }
+
+    //-------------------------------------------------------------------------
+    //  The temporary file
+    //-------------------------------------------------------------------------
+    private boolean open() {
+    	try {
+    		file = File.createTempFile("jutils", ".lines");
+    		file.deleteOnExit();
+    		raf  = new RandomAccessFile(file, "rw");
+    		ch   = raf.getChannel();
+    		return true;
+    	} catch (IOException e) {
+			err.eNbr     = 9300;
+			err.eMessage = "Unable to create line store file";
+			err.eType    = Errs.ETYPE_ERROR;
+			err.setCause(e);
+			file = null;
+			raf  = null;
+			return false;
+    	}
+    }
+
+    private void flush() throws IOException {
+    	wbuf.flip();
+    	while (wbuf.hasRemaining())
+    		fileEnd += ch.write(wbuf, fileEnd);
+    	wbuf.clear();
+    }
+
+    /**
+     * Reads as much of the file as fits in the block, or is left in the
+     * file
+     *
+     * @return int value of the bytes read, or -1 if there was an error
+     *                 (the Err values are set)
+     */
+    private int readBlock(byte[] blk, long start) {
+    	try {
+    		if (wbuf.position() > 0) flush();
+    		int        len = (int) Math.min(blk.length, fileEnd - start);
+    		ByteBuffer bb  = ByteBuffer.wrap(blk, 0, len);
+    		while (bb.hasRemaining()) {
+    			if (ch.read(bb, start + bb.position()) < 0) break;
+    		}
+    		return bb.position();
+    	} catch (IOException e) {
+			err.eNbr     = 9340;
+			err.eMessage = "Unable to search line store:  " + file;
+			err.eType    = Errs.ETYPE_ERROR;
+			err.setCause(e);
+			return -1;
+    	}
+    }
+
+    private String read(int i) {
+    	long start = offsets[i];
+    	int  len   = (int) (offsets[i + 1] - start);
+    	if (len == 0) return "";
+
+    	byte[] b = new byte[len];
+    	try {
+    		if (start + len > fileEnd) flush();
+    		ByteBuffer bb = ByteBuffer.wrap(b);
+    		while (bb.hasRemaining()) {
+    			if (ch.read(bb, start + bb.position()) < 0) break;
+    		}
+    	} catch (IOException e) {
+			err.eNbr     = 9330;
+			err.eMessage = "Unable to read line " + i + " of line store:  " +
+			               file;
+			err.eType    = Errs.ETYPE_ERROR;
+			err.setCause(e);
+			return "";
+    	}
+    	return new String(b, CS);
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = LineStore.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = Errs.getAllVersions(vlist);
+    	return vlist;
+	}
+
+}
@@ -0,0 +1,311 @@
+package jutils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The LiveArgs class keeps the argument values of a program up to date
+ * while it runs. It parses the arguments from an ArgConfig and the command
+ * line once, then watches the configuration file and parses them again each
+ * time it changes.<p>
+ * The values are held as an ArgValues, which never changes; a reload
+ * builds a new one and swaps it in. Readers call values() and keep the
+ * ArgValues for as long as they need a consistent set of values, without
+ * taking any lock.<p>
+ * Only the arguments marked with Args.setReloadable may change. A change
+ * to any other argument is ignored (its old value is kept) and a warning
+ * is set. A configuration file that cannot be read or parsed leaves all of
+ * the values as they were.<p>
+ * Listeners added with addListener are told, after each reload, which
+ * arguments changed. Reloads are done one at a time, so listeners are
+ * told of them in the order the values were swapped in.
+ *
+ */
+
+public final class LiveArgs {
+
+    private   static final String  version  = "Version 14.80";
+    private   static final String  dFlag    = DebugInfo.DB_ARGS;
+    private   static final String  dPreFix  = "LiveArgs:";
+
+    /**
+     * Receives the arguments that changed when the configuration file was
+     * reloaded
+     */
+    public interface Listener {
+    	/**
+    	 * Called, on the watcher thread, after the new values are in place.
+    	 * The next reload waits until all of the listeners have returned.
+    	 *
+    	 * @param changed List of the arguments whose values changed
+    	 * @param values ArgValues holding the new values
+    	 */
+    	void argsChanged(List<String> changed, ArgValues values);
+    }
+
+    // passed values
+    private final ArgSchema  schema;
+    private final ArgConfig  config;
+    private final String[]   clArgs;
+
+    // the current values, replaced as a whole on each reload
+    private volatile ArgValues current;
+
+    private final List<Listener> listeners =
+    		                       new CopyOnWriteArrayList<Listener>();
+    // held from parsing until the listeners are told, so the listeners
+    // hear of the reloads in the order the values were swapped in
+    private final Object     reloading = new Object();
+    private FileWatcher      watcher   = null;
+
+    // support classes
+    private Errs             err       = new Errs();
+    private Trace            TR;
+    private DebugHandle      dbg;                  // TR's flag for dFlag
+
+    //-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+    /**
+     * Creates the live values, parsing the arguments for the first time.
+     * If the first parse fails, values() still returns the values parsed,
+     * and getErrs() has the errors.
+     *
+     * @param argSchema ArgSchema of the arguments (see Args.compile)
+     * @param argConfig ArgConfig of the configuration file and environment
+     * @param args String array of command line arguments, or null
+     * @param tr instantiated Trace class for tracing debugging errors
+     */
+    public LiveArgs(ArgSchema argSchema, ArgConfig argConfig, String[] args,
+    		        Trace tr) {
+    	schema = argSchema;
+    	config = argConfig;
+    	clArgs = (args == null) ? null : args.clone();
+    	TR     = tr;
+    	dbg    = (TR == null) ? null : TR.debugHandle(dFlag);
+
+    	ArgValues first = schema.parse(config, clArgs);
+    	if (first == null) {
+    		err   = config.getErrs();
+    		first = schema.parse(clArgs);
+    	} else if (!first.isValid()) {
+    		err   = first.getErrs();
+    	}
+    	current = first;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error results
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the most recent error information
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public synchronized Errs getErrs() {
+        return new Errs(err);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Access to the values
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the current values. The ArgValues returned never changes, so
+     * all values read from it belong to the same reload.
+     *
+     * @return ArgValues of the current values
+     */
+    public ArgValues values() {
+    	return current;
+    }
+
+    /**
+     * Adds a listener to be told of changed arguments
+     *
+     * @param l Listener to be added
+     */
+    public void addListener(Listener l) {
+    	listeners.add(l);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param l Listener to be removed
+     */
+    public void removeListener(Listener l) {
+    	listeners.remove(l);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Watching the configuration file
+    //-------------------------------------------------------------------------
+    /**
+     * Starts watching the configuration file, reloading it when it changes
+     *
+     * @param pollMillis long value of the milliseconds between checks of
+     *                   the file (see FileWatcher)
+     * @return boolean value <code>true</code> if started, otherwise
+     *                   <code>false</code> and the Err values are set
+     */
+    public synchronized boolean start(long pollMillis) {
+    	if (watcher != null) return true;
+    	if (config.fileName() == null) {
+    		err.eNbr     = 9180;
+    		err.eMessage = "No configuration file to watch";
+    		err.eType    = Errs.ETYPE_ERROR;
+    		return false;
+    	}
+
+        TR.debugMsgln(dbg, dPreFix, "Watching configuration file:  %s",
+                                    config.fileName());
+    	watcher = new FileWatcher(config.fileName(), pollMillis,
+    			                  new Runnable() {
+    		public void run() { reload(); }
+    	});
+    	watcher.start();
+    	return true;
+    }
+
+    /**
+     * Stops watching the configuration file
+     */
+    public void stop() {
+    	FileWatcher w;
+    	synchronized (this) {
+    		w       = watcher;
+    		watcher = null;
+    	}
+    	if (w != null) w.stopWatching();
+    }
+
+    /**
+     * Returns if the configuration file is being watched
+     *
+     * @return boolean <code>true</code> if watching
+     */
+    public synchronized boolean isWatching() {
+    	return watcher != null;
+    }
+
+    /**
+     * Parses the arguments again and swaps in the new values. Called when
+     * the configuration file changes, but may also be called directly.
+     *
+     * @return List of the arguments whose values changed, or null if the
+     *                   arguments could not be read or parsed, the old
+     *                   values are kept and the Err values are set
+     */
+    public List<String> reload() {
+    	synchronized (reloading) {
+    		return reloadValues();
+    	}
+    }
+
+    /**
+     * Parses the arguments again, swaps in the new values and tells the
+     * listeners, see reload()
+     */
+    private List<String> reloadValues() {
+    	List<String> changed;
+    	ArgValues    next;
+
+    	synchronized (this) {
+    		err.initErrs();
+
+    		next = schema.parse(config, clArgs, current);
+    		if (next == null) {
+    			err = config.getErrs();
+    			return null;
+    		}
+    		if (!next.isValid()) {
+    			err          = next.getErrs();
+    			err.eNbr     = 9182;
+    			err.eMessage = "Reloaded arguments not valid, kept:  " +
+    					       next.getErrs().eMessage;
+    			TR.debugErr(dbg, dPreFix, err);
+    			return null;
+    		}
+
+    		// find the changes, keeping the old values of fixed arguments
+    		ArgValues old     = current;
+    		int       n       = schema.size();
+    		boolean[] keep    = null;
+    		StringBuilder fixed = null;
+    		changed = new ArrayList<String>();
+    		for (int i = 0; i < n; i++) {
+    			if (next.sameValue(old, i)) continue;
+    			if (schema.reload[i]) {
+    				changed.add(schema.arg[i]);
+    				continue;
+    			}
+    			if (keep == null) {
+    				keep  = new boolean[n];
+    				fixed = new StringBuilder();
+    			}
+    			keep[i] = true;
+    			fixed.append("  ").append(schema.arg[i]);
+    		}
+    		if (keep != null) {
+    			next = next.keep(old, keep);
+    			err.eNbr     = 9184;
+    			err.eMessage = "Arguments not reloadable, change ignored:" +
+    					       fixed;
+    			err.eType    = Errs.ETYPE_WARN;
+    			TR.debugErr(dbg, dPreFix, err);
+    		}
+
+    		if (changed.isEmpty()) return changed;
+    		current = next;
+    		changed = Collections.unmodifiableList(changed);
+    	}
+
+        TR.debugMsgln(dbg, dPreFix, "Arguments changed:  %s", changed);
+    	for (Listener l : listeners)
+    		l.argsChanged(changed, next);
+    	return changed;
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Methods
+    //-------------------------------------------------------------------------
+   /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+ 	static public LinkedHashMap<String, String>
+ 	         getAllVersions (LinkedHashMap<String, String> vlist) {
+ 		String v = LiveArgs.class.getName();
+ 		// if it already exists, just return
+ 		if (vlist.containsKey(v)) {
+ 			return vlist;
+ 		}
+ 		//add it to the list
+ 		vlist.put(v, getVersion());
+
+ 		vlist = ArgSchema.getAllVersions(vlist);
+ 		vlist = ArgConfig.getAllVersions(vlist);
+ 		vlist = FileWatcher.getAllVersions(vlist);
+ 		vlist = Errs.getAllVersions(vlist);
+ 		vlist = Trace.getAllVersions(vlist);
+
+ 		return vlist;
+    }
+
+}
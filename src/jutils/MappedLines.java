@@ -0,0 +1,270 @@
+package jutils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+
+/**
+ * The MappedLines class reads the lines of a file, or a byte range of a
+ * file, through a memory mapped "window" of the file rather than through
+ * a Reader. As the window is moved through the file it is re-mapped, so
+ * files larger than 2 GB are handled.<p>
+ * The class itself is the current line: after next() returns
+ * <code>true</code>, the instance can be used as a CharSequence of the
+ * line, or lineBuffer() can be used to get the bytes of the line. No String
+ * is built unless toString() is called. The view is reused for every line,
+ * so it must not be kept once next() is called again.<p>
+ * <b>Note:  </b> Lines end with a "\n", "\r\n" or a lone "\r", as they do 
+ *                for BufferedReader. charAt() returns each
+ *                byte of the line as a character, so it is only correct for
+ *                single byte characters (ASCII); toString() decodes the
+ *                line with the passed Charset.
+ *
+ */
+
+public class MappedLines implements CharSequence {
+
+    private final static String  version     = "Version 14.80";
+
+    // default size of the mapped window
+    static public final int   ML_WINDOW      = 64 * 1024 * 1024;
+    // largest window that can be mapped
+    static private final int  ML_MAX_WINDOW  = Integer.MAX_VALUE - 8;
+
+    // passed values
+    private final FileChannel  ch;          // open channel of the file
+    private final long         start;       // first byte of the range
+    private final long         end;         // byte past the range
+    private final Charset      cs;          // used when building Strings
+    private       int          winSize;     // size of the mapped window
+
+    // the current window and line
+    private MappedByteBuffer   win         = null;
+    private ByteBuffer         view        = null;  // reused line buffer
+    private long               winPos      = 0;     // file offset of window
+    private long               pos;                 // offset of next line
+    private int                lineStart   = 0;     // offset in window
+    private int                lineLen     = 0;     // length of line
+
+    // support classes
+    private Errs               err         = new Errs();
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates a line reader over a byte range of an open file. The range
+     * should begin at the start of a line.
+     *
+     * @param channel FileChannel of the file, opened for reading
+     * @param from long value of the first byte of the range
+     * @param to long value of the byte after the last byte of the range
+     * @param window int value of the size of the mapped window, if less
+     *                   than 1, ML_WINDOW is used
+     * @param charset Charset used to decode lines into Strings
+     */
+    public MappedLines(FileChannel channel, long from, long to,
+    		           int window, Charset charset) {
+    	ch      = channel;
+    	start   = from;
+    	end     = to;
+    	pos     = from;
+    	winSize = (window < 1) ? ML_WINDOW : window;
+    	cs      = charset;
+    }
+
+    //-------------------------------------------------------------------------
+    //  Error routines
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the most recent error information
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public Errs getErrs() {
+        return new Errs(err);
+    }
+
+    //-------------------------------------------------------------------------
+    //  Line reading
+    //-------------------------------------------------------------------------
+    /**
+     * Moves to the next line of the range.
+     *
+     * @return boolean <code>true</code> if there is a line, otherwise
+     *                 <code>false</code> at the end of the range or if
+     *                 there was an error (the Err values are set)
+     */
+    public boolean next() {
+    	err.initErrs();
+
+    	if (pos >= end) return false;
+
+    	while (true) {
+    		// make sure the window holds the start of the line
+    		if (win == null || pos < winPos || pos >= winPos + win.limit()) {
+    			if (!map(pos)) return false;
+    		}
+
+    		int  from = (int) (pos - winPos);
+    		int  lim  = win.limit();
+    		int  i    = from;
+    		byte b    = 0;
+    		while (i < lim && (b = win.get(i)) != '\n' && b != '\r') i++;
+
+    		// line runs past the end of the window, but not the range. A 
+    		// "\r" ending the window may be followed by a "\n" in the next
+    		boolean open = (i == lim) || (b == '\r' && i + 1 == lim);
+    		if (open && winPos + lim < end) {
+    			if (from == 0) {
+    				// the line is bigger than the window, grow the window
+    				if (winSize == ML_MAX_WINDOW) {
+    					err.eNbr     = 9594;
+    					err.eMessage = "Line is too long to be mapped at:  " + pos;
+    					err.eType    = Errs.ETYPE_ERROR;
+    					return false;
+    				}
+    				winSize = (int) Math.min((long) winSize * 2, ML_MAX_WINDOW);
+    			}
+    			if (!map(pos)) return false;
+    			continue;
+    		}
+
+    		// found the line, skip the line end
+    		int next  = i;
+    		if (i < lim) {
+    			next = i + 1;
+    			if (b == '\r' && next < lim && win.get(next) == '\n') next++;
+    		}
+    		pos       = winPos + next;
+    		lineStart = from;
+    		lineLen   = i - from;
+    		return true;
+    	}
+    }
+
+    /**
+     * Maps a window of the file starting at the passed offset.
+     *
+     * @param offset long value of the file offset the window starts at
+     * @return boolean <code>true</code> if successful,
+     *                 otherwise <code>false</code>
+     */
+    private boolean map(long offset) {
+    	long size = Math.min((long) winSize, end - offset);
+    	try {
+    		win    = ch.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    	} catch (IOException e) {
+    		err.eNbr     = 9592;
+    		err.eMessage = "Unable to map the file at:  " + offset;
+    		err.eType    = Errs.ETYPE_ERROR;
+    		err.setCause(e);
+    		return false;
+    	}
+    	view   = win.duplicate();
+    	winPos = offset;
+    	return true;
+    }
+
+    /**
+     * Returns the bytes of the current line, without the line end. The
+     * returned buffer is reused for every line.
+     *
+     * @return ByteBuffer with its position and limit set around the line,
+     *                 or an empty buffer if no line has been read
+     */
+    public ByteBuffer lineBuffer() {
+    	if (view == null) return ByteBuffer.allocate(0);
+    	view.limit(lineStart + lineLen);
+    	view.position(lineStart);
+    	return view;
+    }
+
+    /**
+     * Returns the file offset of the next line to be read
+     *
+     * @return long value of the offset
+     */
+    public long position() {
+    	return pos;
+    }
+
+    /**
+     * Returns the first byte of the range being read
+     *
+     * @return long value of the offset
+     */
+    public long rangeStart() {
+    	return start;
+    }
+
+    //-------------------------------------------------------------------------
+    //  CharSequence of the current line
+    //-------------------------------------------------------------------------
+    public int length() {
+    	return lineLen;
+    }
+
+    public char charAt(int index) {
+    	if (index < 0 || index >= lineLen)
+    		throw new IndexOutOfBoundsException("index: " + index);
+    	return (char) (win.get(lineStart + index) & 0xff);
+    }
+
+    public CharSequence subSequence(int from, int to) {
+    	if (from < 0 || to > lineLen || from > to)
+    		throw new IndexOutOfBoundsException("from: " + from + " to: " + to);
+    	StringBuilder sb = new StringBuilder(to - from);
+    	for (int i = from; i < to; i++) sb.append(charAt(i));
+    	return sb;
+    }
+
+    /**
+     * Builds a String of the current line, decoded with the Charset
+     *
+     * @return String value of the current line
+     */
+    public String toString() {
+    	byte[] bytes = new byte[lineLen];
+    	lineBuffer().get(bytes);
+    	return new String(bytes, cs);
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = MappedLines.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = Errs.getAllVersions(vlist);
+    	return vlist;
+	}
+
+}
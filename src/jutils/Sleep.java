@@ -1,6 +1,4 @@
 package jutils;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.LinkedHashMap;
 /**
  * The Sleep class brings together some common functionality for 
@@ -14,7 +12,7 @@ import java.util.LinkedHashMap;
 
 public class Sleep {
 
-    private static final  String  version  = "Version 14.70";
+    private static final  String  version  = "Version 14.80";
     private static final  String  dFlag    = DebugInfo.DB_SLEEP;
     private static final  String  dPreFix  = "sl:";
 
@@ -29,10 +27,10 @@ public class Sleep {
 
     // error handling
     private Errs                  err        = new Errs();
-    private StringWriter          errors     = new StringWriter();
 
     // passed in from calling routines
     private Trace                 TR;          // Trace and output handling
+    private DebugHandle           dbg;         // TR's flag for dFlag
 
     /** 
      * Standard constructor
@@ -44,7 +42,8 @@ public class Sleep {
 	 * @param tr  instantiated Trace Class
      */
     public Sleep(Trace tr) {
-        TR = tr;
+        TR  = tr;
+        dbg = (TR == null) ? null : TR.debugHandle(dFlag);
      }
     
     /**
@@ -113,12 +112,12 @@ public class Sleep {
 			err.eNbr = 9700;
 			err.eMessage = "Unable to sleep";
 			err.eType       = Errs.ETYPE_WARN;
-			e.printStackTrace(new PrintWriter(errors));
-			err.eStackTrace = "Error msg:  " + e + "\n" + 
-			                  errors.toString();
-			TR.debugErr(dFlag, dPreFix, err, 
-					    "Unable to Sleep " + secs + " multiplier(s)");
-			TR.debugMsgln(dFlag, dPreFix, err.eStackTrace);
+			err.setCause(e);
+			if (dbg.isOn()) {
+				TR.debugErr(dbg, dPreFix, err, 
+						    "Unable to Sleep %d multiplier(s)", secs);
+				TR.debugMsgln(dbg, dPreFix, err::stackTrace);
+			}
 		}
 	
 	}
@@ -131,12 +130,12 @@ public class Sleep {
 			err.eNbr = 9710;
 			err.eMessage = "Unable to sleep";
 			err.eType       = Errs.ETYPE_WARN;
-			e.printStackTrace(new PrintWriter(errors));
-			err.eStackTrace = "Error msg:  " + e + "\n" + 
-			                  errors.toString();
-			TR.debugErr(dFlag, dPreFix, err, 
-					    "Unable to Sleep " + milisecs + " milisecond(s)");
-			TR.debugMsgln(dFlag, dPreFix, err.eStackTrace);
+			err.setCause(e);
+			if (dbg.isOn()) {
+				TR.debugErr(dbg, dPreFix, err, 
+						    "Unable to Sleep %d milisecond(s)", milisecs);
+				TR.debugMsgln(dbg, dPreFix, err::stackTrace);
+			}
 		}
 	
 	}
@@ -1,7 +1,8 @@
 package jutils;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
+import java.util.function.Supplier;
 /**
  * The Trace class combines the writing program information to StdOut 
  * and to files using a common set of tools. An extension of DebugStatus,
@@ -15,7 +16,7 @@ import java.util.LinkedHashMap;
 
 public class Trace extends DebugStatus {
 
-    private  final static String  version  = "Version 14.70";
+    private  final static String  version  = "Version 14.80";
     
     // Trace Separator types 
     public   final static String  TRACE_SEP_BEGIN  = "B";
@@ -24,6 +25,10 @@ public class Trace extends DebugStatus {
     public   final static String  TRACE_SEP_ERROR  = "*";
     public   final static String  TRACE_SEP_DOUBLE = "D";
     public   final static String  TRACE_SEP_SEP01  = "1";   // V14.51
+
+    // Opened/Closed time stamp, shared; the seconds are shown as 3 digits
+    private  final static DateTimeFormatter STAMP_FMT = 
+    		DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm.'0'ss");
         
     // normally we want to send all Trace Messages to the appropriate trace
     // location (Trace File, Trace Window). But there is a need to force to
@@ -36,6 +41,12 @@ public class Trace extends DebugStatus {
     // for tracing in an environment with a trace file
     private  boolean     fTrace     = false;       // Trace messages to a file?
     private  FIO         fileT      = null;        // Trace File
+
+    // for writing the trace file in the background (asynchronous)
+    private  boolean     async      = false;       // buffer file writes?
+    private  int         asyncSize  = TraceBuffer.TB_DEFAULT_SIZE;
+    private  String      asyncFull  = TraceBuffer.TB_BLOCK;
+    private  volatile TraceBuffer tBuf = null;     // only set when file open
     
     // For tracing in a Gui environment with a trace window
     private  boolean     gui        = false;
@@ -174,11 +185,14 @@ public class Trace extends DebugStatus {
      *  @param tfName string value of the name of the trace file, or null;
      */
     private void initTrace(String tfName) {
+    	// write out anything still buffered, and stop the writer
+    	stopAsync();
     	err = new Errs();
     	
     	// reset file tracing fields
     	fTrace = false;
     	fileT  = null; 
+    	tBuf   = null;
 
     	// reset gui tracing fields
     	gui    = false;
@@ -235,12 +249,14 @@ public class Trace extends DebugStatus {
         	if (fileT.isOpen()) {        // is the file open?
         		// create a time stamp
         		String timeStamp = "Closed - " + 
-        				new SimpleDateFormat("dd-MMM-yyyy HH:mm.sss").
-                                    format(Calendar.getInstance().getTime());
+        				STAMP_FMT.format(LocalDateTime.now());
             
         		// write the time stamp
         		traceMsgln(timeStamp);
         		traceSep(TRACE_SEP_DOUBLE);
+
+        		// write out anything still buffered
+        		stopAsync();
  
         		// close the file
         		if (!fileT.close()) {
@@ -254,6 +270,70 @@ public class Trace extends DebugStatus {
     	return;
     }  
 
+    /**
+     * Turns on asynchronous writing of a file based Trace. Messages are 
+     * placed in a bounded buffer and written to the Trace file in batches
+     * by a background thread, so the callers do not wait on the disk.<p>
+     * May be called before or after the Trace file is opened. Calling 
+     * close() writes out everything left in the buffer before the file is
+     * closed. Has no effect on GUI or System.out tracing.
+     * 
+     * @param size int value of the number of messages the buffer holds, if
+     *                  less than 1, TraceBuffer.TB_DEFAULT_SIZE is used
+     * @param fullPolicy String value of what to do when the buffer is full,
+     *                  TraceBuffer.TB_BLOCK, TraceBuffer.TB_DROP_NEW, or
+     *                  TraceBuffer.TB_DROP_OLD
+     * @return boolean <code>true</code> if successful, 
+     *                 otherwise <code>false</code>
+     */
+    public boolean setAsync(int size, String fullPolicy) {
+    	err.initErrs();
+    	
+    	if (!TraceBuffer.validPolicy(fullPolicy)) {
+			err.eNbr     = 9200;
+			err.eMessage = "Invalid Trace buffer full policy:  " + fullPolicy +
+					       ". Must be either: " +
+					       TraceBuffer.TB_BLOCK    + ", " +
+					       TraceBuffer.TB_DROP_NEW + ", or " +
+					       TraceBuffer.TB_DROP_OLD;
+			err.eType    = Errs.ETYPE_ERROR;
+			return false;
+    	}
+    	
+    	async     = true;
+    	asyncSize = size;
+    	asyncFull = fullPolicy;
+    	
+    	// file already open, start writing in the background now
+    	if (fTrace && fileT.isOpen() && tBuf == null)
+    		startAsync();
+    	
+    	return true;
+    }
+
+    /**
+     * Waits until all messages written to an asynchronous Trace file have
+     * actually been written to the file. Does nothing if the Trace is not
+     * asynchronous.
+     */
+    public void flush() {
+    	TraceBuffer b = tBuf;       // read once, close() may clear it
+    	if (b != null) b.flush();
+    }
+
+    /**
+     * Returns the number of messages dropped because the asynchronous 
+     * Trace buffer was full.
+     * 
+     * @return long value of the number of dropped messages, 0 if the Trace
+     *              is not asynchronous
+     */
+    public long asyncDropped() {
+    	TraceBuffer b = tBuf;       // read once, close() may clear it
+    	if (b == null) return 0L;
+    	return b.dropped();
+    }
+
     //-------------------------------------------------------------------------
     // Public Print Output methods (to SysOut)
     //-------------------------------------------------------------------------
@@ -434,6 +514,316 @@ public class Trace extends DebugStatus {
         	traceFmt(dPreFix + "\t" + title, value);
         }
     }
+
+    //-------------------------------------------------------------------------
+    //  Public Debug Trace methods, using a DebugHandle
+    //-------------------------------------------------------------------------
+    // The same as the methods above, but checking a DebugHandle (see 
+    // debugHandle) rather than looking up the Class Code on each call.
+
+    /**
+     * Displays a debugging message separator
+     * 
+     * @param dh DebugHandle of the Class Code
+     */
+	public void debugSep(DebugHandle dh) {
+        if (dh.isOn()) {  
+    	   traceSep("");
+       }
+    }
+
+    /**
+     * Display a separator line in the trace, if debugging
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param sType string value of the separator type, see 
+     *              debugSep(String, String)
+     */
+    public void debugSep(DebugHandle dh, String sType){
+        if (dh.isOn()) {  
+        	traceSep(sType);
+        }
+    }
+
+    /**
+     * Displays the current error message on Trace output
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param err Errs class with the error values set
+     */
+	public void debugErr(DebugHandle dh, String dPreFix, Errs err) {
+        if (dh.isOn()) {  
+           traceErr(err, "", dPreFix);
+       }
+   }
+
+	/**
+     * Displays a specific error message on Trace output, with a message
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param message  String message to be displayed
+     * @param err Errs class with the error values set
+     */
+	public void debugErr(DebugHandle dh, String dPreFix, 
+			             Errs err, String message) {
+        if (dh.isOn()) {  
+            traceErr(err, message, dPreFix);
+        }
+    }
+
+    /**
+     * Displays a message on Trace output, with a newline
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param message  String message to be displayed
+     */
+	public void debugMsgln(DebugHandle dh, String dPreFix, String message) {
+        if (dh.isOn()) {  
+            traceMsgln(dPreFix + "\t" + message);
+        }
+    }
+
+    /**
+     * Displays a formatted message, see debugFmt(String, ...)
+     *  
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param title  string description to print first
+     * @param value  string value to print second
+     */
+    public void debugFmt(DebugHandle dh, String dPreFix, 
+    		             String title,  Object value)       {
+        if (dh.isOn()) {  
+        	traceFmt(dPreFix + "\t" + title, value);
+        }
+    }
+    
+    //-------------------------------------------------------------------------
+    //  Public Debug Trace methods, with deferred messages
+    //-------------------------------------------------------------------------
+    // The message is only built if debugging is on for the class. It is 
+    // either given by a Supplier, or as a String.format template and its
+    // arguments, so callers need not concatenate it before the check.
+    // A template call still creates its argument array, and boxes any 
+    // primitive arguments, before the check; on paths run for every record
+    // check isOn() on the DebugHandle first, or pass a Supplier.
+    // A null Supplier is taken as a null value, so a call such as
+    // debugFmt(code, preFix, title, null), which binds to the Supplier 
+    // overload, prints "null" as it did before the overloads were added.
+
+    /**
+     * Returns the value of a Supplier, or null if there is none
+     */
+    private static Object get(Supplier<?> s) {
+    	return (s == null) ? null : s.get();
+    }
+
+    /**
+     * Displays a message on Trace output, with a newline
+     * 
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param message  Supplier of the message to be displayed
+     */
+	public void debugMsgln(String cDCode, String dPreFix, 
+			               Supplier<String> message) {
+        if (cDCode == null || isDebug(cDCode)) {  
+            traceMsgln(dPreFix + "\t" + get(message));
+        }
+    }
+
+    /**
+     * Displays a message on Trace output, with a newline
+     * 
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param template  String.format template of the message
+     * @param args  arguments of the template
+     */
+	public void debugMsgln(String cDCode, String dPreFix, 
+			               String template, Object... args) {
+        if (cDCode == null || isDebug(cDCode)) {  
+            traceMsgln(dPreFix + "\t" + String.format(template, args));
+        }
+    }
+
+    /**
+     * Displays a formatted message, see debugFmt(String, String, String, 
+     * Object)
+     *  
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param title  string description to print first
+     * @param value  Supplier of the value to print second
+     */
+    public void debugFmt(String cDCode, String dPreFix, 
+    		             String title,  Supplier<?> value)  {
+        if (cDCode == null || isDebug(cDCode)) {  
+        	traceFmt(dPreFix + "\t" + title, get(value));
+        }
+    }
+
+    /**
+     * Displays a formatted message, see debugFmt(String, String, String, 
+     * Object)
+     *  
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param title  string description to print first
+     * @param template  String.format template of the value to print second
+     * @param args  arguments of the template
+     */
+    public void debugFmt(String cDCode, String dPreFix, String title,
+    		             String template, Object... args)   {
+        if (cDCode == null || isDebug(cDCode)) {  
+        	traceFmt(dPreFix + "\t" + title, String.format(template, args));
+        }
+    }
+
+	/**
+     * Displays a specific error message on Trace output, with a message
+     * 
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param err Errs class with the error values set
+     * @param message  Supplier of the message to be displayed
+     */
+	public void debugErr(String cDCode, String dPreFix, 
+			             Errs err, Supplier<String> message) {
+        if (cDCode == null || isDebug(cDCode)) {  
+            traceErr(err, (message == null) ? null : message.get(), dPreFix);
+        }
+    }
+
+	/**
+     * Displays a specific error message on Trace output, with a message
+     * 
+     * @param cDCode String value of a DebugInfo Debug Method Code. 
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param err Errs class with the error values set
+     * @param template  String.format template of the message
+     * @param args  arguments of the template
+     */
+	public void debugErr(String cDCode, String dPreFix, Errs err, 
+			             String template, Object... args) {
+        if (cDCode == null || isDebug(cDCode)) {  
+            traceErr(err, String.format(template, args), dPreFix);
+        }
+    }
+
+    // and the same, using a DebugHandle
+
+    /**
+     * Displays a message on Trace output, with a newline
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param message  Supplier of the message to be displayed
+     */
+	public void debugMsgln(DebugHandle dh, String dPreFix, 
+			               Supplier<String> message) {
+        if (dh.isOn()) {  
+            traceMsgln(dPreFix + "\t" + get(message));
+        }
+    }
+
+    /**
+     * Displays a message on Trace output, with a newline
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param template  String.format template of the message
+     * @param args  arguments of the template
+     */
+	public void debugMsgln(DebugHandle dh, String dPreFix, 
+			               String template, Object... args) {
+        if (dh.isOn()) {  
+            traceMsgln(dPreFix + "\t" + String.format(template, args));
+        }
+    }
+
+    /**
+     * Displays a formatted message, see debugFmt(String, String, String, 
+     * Object)
+     *  
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param title  string description to print first
+     * @param value  Supplier of the value to print second
+     */
+    public void debugFmt(DebugHandle dh, String dPreFix, 
+    		             String title,  Supplier<?> value)  {
+        if (dh.isOn()) {  
+        	traceFmt(dPreFix + "\t" + title, get(value));
+        }
+    }
+
+    /**
+     * Displays a formatted message, see debugFmt(String, String, String, 
+     * Object)
+     *  
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param title  string description to print first
+     * @param template  String.format template of the value to print second
+     * @param args  arguments of the template
+     */
+    public void debugFmt(DebugHandle dh, String dPreFix, String title,
+    		             String template, Object... args)   {
+        if (dh.isOn()) {  
+        	traceFmt(dPreFix + "\t" + title, String.format(template, args));
+        }
+    }
+
+	/**
+     * Displays a specific error message on Trace output, with a message
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param err Errs class with the error values set
+     * @param message  Supplier of the message to be displayed
+     */
+	public void debugErr(DebugHandle dh, String dPreFix, 
+			             Errs err, Supplier<String> message) {
+        if (dh.isOn()) {  
+            traceErr(err, (message == null) ? null : message.get(), dPreFix);
+        }
+    }
+
+	/**
+     * Displays a specific error message on Trace output, with a message
+     * 
+     * @param dh DebugHandle of the Class Code
+     * @param dPreFix string to be written in front of error to distinguish
+     *                       its origin
+     * @param err Errs class with the error values set
+     * @param template  String.format template of the message
+     * @param args  arguments of the template
+     */
+	public void debugErr(DebugHandle dh, String dPreFix, Errs err, 
+			             String template, Object... args) {
+        if (dh.isOn()) {  
+            traceErr(err, String.format(template, args), dPreFix);
+        }
+    }
     
     //-------------------------------------------------------------------------
     // Debug methods
@@ -454,6 +844,17 @@ public class Trace extends DebugStatus {
     		return false;
     		
     }
+
+    /** 
+     * Determines if we are debugging a specific class, from its handle.
+     * 
+     * @param dh DebugHandle of the Class Code to be checked
+     * @return  boolean value indicating if debugging is initiated for the
+     *             the class 
+     */
+    public boolean isDebug(DebugHandle dh) {
+    	return dh.isOn();
+    }
     
     //-------------------------------------------------------------------------
     // Public Trace Output methods
@@ -529,9 +930,10 @@ public class Trace extends DebugStatus {
     	// determine where to print it!
     	traceMsgln(outMsg);
 
-    	// was there a stack trace?
-		if (err.eStackTrace != null && !err.eStackTrace.isEmpty()) 
-			traceMsgln(err.eStackTrace);
+    	// was there a stack trace? (only rendered now, if kept as a cause)
+		String stack = err.stackTrace();
+		if (!stack.isEmpty()) 
+			traceMsgln(stack);
 
 /*    	
     	if (gui) { 
@@ -621,6 +1023,11 @@ public class Trace extends DebugStatus {
     	// Check for Trace File writes
        	if (fTrace && showOnTR) {
        		if (!fileT.isOpen()) { open(); }
+       		TraceBuffer b = tBuf;   // read once, close() may clear it
+       		if (b != null) {
+       			b.put(msg, false);
+       			return;
+       		}
         	fileT.print(msg);
         	return;
         }
@@ -653,6 +1060,11 @@ public class Trace extends DebugStatus {
     	// Check for Trace File writes
        	if (fTrace && showOnTR) {
        		if (!fileT.isOpen()) { open(); }
+       		TraceBuffer b = tBuf;   // read once, close() may clear it
+       		if (b != null) {
+       			b.put(msg, true);
+       			return;
+       		}
         	fileT.println(msg);
         	return;
         }
@@ -704,14 +1116,39 @@ public class Trace extends DebugStatus {
 		
     	// create a time stamp
         String timeStamp = "Opened - " + 
-        		new SimpleDateFormat("dd-MMM-yyyy HH:mm.sss").
-                                format(Calendar.getInstance().getTime());
+        		STAMP_FMT.format(LocalDateTime.now());
         
         // write the time stamp
         fileT.println(timeStamp);
+
+        // start the background writer, if requested
+        if (async) startAsync();
     	
         return true;
     }
+
+    /**
+     * Starts the background writer for the open Trace file.
+     */
+    private void startAsync() {
+    	TraceBuffer b = new TraceBuffer(fileT, asyncSize, asyncFull);
+    	b.start();
+    	tBuf = b;
+    }
+
+    /**
+     * Writes out anything left in the background writer's buffer and
+     * stops the writer. 
+     */
+    private void stopAsync() {
+    	TraceBuffer b = tBuf;
+    	if (b == null) return;
+    	
+    	b.shutdown();
+    	Errs bErr = b.getErrs();
+    	if (bErr.eType != Errs.ETYPE_NONE) err = bErr;
+    	tBuf = null;
+    }
     
     //-------------------------------------------------------------------------
     // Static Version Methods
@@ -745,6 +1182,7 @@ public class Trace extends DebugStatus {
 		vlist.put(v, getVersion());
 
     	vlist = FIO.getAllVersions(vlist);
+    	vlist = TraceBuffer.getAllVersions(vlist);
     	vlist = TraceThread.getAllVersions(vlist);
     	vlist = Errs.getAllVersions(vlist);
     	
@@ -0,0 +1,369 @@
+package jutils;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * The TraceBuffer class allows a file based Trace to write its messages
+ * "in the background". Messages are placed into a bounded, pre-allocated
+ * ring buffer by the calling threads, and a single writer thread drains
+ * the buffer to the Trace file in batches. This keeps the calling threads
+ * from waiting on the disk for every trace line.<p>
+ * When the buffer is full, one of the following is done, based on the
+ * "full policy" passed when the buffer was created:
+ * <ul><li><b>TB_BLOCK</b> - the caller waits until there is room</li>
+ *     <li><b>TB_DROP_NEW</b> - the new message is dropped</li>
+ *     <li><b>TB_DROP_OLD</b> - the oldest message in the buffer is dropped
+ *                              to make room for the new one</li>
+ * </ul>
+ * Dropped messages are counted and may be retrieved with dropped().<p>
+ * The writer thread is private to the buffer; it is started by start() and
+ * ended by shutdown().
+ *
+ */
+
+public class TraceBuffer {
+
+    private final static String  version     = "Version 14.80";
+
+    // What to do when the buffer is full
+    static public final String TB_BLOCK        = "B";   // wait for room
+    static public final String TB_DROP_NEW     = "N";   // drop new message
+    static public final String TB_DROP_OLD     = "O";   // drop oldest message
+    static public final int    TB_DEFAULT_SIZE = 8192;  // default capacity
+
+    // how long the writer waits for messages before checking again
+    static private final long  WAIT_MS         = 250;
+
+    // the ring buffer; messages are written out starting at head
+    private final String[]     msgs;
+    private final boolean[]    newLine;
+    private final int          capacity;
+    private       int          head        = 0;     // oldest message
+    private       int          count       = 0;     // messages in buffer
+
+    private final String       fullPolicy;
+    private       long         dropped     = 0;     // messages dropped
+    private       boolean      writing     = false; // batch being written?
+    private       boolean      stopping    = false; // shutdown requested?
+
+    private final ReentrantLock lock       = new ReentrantLock();
+    private final Condition     notEmpty   = lock.newCondition();
+    private final Condition     notFull    = lock.newCondition();
+    private final Condition     drained    = lock.newCondition();
+
+    // batch being written by the writer thread, reused for each batch
+    private final StringBuilder batch      = new StringBuilder();
+    private final String        lineSep    = System.lineSeparator();
+
+    // support classes
+    private       Errs          err        = new Errs();
+    private final Thread        writer;     // drains the buffer to the file
+
+    // passed values
+    private final FIO           fileT;      // open Trace file to write to
+
+    //-------------------------------------------------------------------------
+    //  Class constructors
+    //-------------------------------------------------------------------------
+    /**
+     * Creates the ring buffer and the writer thread. The thread is not
+     * started until start() is called.
+     *
+     * @param traceFile an FIO instance, already opened for write or append,
+     *                  that the buffered messages are written to
+     * @param size int value of the number of messages the buffer holds, if
+     *                  less than 1, TB_DEFAULT_SIZE is used
+     * @param policy String value of the "full policy", one of TB_BLOCK,
+     *                  TB_DROP_NEW or TB_DROP_OLD. If invalid, TB_BLOCK
+     *                  is used.
+     */
+    public TraceBuffer(FIO traceFile, int size, String policy) {
+    	writer = new Thread(new Runnable() {
+    		public void run() { drain(); }
+    	}, "TraceBuffer");
+    	writer.setDaemon(true);
+
+    	if (size < 1)  size = TB_DEFAULT_SIZE;
+    	if (!validPolicy(policy)) policy = TB_BLOCK;
+
+    	fileT      = traceFile;
+    	capacity   = size;
+    	fullPolicy = policy;
+    	msgs       = new String[capacity];
+    	newLine    = new boolean[capacity];
+    }
+
+    /**
+     * Verifies the passed "full policy" is one of the known values
+     *
+     * @param policy String value of the full policy to check
+     * @return boolean <code>true</code> if valid,
+     *                 otherwise <code>false</code>
+     */
+    static public boolean validPolicy(String policy) {
+    	if (policy == null) return false;
+    	switch (policy) {
+    	case TB_BLOCK:
+    	case TB_DROP_NEW:
+    	case TB_DROP_OLD: return true;
+    	default:          return false;
+    	}
+    }
+
+    /**
+     * Starts the writer thread. Until it is started, messages are only 
+     * written by shutdown().
+     */
+    public void start() {
+    	writer.start();
+    }
+
+    //-------------------------------------------------------------------------
+    //  Public access to private values
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of messages dropped because the buffer was full
+     *
+     * @return long value of the number of dropped messages
+     */
+    public long dropped() {
+    	lock.lock();
+    	try {
+    		return dropped;
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    /**
+     * Returns the most recent error information from the writer thread
+     *
+     * @return Errs class containing the most recent error information
+     */
+    public Errs getErrs() {
+    	lock.lock();
+    	try {
+    		return new Errs(err);
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    //  Producer methods
+    //-------------------------------------------------------------------------
+    /**
+     * Places a message in the buffer to be written by the writer thread.
+     *
+     * @param msg String message to be written
+     * @param nl boolean indicating if a hard return is to be written after
+     *                  the message
+     * @return boolean <code>true</code> if the message was placed in the
+     *                 buffer, <code>false</code> if it was dropped
+     */
+    public boolean put(String msg, boolean nl) {
+    	lock.lock();
+    	try {
+    		if (stopping) {
+    			dropped++;
+    			return false;
+    		}
+
+    		// buffer full, handle according to the policy
+    		if (count == capacity) {
+    			switch (fullPolicy) {
+    			case TB_DROP_NEW:
+    				dropped++;
+    				return false;
+    			case TB_DROP_OLD:
+    				msgs[head] = null;
+    				head = (head + 1) % capacity;
+    				count--;
+    				dropped++;
+    				break;
+    			default:  // TB_BLOCK
+    				while (count == capacity && !stopping) {
+    					try {
+    						notFull.await();
+    					} catch (InterruptedException e) {
+    						Thread.currentThread().interrupt();
+    						dropped++;
+    						return false;
+    					}
+    				}
+    				if (stopping) {
+    					dropped++;
+    					return false;
+    				}
+    			}
+    		}
+
+    		// add it to the end of the ring
+    		int tail      = (head + count) % capacity;
+    		msgs[tail]    = msg;
+    		newLine[tail] = nl;
+    		count++;
+    		notEmpty.signal();
+    		return true;
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    /**
+     * Waits until all messages placed in the buffer so far have been
+     * written to the Trace file.
+     */
+    public void flush() {
+    	lock.lock();
+    	try {
+    		while ((count > 0 || writing) && writer.isAlive()) {
+    			try {
+    				drained.await(WAIT_MS, TimeUnit.MILLISECONDS);
+    			} catch (InterruptedException e) {
+    				Thread.currentThread().interrupt();
+    				return;
+    			}
+    		}
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    /**
+     * Stops accepting messages, writes out everything left in the buffer
+     * and waits for the writer thread to end. The Trace file is NOT closed.
+     */
+    public void shutdown() {
+    	lock.lock();
+    	try {
+    		stopping = true;
+    		notEmpty.signalAll();
+    		notFull.signalAll();
+    	} finally {
+    		lock.unlock();
+    	}
+
+    	// if never started, write out what is there on this thread
+    	if (!writer.isAlive()) {
+    		while (writeBatch()) { }
+    		return;
+    	}
+
+    	try {
+    		writer.join();
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    //  Writer thread
+    //-------------------------------------------------------------------------
+    /**
+     * Writes out batches of messages until shutdown() is called and the 
+     * buffer is empty. Run by the writer thread only.
+     */
+    private void drain() {
+    	while (true) {
+    		lock.lock();
+    		try {
+    			while (count == 0 && !stopping) {
+    				try {
+    					notEmpty.await(WAIT_MS, TimeUnit.MILLISECONDS);
+    				} catch (InterruptedException e) {
+    					stopping = true;
+    				}
+    			}
+    			if (count == 0 && stopping) {
+    				drained.signalAll();
+    				return;
+    			}
+    		} finally {
+    			lock.unlock();
+    		}
+    		writeBatch();
+    	}
+    }
+
+    /**
+     * Removes all the messages currently in the buffer and writes them to
+     * the Trace file with a single write.
+     *
+     * @return boolean <code>true</code> if anything was written,
+     *                 otherwise <code>false</code>
+     */
+    private boolean writeBatch() {
+    	lock.lock();
+    	try {
+    		if (count == 0) return false;
+
+    		// take everything in the buffer
+    		for (int i = 0; i < count; i++) {
+    			int idx = (head + i) % capacity;
+    			batch.append(msgs[idx]);
+    			if (newLine[idx]) batch.append(lineSep);
+    			msgs[idx] = null;
+    		}
+    		head    = 0;
+    		count   = 0;
+    		writing = true;
+    		notFull.signalAll();
+    	} finally {
+    		lock.unlock();
+    	}
+
+    	// write it outside of the lock, so callers are not held up
+    	boolean ok = fileT.print(batch.toString());
+    	batch.setLength(0);
+
+    	lock.lock();
+    	try {
+    		if (!ok) err = fileT.getErrs();
+    		writing = false;
+    		if (count == 0) drained.signalAll();
+    	} finally {
+    		lock.unlock();
+    	}
+    	return true;
+    }
+
+    //-------------------------------------------------------------------------
+    // Version Routines
+    //-------------------------------------------------------------------------
+    /**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+    	return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = TraceBuffer.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = FIO.getAllVersions(vlist);
+		vlist = Errs.getAllVersions(vlist);
+
+    	return vlist;
+	}
+
+}
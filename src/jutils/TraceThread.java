@@ -4,6 +4,7 @@ import javax.swing.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * The TraceThread class is a simple class that allows "windowed" programs to 
  * write their trace messages to a "window", without changes to the program if it 
@@ -16,9 +17,15 @@ import java.util.LinkedHashMap;
 
 public class TraceThread extends Thread {
 
-    private final static String  version     = "Version 14.70";
+    private final static String  version     = "Version 14.80";
 
-    WindowRpt tWindow;
+    // the window is built and shown on the event thread only; until it is
+    // built, the text written is kept in early
+    private volatile WindowRpt tWindow   = null;
+    private volatile boolean   showing   = false;   // shown, or asked to be
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final Object       windowLock = new Object();
+    private final StringBuilder early    = new StringBuilder();
 
     //JPanel      mainPanel;
     //JScrollPane eScrollPane;
@@ -29,6 +36,10 @@ public class TraceThread extends Thread {
     JFrame		aF;       // passed in Application Frame
     GuiInfo     guiInfo;  // passed in 
 
+    // limits on the text kept in the window, 0 for no limit
+    private volatile int maxLines = 0;
+    private volatile int maxChars = 0;
+
     //----------------------------------------------------------------------------------
     //   TraceWindow Constructors
     //----------------------------------------------------------------------------------
@@ -45,34 +56,73 @@ public class TraceThread extends Thread {
     }
 
     public void run() {
-        buildWindow();
+        requestWindow();
         //debugMsg("Starting Thread based messaging - run");
     }
     
+    /**
+     * Builds the window, on the event thread, and passes it the text 
+     * written so far
+     */
     private void buildWindow() {
         // build an empty trace Window
-        tWindow = new WindowRpt(aF, guiInfo);
-        tWindow.setVisible(true);
+        WindowRpt w = new WindowRpt(aF, guiInfo);
+        w.setMaxLines(maxLines);
+        w.setMaxChars(maxChars);
+        w.setVisible(true);
         // add a window listener for the Trace Window Dialog
         //tWindow.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
         //debugMsg("Starting Thread based messaging - window");
 
-        tWindow.addWindowListener(new WindowAdapter() {
+        w.addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent ev) {
                 //tWindow.dispose();
-                tWindow.setVisible(false);
+                w.setVisible(false);
+                showing = false;
                 //tWindow = null;
                 
             }
         });
+
+        synchronized (windowLock) {
+        	if (early.length() > 0) w.print(early.toString());
+        	early.setLength(0);
+        	tWindow = w;
+        }
     }
 
+    /**
+     * Closes the window, on the event thread; it is shown again when more
+     * text is written
+     */
     public void close() {
-    	if (tWindow != null)
-    		tWindow.dispatchEvent(new WindowEvent(tWindow, 
-    				                              WindowEvent.WINDOW_CLOSING));
+    	WindowRpt w = tWindow;
+    	if (w == null) return;
+    	showing = false;
+    	SwingUtilities.invokeLater(new Runnable() {
+    		public void run() {
+    			w.dispatchEvent(new WindowEvent(w, WindowEvent.WINDOW_CLOSING));
+    		}
+    	});
     }
     
+    /**
+     * Limits the text kept in the trace window, so a window left open 
+     * does not keep growing (see WindowRpt.setMaxLines and setMaxChars)
+     * 
+     * @param lines int value of the most lines kept, 0 for no limit
+     * @param chars int value of the most characters kept, 0 for no limit
+     */
+    public void setScrollback(int lines, int chars) {
+    	maxLines = lines;
+    	maxChars = chars;
+    	WindowRpt w = tWindow;
+    	if (w != null) {
+    		w.setMaxLines(lines);
+    		w.setMaxChars(chars);
+    	}
+    }
+
     //-------------------------------------------------------------------------
     // Writes routine
     //-------------------------------------------------------------------------
@@ -82,8 +132,8 @@ public class TraceThread extends Thread {
      * @param line String line to be written
      */
 	public void print(String line) {
-		checkWindow();
-    	tWindow.print(line);
+		WindowRpt w = checkWindow(line);
+		if (w != null) w.print(line);
     	return;
 	}
 	
@@ -93,8 +143,8 @@ public class TraceThread extends Thread {
      * @param line String line to be written
      */
 	public void println(String line) {
-		checkWindow();
-    	tWindow.println(line);
+		WindowRpt w = checkWindow(line + "\n");
+		if (w != null) w.println(line);
     	return;
 	}
 	
@@ -103,23 +153,55 @@ public class TraceThread extends Thread {
      * 
      */
 	public void moveToBottom() {
-		checkWindow();
-    	tWindow.moveToBottom();
+		WindowRpt w = checkWindow("");
+		if (w != null) w.moveToBottom();
     	return;
 	}
 	
 	/**
-	 * If window isn't there or is hidden, build it or show it
+	 * If window isn't there or is hidden, has it built or shown on the 
+	 * event thread. Text written before the window is built is kept, and
+	 * passed to the window once it is.
 	 * 
+	 * @param text String value of the text to be written
+	 * @return WindowRpt to write the text to, or null if it has been kept
 	 */
-	private void checkWindow() {
-        if (tWindow == null) {
-            buildWindow();
-         }
+	private WindowRpt checkWindow(String text) {
+		WindowRpt w = tWindow;
+        if (w == null) {
+        	synchronized (windowLock) {
+        		w = tWindow;
+        		if (w == null) {
+        			early.append(text);
+        			requestWindow();
+        			return null;
+        		}
+        	}
+        }
 
-        if (!tWindow.isVisible()) {
-        	tWindow.setVisible(true);
+        if (!showing) {
+        	showing = true;
+        	final WindowRpt hidden = w;
+        	SwingUtilities.invokeLater(new Runnable() {
+        		public void run() {
+        			if (!hidden.isVisible()) hidden.setVisible(true);
+        		}
+        	});
         }
+        return w;
+	}
+
+	/**
+	 * Has the window built on the event thread, once
+	 */
+	private void requestWindow() {
+		if (!requested.compareAndSet(false, true)) return;
+		showing = true;
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				buildWindow();
+			}
+		});
 	}
     //-------------------------------------------------------------------------
     // Version Routines
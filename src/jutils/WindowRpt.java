@@ -1,16 +1,45 @@
 package jutils;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.DefaultCaret;
 
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * A simple window that can be opened so that text can be written on it. 
  * Used for displaying "help" messages, "about" messages, and "version 
- * information" in windowed programs.
+ * information" in windowed programs.<p>
+ * print and println may be called from any thread. The text is put on a
+ * queue, and a single task on the Swing event thread appends everything 
+ * queued so far to the window at once: one insert into the text, one 
+ * layout and one move of the caret, however many messages were written.
+ * A burst of trace messages therefore costs one update of the window, not
+ * one per message.<p>
+ * The text kept may be limited to a number of lines or characters (see
+ * setMaxLines and setMaxChars). When an update goes over a limit, the 
+ * oldest lines are removed with a single remove from the text. The start 
+ * of each line is tracked as text is appended (see LineLimits), so finding
+ * where to cut never rescans the text.<p>
+ * For very long output, such as tracing a busy program, the window can be
+ * created as a line view instead (see WindowRpt(JFrame, GuiInfo, boolean)).
+ * The lines are then kept on disk in a LineStore and shown in a JList, 
+ * which only reads and draws the lines that can be seen, so the window 
+ * stays fast however many lines it holds. The line view has a Find field
+ * that searches as it is typed (Enter finds the next match). The search 
+ * runs in the background, and a search still running is abandoned when 
+ * the Find text changes. The limits on the text kept do not apply to it.
+ * If a line cannot be stored, the count of lines lost is shown by the 
+ * Find field and the error is returned by getErrs. The stored lines are 
+ * deleted when the window is closed.
  * 
  */
 
@@ -18,7 +47,7 @@ import java.util.LinkedHashMap;
 @SuppressWarnings("serial")
 public class WindowRpt extends JFrame {
 
-    private final static  String version     = "Version 14.70";
+    private final static  String version     = "Version 14.80";
     // no debugging trace info currently configured
     //private static final String  dFlag       = DebugInfo.DB_WINDOWRPT;
     //private static final String  dPreFix     = "WReport:";
@@ -31,6 +60,35 @@ public class WindowRpt extends JFrame {
     JTextArea	errText;
     int         widthIns              = 500;
 
+    // the line view, used in place of errText (see lineView)
+    private final boolean        lineView;
+    private LineStore            store;
+    private LineModel            model;
+    private JList<String>        lineList;
+    private JTextField           findText;
+    private JLabel               findLabel;
+    private SwingWorker<Integer, Void> finder = null; // EDT only
+    private int                  linesLost   = 0;  // not stored, EDT only
+    private volatile Errs        storeErr    = new Errs();
+    private final StringBuilder  partial     = new StringBuilder(); // EDT only
+    private int                  lineWidth   = 0;  // widest line, in pixels
+
+    // text written but not yet shown, and if a task to show it is queued
+    private final ConcurrentLinkedQueue<String> pending =
+    		                                 new ConcurrentLinkedQueue<String>();
+    private final AtomicBoolean  flushQueued = new AtomicBoolean(false);
+    private final StringBuilder  batch       = new StringBuilder(); // EDT only
+    private final Runnable       flusher     = new Runnable() {
+    	public void run() { flush(); }
+    };
+
+    // limits on the text kept, 0 for no limit
+    private volatile int         maxLines    = 0;
+    private volatile int         maxChars    = 0;
+
+    // start of each line kept. Used on the event thread only
+    private final LineLimits     limits      = new LineLimits();
+
     //----------------------------------------------------------------------------------
     //   WindowRpt Constructors
     //----------------------------------------------------------------------------------
@@ -41,6 +99,19 @@ public class WindowRpt extends JFrame {
      * @param guiInfo  Instantiated GuiInfo class of the AppFrame 
      */
     public WindowRpt(JFrame AppFrame, GuiInfo guiInfo) {
+    	this(AppFrame, guiInfo, false);
+    }
+
+    /**
+     * Create and display a Report Window, either as text or as a line view.
+     * The line view keeps its lines on disk and only draws those in sight,
+     * for output too long to be held as text (see the class description).
+     * 
+     * @param AppFrame JFrame class of the Parent JFrame this window is attached to
+     * @param guiInfo  Instantiated GuiInfo class of the AppFrame 
+     * @param lines boolean <code>true</code> for the line view
+     */
+    public WindowRpt(JFrame AppFrame, GuiInfo guiInfo, boolean lines) {
 
     		//GuiInfo guiInfo, int windowNum, 
         super(guiInfo.getWindowTitle() + " Stats");
@@ -48,6 +119,7 @@ public class WindowRpt extends JFrame {
             this.setTitle(this.getTitle() + 
             		       "    -    (" + guiInfo.getNumWindows() + ")");
         }
+        lineView = lines;
         
         // set up the error field
         errText = new JTextArea();
@@ -70,7 +142,7 @@ public class WindowRpt extends JFrame {
         // set up the scrollPane
         eScrollPane = new JScrollPane();
         eScrollPane.setLayout(new ScrollPaneLayout());
-        eScrollPane.setViewportView(errText);
+        eScrollPane.setViewportView(lineView ? buildLineList() : errText);
         if (MULTICOLORED) {
             eScrollPane.setOpaque(true);
             eScrollPane.setBackground(new Color(255, 0, 0));
@@ -83,12 +155,27 @@ public class WindowRpt extends JFrame {
         mainPanel.setLayout(new BorderLayout()); //!! added
 
         mainPanel.add(eScrollPane); //, BorderLayout.CENTER);
+        if (lineView)
+        	mainPanel.add(buildFindPanel(), BorderLayout.NORTH);
 
         //this.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
         this.addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent ev) {
                 //this.dispose();
-                errText.setText("");
+                // closed by TraceThread.close on any thread; the text is 
+                // only changed on the event thread, the same as by flush
+                onEventThread(new Runnable() {
+                	public void run() {
+                		pending.clear();
+                		errText.setText("");
+                		limits.reset();
+                		if (lineView) clearLineList();
+                	}
+                });
+            }
+            public void windowClosed(WindowEvent ev) {
+                // disposed, the stored lines are no longer needed
+                if (lineView) clearLineList();
             }
         });
 
@@ -108,39 +195,344 @@ public class WindowRpt extends JFrame {
     }
 
     /**
-     * Display a message in the trace window
+     * Returns the error of the last line the line view could not store
+     * 
+     * @return Errs class containing the error, an ETYPE_NONE Errs if every
+     *                 line was stored
+     */
+    public Errs getErrs() {
+        return new Errs(storeErr);
+    }
+
+    /**
+     * Display a message in the trace window. May be called from any thread;
+     * the message is shown with any others written before the window is 
+     * next updated.
      * 
      * @param msg String to display 
      */
     public void println(String msg){
-        errText.append(msg);
-        errText.append("\n");
-        this.revalidate();
-        
+        pending.add(msg + "\n");
+        queueFlush();
     }
 
     /**
-     * Display a string in the trace window
+     * Display a string in the trace window. May be called from any thread;
+     * the string is shown with any others written before the window is 
+     * next updated.
      * 
      * @param msg String to display 
      */
     public void print(String msg){
-        errText.append(msg);
-        this.repaint();
-        
+        pending.add(msg);
+        queueFlush();
     }
 
 	/**
-	 * Moves the view of the window to the last line in the window
+	 * Moves the view of the window to the last line in the window, after
+	 * showing any text still queued
      * 
      */
 	public void moveToBottom() {
-		errText.setCaretPosition(errText.getDocument().getLength());
-		this.setExtendedState(JFrame.ICONIFIED);
-		this.setExtendedState(JFrame.NORMAL);
+		onEventThread(new Runnable() {
+			public void run() {
+				flush();
+				if (lineView)
+					showLastLine();
+				else
+					errText.setCaretPosition(errText.getDocument().getLength());
+				setExtendedState(JFrame.ICONIFIED);
+				setExtendedState(JFrame.NORMAL);
+			}
+		});
     	return;
 	}
 
+    /**
+     * Sets the most lines kept in the window; the oldest lines are removed
+     * when there are more. Applies from the next update of the window.
+     * 
+     * @param lines int value of the most lines kept, 0 for no limit
+     */
+    public void setMaxLines(int lines) {
+    	maxLines = Math.max(0, lines);
+    	queueFlush();
+    }
+
+    /**
+     * Sets the most characters kept in the window; the oldest lines are 
+     * removed when there are more. Applies from the next update of the 
+     * window.
+     * 
+     * @param chars int value of the most characters kept, 0 for no limit
+     */
+    public void setMaxChars(int chars) {
+    	maxChars = Math.max(0, chars);
+    	queueFlush();
+    }
+
+    //-------------------------------------------------------------------------
+    // Updating the window
+    //-------------------------------------------------------------------------
+	/**
+	 * Queues a task to show the pending text, unless one is already queued
+	 */
+	private void queueFlush() {
+		if (flushQueued.compareAndSet(false, true))
+			SwingUtilities.invokeLater(flusher);
+	}
+
+	/**
+	 * Shows all of the pending text, with a single append to the text area
+	 * (which also moves the caret, see ALWAYS_UPDATE) and a single layout.
+	 * Runs on the event thread only.
+	 */
+	private void flush() {
+		// cleared first, so text queued from here on gets another task
+		flushQueued.set(false);
+
+		String s;
+		while ((s = pending.poll()) != null)
+			batch.append(s);
+
+		boolean changed = batch.length() > 0;
+		if (lineView) {
+			if (changed) addToLineList(batch);
+			batch.setLength(0);
+			return;
+		}
+		if (changed) {
+			errText.append(batch.toString());
+			limits.add(batch);
+			batch.setLength(0);
+		}
+		if (trim() || changed)
+			this.revalidate();
+	}
+
+	/**
+	 * Removes the oldest lines over the limits, with a single remove from 
+	 * the text
+	 * 
+	 * @return boolean <code>true</code> if any text was removed
+	 */
+	private boolean trim() {
+		int cut = limits.trim(maxLines, maxChars);
+		if (cut == 0) return false;
+		errText.replaceRange(null, 0, cut);
+		return true;
+	}
+
+	/**
+	 * Runs a task on the event thread: now, if called on it, otherwise
+	 * later
+	 * 
+	 * @param task Runnable to be run
+	 */
+	private static void onEventThread(Runnable task) {
+		if (SwingUtilities.isEventDispatchThread())
+			task.run();
+		else
+			SwingUtilities.invokeLater(task);
+	}
+
+    //-------------------------------------------------------------------------
+    // The line view
+    //-------------------------------------------------------------------------
+	/**
+	 * The lines of the line view: those in the store, then the last line
+	 * while it is still being written (print with no new line)
+	 */
+	private final class LineModel extends AbstractListModel<String> {
+		public int getSize() {
+			return store.size() + (partial.length() > 0 ? 1 : 0);
+		}
+
+		public String getElementAt(int i) {
+			return (i < store.size()) ? store.get(i) : partial.toString();
+		}
+
+		void added(int oldSize) {
+			int size = getSize();
+			if (oldSize > 0)
+				fireContentsChanged(this, oldSize - 1, oldSize - 1);
+			if (size > oldSize)
+				fireIntervalAdded(this, oldSize, size - 1);
+		}
+
+		void removed(int oldSize) {
+			if (oldSize > 0)
+				fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+	}
+
+	/**
+	 * Builds the list of the line view. Every row has the same height and
+	 * width, so the list never measures the lines it is not drawing.
+	 * 
+	 * @return JList of the lines
+	 */
+	private JList<String> buildLineList() {
+		store    = new LineStore();
+		model    = new LineModel();
+		lineList = new JList<String>(model);
+		lineList.setFont(errText.getFont());
+		lineList.setBackground(this.getBackground());
+		lineList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		FontMetrics fm = lineList.getFontMetrics(lineList.getFont());
+		lineList.setFixedCellHeight(fm.getHeight());
+		lineWidth = widthIns;
+		lineList.setFixedCellWidth(lineWidth);
+		return lineList;
+	}
+
+	/**
+	 * Builds the Find field of the line view, which searches as it is 
+	 * typed, from the selected line; Enter finds the next match
+	 * 
+	 * @return JPanel holding the Find field
+	 */
+	private JPanel buildFindPanel() {
+		findText = new JTextField();
+		findText.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent e)  { find(false); }
+			public void removeUpdate(DocumentEvent e)  { find(false); }
+			public void changedUpdate(DocumentEvent e) { }
+		});
+		findText.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) { find(true); }
+		});
+
+		JPanel findPanel = new JPanel(new BorderLayout());
+		findLabel = new JLabel("  Find:  ");
+		findPanel.add(findLabel, BorderLayout.WEST);
+		findPanel.add(findText);
+		return findPanel;
+	}
+
+	/**
+	 * Selects the next line holding the Find text, starting at the 
+	 * selected line, or the one after it, and going round to the first
+	 * line if needed. The lines are searched in the background; a search
+	 * still running is cancelled first, so only the latest text is found.
+	 * 
+	 * @param next boolean <code>true</code> to start after the selected line
+	 */
+	private void find(boolean next) {
+		cancelFind();
+		final String text = findText.getText();
+		if (text.isEmpty()) return;
+
+		int from = Math.max(0, lineList.getSelectedIndex());
+		if (next) from++;
+		final int start = from;
+		finder = new SwingWorker<Integer, Void>() {
+			protected Integer doInBackground() {
+				int found = store.find(text, start, true, true);
+				if (found < 0 && start > 0 && !isCancelled())
+					found = store.find(text, 0, true, true);
+				return found;
+			}
+
+			protected void done() {
+				if (finder != this || isCancelled()) return;
+				finder = null;
+				int found;
+				try {
+					found = get();
+				} catch (InterruptedException | ExecutionException e) {
+					return;
+				}
+				if (found < 0) {
+					lineList.clearSelection();
+					return;
+				}
+				lineList.setSelectedIndex(found);
+				lineList.ensureIndexIsVisible(found);
+			}
+		};
+		finder.execute();
+	}
+
+	/**
+	 * Cancels the search running in the background, if any
+	 */
+	private void cancelFind() {
+		if (finder != null) finder.cancel(true);
+		finder = null;
+	}
+
+	/**
+	 * Adds text to the line view, storing each line it completes, and 
+	 * follows the last line unless a search is in use
+	 * 
+	 * @param text CharSequence to be added
+	 */
+	private void addToLineList(CharSequence text) {
+		int         oldSize = model.getSize();
+		FontMetrics fm      = lineList.getFontMetrics(lineList.getFont());
+		int         widest  = lineWidth;
+
+		int n     = text.length();
+		int start = 0;
+		for (int i = 0; i <= n; i++) {
+			if (i < n && text.charAt(i) != '\n') continue;
+			partial.append(text, start, i);
+			if (i < n) {
+				String line = partial.toString();
+				if (store.add(line))
+					widest = Math.max(widest, fm.stringWidth(line));
+				else
+					lineLost();
+				partial.setLength(0);
+			}
+			start = i + 1;
+		}
+
+		if (widest > lineWidth) {
+			lineWidth = widest;
+			lineList.setFixedCellWidth(lineWidth);
+		}
+		model.added(oldSize);
+		if (findText.getText().isEmpty())
+			showLastLine();
+	}
+
+	/**
+	 * Counts a line the store could not keep, showing the count by the 
+	 * Find field
+	 */
+	private void lineLost() {
+		storeErr = store.getErrs();
+		linesLost++;
+		findLabel.setText("  " + linesLost + " lines lost  -  Find:  ");
+	}
+
+	private void showLastLine() {
+		int size = model.getSize();
+		if (size > 0) lineList.ensureIndexIsVisible(size - 1);
+	}
+
+	/**
+	 * Empties the line view, deleting the store's file; a new one is 
+	 * created if more lines are written. Done on the event thread, as the
+	 * search, the model and the label are only used there.
+	 */
+	private void clearLineList() {
+		onEventThread(new Runnable() {
+			public void run() {
+				cancelFind();
+				int oldSize = model.getSize();
+				store.close();
+				partial.setLength(0);
+				model.removed(oldSize);
+				linesLost = 0;
+				storeErr  = new Errs();
+				findLabel.setText("  Find:  ");
+			}
+		});
+	}
+
     //-------------------------------------------------------------------------
     // Version Routines
     //-------------------------------------------------------------------------
@@ -174,6 +566,8 @@ public class WindowRpt extends JFrame {
 		vlist.put(v, getVersion());
 
     	vlist = GuiInfo.getAllVersions(vlist);
+    	vlist = LineStore.getAllVersions(vlist);
+    	vlist = LineLimits.getAllVersions(vlist);
 
     	return vlist;
 }
@@ -0,0 +1,400 @@
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jutils.ArgConfig;
+import jutils.ArgSchema;
+import jutils.ArgValues;
+import jutils.Args;
+import jutils.Errs;
+import jutils.LiveArgs;
+import jutils.Trace;
+
+/**
+ * The ArgConfig_Test class tests filling arguments from a configuration
+ * file and the environment as well as the command line:  ArgConfig,
+ * ArgSchema and LiveArgs.
+ */
+public class ArgConfig_Test {
+	protected final static String    version      = "Version 14.80";
+
+	//Test Arguments
+    static public final String ARG_BOOL      = "-b";    // Boolean Argument
+    static public final String ARG_STRING    = "-s";    // String Argument
+    static public final String ARG_LONG      = "-n";    // Long Argument
+    static public final String ARG_FLOAT     = "-f";    // Float Argument
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+	private   int     errFlag      = Errs.ETYPE_ERROR;
+	private   int     warnFlag     = Errs.ETYPE_WARN;
+
+	// configuration file used by the tests
+	private   File    cfgFile      = null;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for ArgConfig_Test, class for testing the configuration
+	 * file and environment argument sources
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public ArgConfig_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       ArgConfig Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  ArgConfig_Test: " + getVersion());
+		TR.printMsgln("  ArgConfig:      " + ArgConfig.getVersion());
+		TR.printMsgln("  ArgSchema:      " + ArgSchema.getVersion());
+		TR.printMsgln("  LiveArgs:       " + LiveArgs.getVersion());
+		TR.printMsgln(" ");
+
+		try {
+			cfgFile = File.createTempFile("argconfig", ".cfg");
+		} catch (IOException e) {
+			assert false : "\nUnable to create the configuration file:  " + e;
+		}
+
+		// the command line wins, and is the only value converted
+		precedenceTests();
+
+		// arguments are given in any case
+		caseTests();
+
+		// a missing configuration file is only a warning
+		missingFileTests();
+
+		// reloading the configuration file
+		liveTests();
+
+		cfgFile.delete();
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       ArgConfig Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Precedence of the sources
+    //-------------------------------------------------------------------------
+    private void precedenceTests() {
+    	TR.printMsgln("Source Precedence Testing");
+    	Args      args   = newArgs();
+    	ArgConfig config = new ArgConfig(cfgFile.getPath(), "ACT_", TTR);
+    	Map<String, String> env = new HashMap<String, String>();
+    	config.setEnvironment(env);
+    	boolean   retVal;
+
+    	// a String on the command line replaces the file's number
+    	TR.printMsg("  File number, command line String:");
+    	writeConfig("-s = 123", "-n = xyz", "-f = 1.5");
+    	retVal = args.parseArgs(config, new String[]{"-s", "abc",
+    			                                     "-n", "5"});
+    	assert retVal : "\nExpected Return:  true    Actual:  " + retVal +
+    	                "\n" + args.getErrs().eMessage;
+    	assert "abc".equals(args.getS(ARG_STRING)) :
+    		"\nExpected:  abc    Actual:  " + args.getS(ARG_STRING);
+    	assert args.getL(ARG_STRING) == null :
+    		"\nExpected:  null    Actual:  " + args.getL(ARG_STRING);
+    	assert args.getL(ARG_LONG) == 5L :
+    		"\nExpected:  5    Actual:  " + args.getL(ARG_LONG);
+    	assert args.getF(ARG_FLOAT) == 1.5F :
+    		"\nExpected:  1.5    Actual:  " + args.getF(ARG_FLOAT);
+    	TR.printMsgln("  - Results as expected");
+
+    	// the same with the compiled schema
+    	TR.printMsg("  Compiled schema:");
+    	ArgSchema schema = args.compile();
+    	ArgValues values = schema.parse(config, new String[]{"-s", "abc",
+                                                             "-n", "5"});
+    	assert values.isValid() : "\n" + values.getErrs().eMessage;
+    	assert "abc".equals(values.getS(ARG_STRING)) :
+    		"\nExpected:  abc    Actual:  " + values.getS(ARG_STRING);
+    	assert !values.hasL(ARG_STRING) :
+    		"\nExpected no Long value for " + ARG_STRING;
+    	assert values.getL(ARG_LONG, 0L) == 5L :
+    		"\nExpected:  5    Actual:  " + values.getL(ARG_LONG, 0L);
+    	TR.printMsgln("  - Results as expected");
+
+    	// the environment wins over the file, the command line over both
+    	TR.printMsg("  Environment:");
+    	env.put("ACT_N", "7");
+    	env.put("ACT_S", "env");
+    	retVal = args.parseArgs(config, new String[]{"-s", "cl"});
+    	assert retVal : "\n" + args.getErrs().eMessage;
+    	assert args.getL(ARG_LONG) == 7L :
+    		"\nExpected:  7    Actual:  " + args.getL(ARG_LONG);
+    	assert "cl".equals(args.getS(ARG_STRING)) :
+    		"\nExpected:  cl    Actual:  " + args.getS(ARG_STRING);
+    	env.clear();
+    	TR.printMsgln("  - Results as expected");
+
+    	// a bad value that wins is still an error
+    	TR.printMsg("  Bad winning value:");
+    	writeConfig("-n = 5");
+    	retVal = args.parseArgs(config, new String[]{"-n", "xyz"});
+    	assert !retVal : "\nExpected Return:  false    Actual:  " + retVal;
+    	err = args.getErrs();
+    	assert err.eType == errFlag && err.eNbr == 10001 :
+    		"\nExpected Error:  10001    Actual:  " + err.eNbr;
+    	TR.printMsgln("  - Results as expected");
+
+    	// repeating an argument on the command line keeps nothing from the
+    	// earlier value
+    	TR.printMsg("  Repeated argument:");
+    	args = newArgs();
+    	retVal = args.parseArgs(new String[]{"-s", "123", "-s", "abc"});
+    	assert retVal : "\n" + args.getErrs().eMessage;
+    	assert args.getL(ARG_STRING) == null :
+    		"\nExpected:  null    Actual:  " + args.getL(ARG_STRING);
+    	retVal = args.parseArgs(new String[]{"-s", "abc"});
+    	assert args.getL(ARG_STRING) == null :
+    		"\nExpected:  null    Actual:  " + args.getL(ARG_STRING);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Case of the arguments given
+    //-------------------------------------------------------------------------
+    private void caseTests() {
+    	TR.printMsgln("Argument Case Testing");
+    	ArgSchema schema = newArgs().compile();
+
+    	TR.printMsg("  Upper case arguments:");
+    	ArgValues values = schema.parse(new String[]{"-N", "5", "-S", "x",
+    			                                     "-B"});
+    	assert values.isValid() : "\n" + values.getErrs().eMessage;
+    	assert values.getL(ARG_LONG, 0L) == 5L :
+    		"\nExpected:  5    Actual:  " + values.getL(ARG_LONG, 0L);
+    	assert "x".equals(values.getS(ARG_STRING)) :
+    		"\nExpected:  x    Actual:  " + values.getS(ARG_STRING);
+    	assert values.getB(ARG_BOOL, false) :
+    		"\nExpected:  true    Actual:  false";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Upper case value that is an argument:");
+    	values = schema.parse(new String[]{"-s", "-N", "5"});
+    	err = values.getErrs();
+    	assert err.eType == errFlag && err.eNbr == 10001 :
+    		"\nExpected Error:  10001    Actual:  " + err.eNbr;
+    	assert values.getL(ARG_LONG, 0L) == 5L :
+    		"\nExpected:  5    Actual:  " + values.getL(ARG_LONG, 0L);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Missing configuration file
+    //-------------------------------------------------------------------------
+    private void missingFileTests() {
+    	TR.printMsgln("Missing File Testing");
+    	String    missing = cfgFile.getPath() + ".missing";
+    	Args      args    = newArgs();
+    	ArgConfig config  = new ArgConfig(missing, null, TTR);
+
+    	TR.printMsg("  Args:");
+    	boolean retVal = args.parseArgs(config, new String[]{"-n", "5"});
+    	assert retVal : "\nExpected Return:  true    Actual:  " + retVal;
+    	err = args.getErrs();
+    	assert err.eType == warnFlag && err.eNbr == 9172 :
+    		"\nExpected Warning:  9172    Actual:  " + err.eNbr;
+    	assert args.getL(ARG_LONG) == 5L :
+    		"\nExpected:  5    Actual:  " + args.getL(ARG_LONG);
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  ArgSchema:");
+    	ArgValues values = args.compile().parse(config, new String[]{"-n","5"});
+    	assert values.isValid() : "\n" + values.getErrs().eMessage;
+    	err = values.getErrs();
+    	assert err.eType == warnFlag && err.eNbr == 9172 :
+    		"\nExpected Warning:  9172    Actual:  " + err.eNbr;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // LiveArgs reloading
+    //-------------------------------------------------------------------------
+    private void liveTests() {
+    	TR.printMsgln("Live Arguments Testing");
+    	Args      args    = newArgs();
+    	args.setReloadable(ARG_LONG, true);
+    	ArgConfig config  = new ArgConfig(cfgFile.getPath(), null, TTR);
+    	writeConfig("-n = 5", "-s = fixed");
+    	LiveArgs  live    = new LiveArgs(args.compile(), config, null, TTR);
+    	assert live.values().getL(ARG_LONG, 0L) == 5L :
+    		"\nExpected:  5    Actual:  " + live.values().getL(ARG_LONG, 0L);
+    	List<Long> heard = new ArrayList<Long>();
+    	live.addListener(new LiveArgs.Listener() {
+    		public void argsChanged(List<String> changed, ArgValues values) {
+    			heard.add(values.getL(ARG_LONG, 0L));
+    		}
+    	});
+
+    	// a reloadable argument changes
+    	TR.printMsg("  Reloadable change:");
+    	writeConfig("-n = 6", "-s = fixed");
+    	List<String> changed = live.reload();
+    	assert changed != null && changed.size() == 1 &&
+    		   changed.get(0).equals(ARG_LONG) : "\nChanged:  " + changed;
+    	assert live.values().getL(ARG_LONG, 0L) == 6L :
+    		"\nExpected:  6    Actual:  " + live.values().getL(ARG_LONG, 0L);
+    	assert heard.size() == 1 && heard.get(0) == 6L :
+    		"\nListener heard:  " + heard;
+    	TR.printMsgln("  - Results as expected");
+
+    	// reloads from several threads are heard in the order swapped in
+    	TR.printMsg("  Concurrent reloads:");
+    	heard.clear();
+    	Thread[] t = new Thread[4];
+    	for (int i = 0; i < t.length; i++) {
+    		final long n = 10 + i;
+    		t[i] = new Thread(new Runnable() {
+    			public void run() {
+    				synchronized (cfgFile) { writeConfig("-n = " + n,
+    						                             "-s = fixed"); }
+    				live.reload();
+    			}
+    		});
+    		t[i].start();
+    	}
+    	for (Thread th : t) {
+    		try { th.join(); } catch (InterruptedException e) { }
+    	}
+    	assert !heard.isEmpty() &&
+    		   heard.get(heard.size() - 1) == live.values().getL(ARG_LONG, 0L) :
+    		"\nListener heard:  " + heard + "    current:  " +
+    		live.values().getL(ARG_LONG, 0L);
+    	writeConfig("-n = 6", "-s = fixed");
+    	live.reload();
+    	TR.printMsgln("  - Results as expected");
+
+    	// a fixed argument keeps its value
+    	TR.printMsg("  Fixed change:");
+    	writeConfig("-n = 6", "-s = other");
+    	changed = live.reload();
+    	assert changed != null && changed.isEmpty() : "\nChanged:  " + changed;
+    	assert "fixed".equals(live.values().getS(ARG_STRING)) :
+    		"\nExpected:  fixed    Actual:  " + live.values().getS(ARG_STRING);
+    	err = live.getErrs();
+    	assert err.eType == warnFlag && err.eNbr == 9184 :
+    		"\nExpected Warning:  9184    Actual:  " + err.eNbr;
+    	TR.printMsgln("  - Results as expected");
+
+    	// a bad value keeps the old values
+    	TR.printMsg("  Bad value:");
+    	writeConfig("-n = xyz", "-s = fixed");
+    	changed = live.reload();
+    	assert changed == null : "\nChanged:  " + changed;
+    	assert live.values().getL(ARG_LONG, 0L) == 6L :
+    		"\nExpected:  6    Actual:  " + live.values().getL(ARG_LONG, 0L);
+    	err = live.getErrs();
+    	assert err.eType == errFlag && err.eNbr == 9182 :
+    		"\nExpected Error:  9182    Actual:  " + err.eNbr;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    /**
+     * Returns an Args with the test arguments defined
+     */
+    private Args newArgs() {
+    	Args args = new Args(TTR);
+    	args.defineArg(ARG_BOOL,   "Bool",   Args.AT_BOOLEAN, true);
+    	args.defineArg(ARG_STRING, "String", Args.AT_STRING);
+    	args.defineArg(ARG_LONG,   "Long",   Args.AT_LONG);
+    	args.defineArg(ARG_FLOAT,  "Float",  Args.AT_FLOAT);
+    	err = args.getErrs();
+    	assert err.eType == noEFlag : "\n" + err.eMessage;
+    	return args;
+    }
+
+    /**
+     * Replaces the configuration file, making sure its modified time or
+     * size changes so it is read again
+     */
+    private void writeConfig(String... lines) {
+    	long before = cfgFile.lastModified();
+    	try (FileWriter w = new FileWriter(cfgFile)) {
+    		for (String line : lines) w.write(line + "\n");
+    	} catch (IOException e) {
+    		assert false : "\nUnable to write the configuration file:  " + e;
+    	}
+    	cfgFile.setLastModified(Math.max(before + 2000,
+    			                         System.currentTimeMillis()));
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = ArgConfig_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = LiveArgs.getAllVersions(vlist);
+		vlist = Args.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
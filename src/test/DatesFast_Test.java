@@ -0,0 +1,257 @@
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+
+import jutils.Dates;
+import jutils.ErrorCollector;
+import jutils.Errs;
+import jutils.Trace;
+
+/**
+ * The DatesFast_Test class tests the epoch day and bulk array routines of
+ * Dates. Unlike Dates_Test, none of them depend on the time zone, so the
+ * results are checked against java.time.LocalDate.
+ */
+public class DatesFast_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+	private   int     errFlag      = Errs.ETYPE_ERROR;
+	private   int     warnFlag     = Errs.ETYPE_WARN;
+
+	// Class to be tested
+	private Dates    dates;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for DatesFast_Test, class for testing the epoch day and
+	 * bulk routines of Dates.java
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public DatesFast_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Dates Fast Path Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  DatesFast_Test: " + getVersion());
+		TR.printMsgln("  Dates:          " + Dates.getVersion());
+		TR.printMsgln(" ");
+
+		dates = new Dates(TTR);
+
+		// parsing a single date
+		parseTests();
+
+		// converting arrays of dates
+		bulkTests();
+
+		// adding months
+		monthTests();
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Dates Fast Path Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Single dates
+    //-------------------------------------------------------------------------
+    private void parseTests() {
+    	TR.printMsgln("Epoch Day Parsing Testing");
+
+    	// every day of a few leap and non leap years
+    	TR.printMsg("  Against LocalDate:");
+    	LocalDate d   = LocalDate.of(1899, 12, 1);
+    	LocalDate end = LocalDate.of(2101, 3, 1);
+    	for (; d.isBefore(end); d = d.plusDays(1)) {
+    		String s = d.toString();
+    		long day = Dates.parseEpochDay(s, true);
+    		assert day == d.toEpochDay() :
+    			"\nDate:  " + s + "  Expected:  " + d.toEpochDay() +
+    			"  Actual:  " + day;
+    		int ymd = Dates.toYyyymmdd(day);
+    		assert ymd == d.getYear() * 10000 + d.getMonthValue() * 100 +
+    			          d.getDayOfMonth() :
+    			"\nDate:  " + s + "  yyyymmdd:  " + ymd;
+    	}
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Strict and rolled over:");
+    	assert Dates.parseEpochDay("2015-02-29", true) == Dates.INVALID_DAY :
+    		"\nExpected 2015-02-29 to be invalid when strict";
+    	assert Dates.parseEpochDay("2015-12-32", false) ==
+    		   LocalDate.of(2016, 1, 1).toEpochDay() :
+    		"\nExpected 2015-12-32 to roll over to 2016-01-01";
+    	assert Dates.parseEpochDay("2016-02-29", true) ==
+    		   LocalDate.of(2016, 2, 29).toEpochDay() :
+    		"\nExpected 2016-02-29 to be valid";
+    	assert Dates.parseEpochDay("2015-1-01", false) == Dates.INVALID_DAY &&
+    		   Dates.parseEpochDay("2015/01/01", false) == Dates.INVALID_DAY &&
+    		   Dates.parseEpochDay("2015-0a-01", false) == Dates.INVALID_DAY &&
+    		   Dates.parseEpochDay(null, false) == Dates.INVALID_DAY :
+    		"\nExpected badly formed dates to be invalid";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Errors:");
+    	long day = dates.epochDayFromString("", true);
+    	TestErrs.check(day == Dates.INVALID_DAY,
+    	               dates.getErrs(), errFlag, 9800);
+    	day = dates.epochDayFromString("2015/01/01", true);
+    	TestErrs.check(day == Dates.INVALID_DAY,
+    	               dates.getErrs(), errFlag, 9810);
+    	day = dates.epochDayFromString("2015-13-01", true);
+    	TestErrs.check(day == Dates.INVALID_DAY,
+    	               dates.getErrs(), errFlag, 9825);
+    	day = dates.epochDayFromString("2015-01-01", true);
+    	TestErrs.check(day == LocalDate.of(2015, 1, 1).toEpochDay(),
+    	               dates.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Arrays of dates
+    //-------------------------------------------------------------------------
+    private void bulkTests() {
+    	TR.printMsgln("Bulk Conversion Testing");
+    	String[] in = {"2015-04-01", "bad", "2016-02-29", "2015-02-29", null};
+
+    	TR.printMsg("  Epoch days:");
+    	BitSet         bad    = new BitSet();
+    	ErrorCollector errors = new ErrorCollector();
+    	long[] days = dates.epochDaysFromStrings(in, true, bad, errors);
+    	TestErrs.check(days.length == in.length,
+    	               dates.getErrs(), warnFlag, 9880);
+    	assert days[0] == LocalDate.of(2015, 4, 1).toEpochDay() &&
+    		   days[2] == LocalDate.of(2016, 2, 29).toEpochDay() :
+    		"\nWrong epoch days";
+    	assert days[1] == Dates.INVALID_DAY && days[3] == Dates.INVALID_DAY &&
+    		   days[4] == Dates.INVALID_DAY : "\nExpected INVALID_DAY";
+    	assert bad.toString().equals("{1, 3, 4}") : "\nBad:  " + bad;
+    	assert errors.total() == 3 && errors.code(0) == 9882 &&
+    		   errors.index(1) == 3 &&
+    		   errors.message(0).equals("Invalid date at 1:  bad") :
+    		"\nErrors:  " + errors;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  yyyymmdd:");
+    	bad.clear();
+    	int[] ymd = dates.yyyymmddFromStrings(in, false, bad);
+    	TestErrs.check(ymd.length == in.length,
+    	               dates.getErrs(), warnFlag, 9880);
+    	assert ymd[0] == 20150401 && ymd[2] == 20160229 &&
+    		   ymd[3] == 20150301 && ymd[1] == 0 : "\nWrong yyyymmdd values";
+    	assert bad.toString().equals("{1, 4}") : "\nBad:  " + bad;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  All valid:");
+    	ymd = dates.yyyymmddFromStrings(new String[]{"2000-01-01"}, true, null);
+    	TestErrs.check(ymd[0] == 20000101, dates.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Adding months
+    //-------------------------------------------------------------------------
+    private void monthTests() {
+    	TR.printMsgln("Add Months Testing");
+
+    	TR.printMsg("  Against LocalDate:");
+    	LocalDate d = LocalDate.of(1999, 1, 28);
+    	for (int i = 0; i < 800; i++, d = d.plusDays(1)) {
+    		for (int m = -25; m <= 25; m += 5) {
+    			long day = Dates.addMonthsToDay(d.toEpochDay(), m);
+    			assert day == d.plusMonths(m).toEpochDay() :
+    				"\nDate:  " + d + " + " + m + "  Expected:  " +
+    				d.plusMonths(m) + "  Actual:  " +
+    				LocalDate.ofEpochDay(day);
+    		}
+    	}
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Arrays:");
+    	long[] days = {LocalDate.of(2016, 1, 31).toEpochDay(),
+    			       Dates.INVALID_DAY};
+    	long[] out  = dates.addMonths(days, 1);
+    	assert out[0] == LocalDate.of(2016, 2, 29).toEpochDay() &&
+    		   out[1] == Dates.INVALID_DAY : "\nWrong epoch days";
+    	BitSet bad = new BitSet();
+    	int[] ymd = dates.addMonths(new int[]{20150131, 20151301, 20151231},
+    			                    -2, bad);
+    	TestErrs.check(ymd[0] == 20141130 && ymd[2] == 20151031 && ymd[1] == 0,
+    	               dates.getErrs(), warnFlag, 9880);
+    	assert bad.toString().equals("{1}") : "\nBad:  " + bad;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = DatesFast_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = Dates.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
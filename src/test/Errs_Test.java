@@ -0,0 +1,254 @@
+
+import java.util.LinkedHashMap;
+
+import jutils.Args;
+import jutils.ErrorCollector;
+import jutils.Errs;
+import jutils.FIO;
+import jutils.Trace;
+
+/**
+ * The Errs_Test class tests the error classes:  Errs and ErrorCollector.
+ */
+public class Errs_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+	private   int     errFlag      = Errs.ETYPE_ERROR;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for Errs_Test, class for testing the error classes
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public Errs_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Errs Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  Errs_Test:      " + getVersion());
+		TR.printMsgln("  Errs:           " + Errs.getVersion());
+		TR.printMsgln("  ErrorCollector: " + ErrorCollector.getVersion());
+		TR.printMsgln(" ");
+
+		// the stack trace of a cause
+		causeTests();
+
+		// collecting a batch of errors
+		collectorTests();
+
+		// more errors than are kept
+		capTests();
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Errs Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Errs cause and stack trace
+    //-------------------------------------------------------------------------
+    private void causeTests() {
+    	TR.printMsgln("Errs Cause Testing");
+    	Exception cause = new IllegalStateException("test cause");
+
+    	TR.printMsg("  Kept cause:");
+    	Errs e = new Errs();
+    	e.eStackTrace = "old";
+    	e.setCause(cause);
+    	assert e.getCause() == cause : "\nExpected the cause to be kept";
+    	assert e.eStackTrace.isEmpty() :
+    		"\nExpected no text before stackTrace():  " + e.eStackTrace;
+    	String text = e.stackTrace();
+    	assert text.startsWith("Error msg:  " + cause) &&
+    		   text.contains("IllegalStateException") :
+    		"\nActual:  " + text;
+    	assert e.eStackTrace.equals(text) : "\nExpected the text to be saved";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Copies:");
+    	e = new Errs();
+    	e.setCause(cause);
+    	Errs c = new Errs(e);      // as getErrs() returns them
+    	assert c.eStackTrace.startsWith("Error msg:  " + cause) :
+    		"\nExpected the copy to have the text:  " + c.eStackTrace;
+    	assert e.eStackTrace.isEmpty() :
+    		"\nExpected the original to be left alone";
+    	Errs r = new Errs().copy(e);
+    	assert r.getCause() == cause && r.eStackTrace.isEmpty() :
+    		"\nExpected copy() to keep the cause only";
+    	r.initErrs();
+    	assert r.getCause() == null && r.eNbr == 0 &&
+    		   r.eType == noEFlag : "\nExpected initErrs() to clear it";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  FIO error:");
+    	FIO fio = new FIO(TTR);
+    	boolean retVal = fio.open("/no/such/dir/errs_test.txt", FIO.FIO_READ);
+    	assert !retVal : "\nExpected Return:  false    Actual:  " + retVal;
+    	err = fio.getErrs();
+    	assert err.eType == errFlag && err.eNbr == 9510 :
+    		"\nExpected Error:  9510    Actual:  " + err.eNbr;
+    	assert err.getCause() != null &&
+    		   err.eStackTrace.contains("FileNotFoundException") :
+    		"\nExpected the stack trace:  " + err.eStackTrace;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // ErrorCollector
+    //-------------------------------------------------------------------------
+    private void collectorTests() {
+    	TR.printMsgln("ErrorCollector Testing");
+    	ErrorCollector ec = new ErrorCollector();
+    	err.initErrs();
+
+    	TR.printMsg("  Empty collector:");
+    	assert ec.isEmpty() && ec.size() == 0 && ec.total() == 0 :
+    		"\nExpected an empty collector:  " + ec.total();
+    	assert !ec.toErrs(err, 100, "header\n") :
+    		"\nExpected no errors to fill";
+    	assert err.eType == noEFlag : "\nExpected ErrType:  " + noEFlag +
+    	                              "  Actual:  " + err.eType;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Adding errors:");
+    	ec.add(101, "-a", 3, "Bad value for %s:  %d", "-a", 42);
+    	ec.add(102, null, -1, "100% plain");
+    	assert ec.size() == 2 && ec.total() == 2 && ec.dropped() == 0 :
+    		"\nExpected 2 errors:  " + ec.size() + "  " + ec.total();
+    	assert ec.code(0) == 101 && ec.field(0).equals("-a") &&
+    		   ec.index(0) == 3 : "\nWrong entry 0";
+    	assert ec.message(0).equals("Bad value for -a:  42") :
+    		"\nActual:  " + ec.message(0);
+    	assert ec.message(1).equals("100% plain") :
+    		"\nActual:  " + ec.message(1);
+    	assert ec.toString().equals("Bad value for -a:  42\n100% plain\n") :
+    		"\nActual:  " + ec;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Filling an Errs:");
+    	assert ec.toErrs(err, 100, "header\n") : "\nExpected errors to fill";
+    	assert err.eType == errFlag && err.eNbr == 102 :
+    		"\nExpected Error:  102  Actual:  " + err.eNbr;
+    	assert err.eMessage.equals("header\nBad value for -a:  42\n" +
+    	                           "100% plain\n") :
+    		"\nActual:  " + err.eMessage;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Reusing the collector:");
+    	ec.clear();
+    	assert ec.isEmpty() && ec.size() == 0 : "\nExpected an empty collector";
+    	ec.add(7, "f", 0, "again");
+    	assert ec.size() == 1 && ec.message(0).equals("again") :
+    		"\nActual:  " + ec;
+    	try {
+    		ec.message(1);
+    		assert false : "\nExpected IndexOutOfBoundsException";
+    	} catch (IndexOutOfBoundsException e) {
+    		// expected
+    	}
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    private void capTests() {
+    	TR.printMsgln("Error Cap Testing");
+
+    	TR.printMsg("  Collector cap:");
+    	ErrorCollector ec = new ErrorCollector(2);
+    	for (int i = 0; i < 5; i++) ec.add(i, null, i, "error %d", i);
+    	assert ec.size() == 2 && ec.total() == 5 && ec.dropped() == 3 :
+    		"\nExpected 2 of 5:  " + ec.size() + "  " + ec.total();
+    	assert ec.toString().equals("error 0\nerror 1\n" +
+    	                            "... 3 more errors not kept\n") :
+    		"\nActual:  " + ec;
+    	TR.printMsgln("  - Results as expected");
+
+    	// Args counts all of the errors, but only lists EC_MAX of them
+    	TR.printMsg("  Args error cap:");
+    	Args args = new Args(TTR);
+    	String[] bad = new String[ErrorCollector.EC_MAX + 1];
+    	for (int i = 0; i < bad.length; i++) bad[i] = "-bad" + i;
+    	boolean retVal = args.parseArgs(bad);
+    	assert !retVal : "\nExpected Return:  false    Actual:  " + retVal;
+    	err = args.getErrs();
+    	assert err.eNbr == 10000 + bad.length :
+    		"\nExpected Error:  " + (10000 + bad.length) +
+    		"  Actual:  " + err.eNbr;
+    	assert err.eMessage.startsWith("Invalid arguments::\n" +
+    			"Invalid program argument             :  -bad0\n") &&
+    		   err.eMessage.endsWith("... 1 more errors not kept\n") :
+    		"\nActual:  " + err.eMessage;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = Errs_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = ErrorCollector.getAllVersions(vlist);
+		vlist = FIO.getAllVersions(vlist);
+		vlist = Errs.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
@@ -0,0 +1,326 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import jutils.Errs;
+import jutils.FIO;
+import jutils.MappedLines;
+import jutils.Trace;
+
+/**
+ * The FIO_Test class tests the batched write, memory mapped read and
+ * parallel read routines of FIO.
+ */
+public class FIO_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+	private   int     errFlag      = Errs.ETYPE_ERROR;
+
+	// Class to be tested
+	private FIO      fio;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+    // file used for the tests
+    private File     f             = null;
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for FIO_Test, class for testing FIO.java
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public FIO_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       File I/O Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  FIO_Test:       " + getVersion());
+		TR.printMsgln("  FIO:            " + FIO.getVersion());
+		TR.printMsgln("  MappedLines:    " + MappedLines.getVersion());
+		TR.printMsgln(" ");
+
+		try {
+			f = File.createTempFile("fio_test", ".txt");
+
+			// writing in batches
+			batchTests();
+
+			// reading through a mapped window
+			mappedTests();
+
+			// reading in parallel
+			parallelTests();
+
+		} catch (IOException e) {
+			assert false : "\nUnable to use the test file:  " + e;
+		} finally {
+			if (f != null) f.delete();
+		}
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       File I/O Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Batched writes
+    //-------------------------------------------------------------------------
+    private void batchTests() throws IOException {
+    	TR.printMsgln("Batched Write Testing");
+    	String name = f.getPath();
+
+    	TR.printMsg("  Held until flushed:");
+    	fio = new FIO(TTR);
+    	fio.setBatch(1 << 20, 1L << 30);
+    	boolean retVal = fio.open(name, FIO.FIO_WRITE_BATCH);
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	for (int i = 0; i < 3; i++) fio.println("line " + i);
+    	assert f.length() == 0 : "\nExpected nothing written:  " + f.length();
+    	retVal = fio.flush();
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	assert lines().size() == 3 : "\nExpected 3 lines:  " + lines();
+    	retVal = fio.close();
+    	TestErrs.check(retVal && !fio.isOpen(), fio.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Size threshold:");
+    	fio = new FIO(TTR);
+    	fio.setBatch(10, 1L << 30);
+    	fio.setSyncOnClose(true);
+    	retVal = fio.open(name, FIO.FIO_APPEND_BATCH);
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	fio.println("0123456789");
+    	assert lines().size() == 4 : "\nExpected 4 lines:  " + lines();
+    	fio.print("end");
+    	retVal = fio.close();
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	List<String> l = lines();
+    	assert l.size() == 5 && l.get(0).equals("line 0") &&
+    		   l.get(4).equals("end") : "\nActual:  " + l;
+    	TR.printMsgln("  - Results as expected");
+
+    	// a device that is always full fails when flushed
+    	TR.printMsg("  Failed close:");
+    	File full = new File("/dev/full");
+    	if (full.exists()) {
+    		fio = new FIO(TTR);
+    		retVal = fio.open(full.getPath(), FIO.FIO_WRITE_BATCH);
+    		TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    		fio.println("no room");
+    		retVal = fio.close();
+    		TestErrs.check(!retVal, fio.getErrs(), errFlag, 9550);
+    		assert !fio.isOpen() : "\nExpected the file to be closed";
+    	}
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Memory mapped reads
+    //-------------------------------------------------------------------------
+    private void mappedTests() throws IOException {
+    	TR.printMsgln("Mapped Read Testing");
+    	String name = f.getPath();
+    	String text = "ab\r\ncd\r\r\nlonger line\rx\n\ry\r";
+    	write(text);
+    	List<String> expected = readAll(FIO.FIO_READ, 0);
+
+    	TR.printMsg("  Line ends:");
+    	assert expected.size() == 7 && expected.get(2).isEmpty() &&
+    		   expected.get(5).isEmpty() && expected.get(6).equals("y") :
+    		"\nExpected the BufferedReader lines:  " + expected;
+    	List<String> l = readAll(FIO.FIO_READ_MMAP, 0);
+    	assert l.equals(expected) : "\nExpected:  " + expected +
+    		                        "  Actual:  " + l;
+    	TR.printMsgln("  - Results as expected");
+
+    	// line ends split across windows, and lines bigger than the window
+    	TR.printMsg("  Small windows:");
+    	for (int w = 1; w <= text.length() + 1; w++) {
+    		l = readAll(FIO.FIO_READ_MMAP, w);
+    		assert l.equals(expected) : "\nWindow:  " + w + "  Expected:  " +
+    			                        expected + "  Actual:  " + l;
+    	}
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Line buffer:");
+    	fio = new FIO(TTR);
+    	boolean retVal = fio.open(name, FIO.FIO_READ_MMAP);
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	ByteBuffer bb = fio.lineBuffer();
+    	assert bb != null && bb.remaining() == 0 :
+    		"\nExpected an empty buffer before the first line";
+    	CharSequence view = fio.readlineView();
+    	bb = fio.lineBuffer();
+    	assert view.length() == 2 && view.charAt(1) == 'b' &&
+    		   bb.remaining() == 2 && bb.get(bb.position()) == 'a' :
+    		"\nActual:  " + view;
+    	fio.close();
+    	fio = new FIO(TTR);
+    	view = fio.readlineView();
+    	TestErrs.check(view == null, fio.getErrs(), errFlag, 9565);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Parallel reads
+    //-------------------------------------------------------------------------
+    private void parallelTests() throws IOException {
+    	TR.printMsgln("Parallel Read Testing");
+    	String name = f.getPath();
+    	StringBuilder sb = new StringBuilder();
+    	long chars = 0;
+    	for (int i = 0; i < 10000; i++) {
+    		String line = "line " + i;
+    		sb.append(line).append((i % 2 == 0) ? "\r\n" : "\n");
+    		chars += line.length();
+    	}
+    	write(sb.toString());
+
+    	TR.printMsg("  Chunk results:");
+    	for (int chunks = 0; chunks <= 8; chunks++) {
+    		fio = new FIO(TTR);
+    		long[] r = fio.processLines(name, chunks, () -> new long[2],
+    				(t, line) -> { t[0]++; t[1] += line.length(); },
+    				(a, b) -> { a[0] += b[0]; a[1] += b[1]; return a; });
+    		TestErrs.check(r != null, fio.getErrs(), noEFlag, 0);
+    		assert r[0] == 10000 && r[1] == chars :
+    			"\nChunks:  " + chunks + "  Lines:  " + r[0] +
+    			"  Chars:  " + r[1];
+    	}
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Line consumer:");
+    	fio = new FIO(TTR);
+    	long[] count = new long[1];
+    	boolean retVal = fio.processLines(name, 4, line -> {
+    		synchronized (count) { count[0]++; }
+    	});
+    	TestErrs.check(retVal && count[0] == 10000, fio.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Errors:");
+    	fio = new FIO(TTR);
+    	Object r = fio.processLines(name + ".none", 2, () -> null,
+    			                    (t, line) -> { }, null);
+    	TestErrs.check(r == null, fio.getErrs(), errFlag, 9596);
+    	r = fio.processLines(name, 2, () -> null, (t, line) -> {
+    		throw new IllegalStateException("bad line");
+    	}, null);
+    	TestErrs.check(r == null, fio.getErrs(), errFlag, 9598);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the lines of the test file
+     *
+     * @return List of the lines
+     */
+    private List<String> lines() throws IOException {
+    	return Files.readAllLines(f.toPath());
+    }
+
+    /**
+     * Replaces the test file with the passed text
+     *
+     * @param text String value of the file
+     */
+    private void write(String text) throws IOException {
+    	Files.write(f.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads all of the lines of the test file
+     *
+     * @param type String value of the FIO file type
+     * @param window int value of the mapped window, 0 for the default
+     * @return List of the lines
+     */
+    private List<String> readAll(String type, int window) {
+    	fio = new FIO(TTR);
+    	if (window > 0) fio.setMapWindow(window);
+    	boolean retVal = fio.open(f.getPath(), type);
+    	TestErrs.check(retVal, fio.getErrs(), noEFlag, 0);
+    	List<String> l = new ArrayList<String>();
+    	String line;
+    	while ((line = fio.readline()) != null) l.add(line);
+    	TestErrs.check(fio.close(), fio.getErrs(), noEFlag, 0);
+    	return l;
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = FIO_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = FIO.getAllVersions(vlist);
+		vlist = MappedLines.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
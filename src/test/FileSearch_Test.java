@@ -0,0 +1,552 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import jutils.Errs;
+import jutils.FileEntries;
+import jutils.FileSearch;
+import jutils.Trace;
+
+/**
+ * The FileSearch_Test class tests the parallel loading of directories by
+ * FileSearch. A small directory tree is built in a temporary directory for
+ * the tests, and removed when they are done.
+ */
+public class FileSearch_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+	private   int     errFlag      = Errs.ETYPE_ERROR;
+	private   int     warnFlag     = Errs.ETYPE_WARN;
+
+	// Class to be tested
+	private FileSearch fs;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+    // top of the directory tree used for the tests
+    private Path     root          = null;
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for FileSearch_Test, class for testing FileSearch.java
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public FileSearch_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       File Search Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  FileSearch_Test: " + getVersion());
+		TR.printMsgln("  FileSearch:      " + FileSearch.getVersion());
+		TR.printMsgln("  FileEntries:     " + FileEntries.getVersion());
+		TR.printMsgln(" ");
+
+		try {
+			root = Files.createTempDirectory("fsearch_test");
+			makeTree();
+
+			// loading the directories
+			loadTests();
+
+			// searching the loaded names
+			searchTests();
+
+			// every copy of a name
+			entriesTests();
+
+			// saving and refreshing the index
+			indexTests();
+
+			// keeping the names current
+			liveTests();
+
+		} catch (IOException e) {
+			assert false : "\nUnable to build the test directories:  " + e;
+		} finally {
+			if (fs != null) fs.stopWatch();
+			deleteTree(root);
+		}
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       File Search Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Loading directories
+    //-------------------------------------------------------------------------
+    private void loadTests() throws IOException {
+    	TR.printMsgln("Load Directory Testing");
+
+    	TR.printMsg("  Quiet load:");
+    	fs = new FileSearch(TTR);
+    	boolean retVal = fs.loadDir(root.toFile(), true);
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    	retVal = fs.locateFile("a.txt") && fs.locateFile("B.CFG") &&
+    			 fs.locateFile("c.txt");
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    	retVal = fs.locateFile("sub1");
+    	TestErrs.check(!retVal, fs.getErrs(), warnFlag, 9900);
+    	TR.printMsgln("  - Results as expected");
+
+    	// every directory is reported, by the calling thread
+    	TR.printMsg("  Reported load:");
+    	final Thread caller  = Thread.currentThread();
+    	List<String> printed = Collections.synchronizedList(
+    			                                 new ArrayList<String>());
+    	PrintStream  sysOut  = System.out;
+    	System.setOut(new PrintStream(sysOut, true) {
+    		public void println(String x) {
+    			if (x != null && x.startsWith("Searching directory... "))
+    				printed.add((Thread.currentThread() == caller) ? 
+    						    "caller" : Thread.currentThread().getName());
+    			super.println(x);
+    		}
+    	});
+    	try {
+    		fs = new FileSearch(new Trace((String)null, null));
+    		retVal = fs.loadDir(root.toFile(), false);
+    	} finally {
+    		System.setOut(sysOut);
+    	}
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    	assert printed.size() == 4 && 
+    		   Collections.frequency(printed, "caller") == 4 :
+    		"\nExpected 4 directories reported by the caller:  " + printed;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Not a directory:");
+    	fs = new FileSearch(TTR);
+    	retVal = fs.loadDir(root.resolve("a.txt").toFile(), true);
+    	TestErrs.check(!retVal, fs.getErrs(), errFlag, 9920);
+    	retVal = fs.loadDir(root.resolve("none").toFile(), true);
+    	TestErrs.check(!retVal, fs.getErrs(), errFlag, 9910);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Searching the names
+    //-------------------------------------------------------------------------
+    private void searchTests() {
+    	TR.printMsgln("Name Search Testing");
+    	fs = new FileSearch(TTR);
+    	boolean retVal = fs.loadDir(root.toFile(), true);
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+
+    	TR.printMsg("  Prefix:");
+    	List<String> l = fs.findPrefix("");
+    	assert l.equals(Arrays.asList("a.txt", "B.cfg", "c.txt")) :
+    		"\nActual:  " + l;
+    	l = fs.findPrefix("b");
+    	assert l.equals(Arrays.asList("B.cfg")) : "\nActual:  " + l;
+    	assert fs.findPrefix("d").isEmpty() : "\nExpected no names";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Suffix:");
+    	l = fs.findSuffix(".TXT");
+    	assert l.equals(Arrays.asList("a.txt", "c.txt")) : "\nActual:  " + l;
+    	assert fs.findSuffix(".log").isEmpty() : "\nExpected no names";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Glob:");
+    	l = fs.findGlob("?.c*");
+    	assert l.equals(Arrays.asList("B.cfg")) : "\nActual:  " + l;
+    	l = fs.findGlob("*.t?t");
+    	assert l.equals(Arrays.asList("a.txt", "c.txt")) : "\nActual:  " + l;
+    	l = fs.findGlob("*");
+    	assert l.size() == 3 : "\nActual:  " + l;
+    	l = fs.findGlob("b.CFG");
+    	assert l.equals(Arrays.asList("B.cfg")) : "\nActual:  " + l;
+    	assert fs.findGlob("x*").isEmpty() && fs.findGlob("*x").isEmpty() :
+    		"\nExpected no names";
+    	TR.printMsgln("  - Results as expected");
+
+    	// the sorted names follow each name added, without a rebuild
+    	TR.printMsg("  Added names:");
+    	fs.loadFile("Added.cfg");
+    	l = fs.findSuffix(".cfg");
+    	assert l.equals(Arrays.asList("B.cfg", "Added.cfg")) :
+    		"\nActual:  " + l;
+    	l = fs.findPrefix("A");
+    	assert l.equals(Arrays.asList("a.txt", "Added.cfg")) :
+    		"\nActual:  " + l;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Every copy of a name
+    //-------------------------------------------------------------------------
+    private void entriesTests() {
+    	TR.printMsgln("File Entries Testing");
+
+    	TR.printMsg("  Copies:");
+    	fs = new FileSearch(TTR);
+    	boolean retVal = fs.loadDir(root.toFile(), true);
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    	List<FileEntries.Entry> l = fs.locateAll("A.TXT");
+    	TestErrs.check(l.size() == 2, fs.getErrs(), noEFlag, 0);
+    	FileEntries.Entry top  = entryIn(l, root);
+    	FileEntries.Entry deep = entryIn(l, root.resolve("sub1").resolve("deep"));
+    	assert top != null && top.size == 1 && deep != null && deep.size == 4 :
+    		"\nActual:  " + l;
+    	l = fs.locateAll("none");
+    	TestErrs.check(l.isEmpty(), fs.getErrs(), warnFlag, 9905);
+    	TR.printMsgln("  - Results as expected");
+
+    	// names differing only in case share a chain, but each keeps its case
+    	TR.printMsg("  Names in any case:");
+    	FileEntries fe = new FileEntries();
+    	fe.add("/d1", "Read.me", 1, 10);
+    	fe.add("/d2", "READ.ME", 2, 20);
+    	fe.add("/d2", "read.me", 3, 30);
+    	fe.add("/d2", "read.me", 4, 40);
+    	l = fe.locateAll("read.ME");
+    	assert l.size() == 3 && fe.size() == 3 : "\nActual:  " + l;
+    	FileEntries.Entry e = fe.get("/d2", "read.me");
+    	assert e != null && e.size == 4 && e.mtime == 40 && 
+    		   e.path.endsWith("read.me") : "\nActual:  " + e;
+    	assert fe.get("/d2", "Read.me") == null && fe.get("/d3", "READ.ME") == null :
+    		"\nExpected no entry for a different case or directory";
+    	fe.remove("/d1", "Read.me");
+    	l = fe.locateAll("READ.me");
+    	assert l.size() == 2 && fe.get("/d2", "READ.ME").size == 2 :
+    		"\nActual:  " + l;
+    	fe.add("/d1", "Read.me", 5, 50);
+    	assert fe.locateAll("read.me").size() == 3 : "\nExpected 3 copies";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Many names:");
+    	fe = new FileEntries();
+    	List<String> names = new ArrayList<String>();
+    	for (int i = 0; i < 5000; i++) names.add("file" + i + ".dat");
+    	for (String d : new String[]{"/x", "/y", "/z"}) 
+    		for (String n : names) fe.add(d, n, n.length(), 0);
+    	assert fe.size() == 15000 && fe.dirCount() == 3 : 
+    		"\nActual:  " + fe.size();
+    	l = fe.locateAll("FILE4999.DAT");
+    	assert l.size() == 3 && l.get(0).size == 12 : "\nActual:  " + l;
+    	assert fe.list("/y").size() == 5000 && fe.contains("/y", "file7.dat") :
+    		"\nActual:  " + fe.list("/y").size();
+    	String[] gone = fe.removeDir("/y");
+    	assert gone.length == 5000 && fe.size() == 10000 && fe.dirCount() == 2 &&
+    		   fe.locateAll("file0.dat").size() == 2 && 
+    		   !fe.contains("/y", "file7.dat") && fe.list("/y").isEmpty() :
+    		"\nActual:  " + fe.size();
+    	fe.clear();
+    	assert fe.size() == 0 && fe.locateAll("file0.dat").isEmpty() :
+    		"\nExpected nothing held";
+    	fe.add("/x", "again", 1, 1);
+    	assert fe.locateAll("AGAIN").size() == 1 : "\nExpected 1 copy";
+    	TR.printMsgln("  - Results as expected");
+
+    	// names and directories created and deleted over and over, as in a
+    	// temporary directory, do not make the store grow
+    	TR.printMsg("  Churn:");
+    	fe = new FileEntries();
+    	fe.add("/keep", "kept.txt", 1, 1);
+    	int most = 0;
+    	for (int i = 0; i < 100000; i++) {
+    		String d = "/tmp/run" + (i % 50);
+    		fe.add(d, "tmp" + i + ".dat", i, i);
+    		if (i >= 20) fe.remove("/tmp/run" + ((i - 20) % 50), 
+    				               "tmp" + (i - 20) + ".dat");
+    		if (i % 1000 == 999) fe.removeDir("/tmp/run" + (i % 50));
+    		most = Math.max(most, fe.namesStored());
+    	}
+    	assert fe.dirCount() <= 21 && fe.size() <= 21 && most < 1000 && 
+    		   fe.locateAll("KEPT.TXT").size() == 1 && 
+    		   fe.get("/keep", "kept.txt").size == 1 :
+    		"\nActual:  " + fe.dirCount() + " dirs  " + fe.size() + 
+    		" files  " + most + " names";
+    	fe.add("/tmp/run0", "new.dat", 2, 2);
+    	assert fe.locateAll("tmp99990.dat").size() == 1 &&
+    		   fe.locateAll("tmp0.dat").isEmpty() && 
+    		   fe.list("/tmp/run0").size() >= 1 : 
+    		"\nExpected the files still held";
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Saving and refreshing the index
+    //-------------------------------------------------------------------------
+    private void indexTests() throws IOException {
+    	TR.printMsgln("Index Testing");
+    	Path idx = Files.createTempFile("fsearch_test", ".idx");
+    	try {
+    		TR.printMsg("  Save and load:");
+    		fs = new FileSearch(TTR);
+    		boolean retVal = fs.loadDir(root.toFile(), true);
+    		TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    		retVal = fs.saveIndex(idx.toString());
+    		TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    		fs = new FileSearch(TTR);
+    		retVal = fs.loadIndex(idx.toString());
+    		TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    		assert fs.locateFile("c.txt") && fs.locateAll("a.txt").size() == 2 :
+    			"\nExpected the names of the index";
+    		FileEntries.Entry e = entryIn(fs.locateAll("c.txt"), 
+    				                      root.resolve("sub1"));
+    		assert e != null && e.size == 3 : "\nActual:  " + e;
+    		TR.printMsgln("  - Results as expected");
+
+    		// only directories whose time changed are listed again, so a 
+    		// file changed in place keeps the size of the index
+    		TR.printMsg("  Refresh:");
+    		writeFile(root.resolve("sub2").resolve("new.cfg"), "new");
+    		Files.delete(root.resolve("sub1").resolve("c.txt"));
+    		writeFile(root.resolve("B.cfg"), "changed");
+    		retVal = fs.refreshIndex(true);
+    		TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+    		assert fs.locateFile("new.cfg") && !fs.locateFile("c.txt") :
+    			"\nExpected new.cfg and no c.txt";
+    		e = entryIn(fs.locateAll("B.cfg"), root);
+    		assert e != null && e.size == 2 : "\nActual:  " + e;
+    		TR.printMsgln("  - Results as expected");
+
+    		TR.printMsg("  Errors:");
+    		Path bad = root.resolve("sub2").resolve("bad.idx");
+    		writeFile(bad, "not an index file");
+    		retVal = fs.loadIndex(bad.toString());
+    		TestErrs.check(!retVal, fs.getErrs(), errFlag, 9955);
+    		Files.delete(bad);
+    		retVal = fs.loadIndex(root.resolve("none.idx").toString());
+    		TestErrs.check(!retVal, fs.getErrs(), errFlag, 9950);
+    		assert fs.locateFile("new.cfg") : "\nExpected the index to be kept";
+    		TR.printMsgln("  - Results as expected");
+    	} finally {
+    		Files.delete(idx);
+    		Files.deleteIfExists(root.resolve("sub2").resolve("new.cfg"));
+    		writeFile(root.resolve("sub1").resolve("c.txt"), "ccc");
+    		writeFile(root.resolve("B.cfg"), "bb");
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Live mode
+    //-------------------------------------------------------------------------
+    private void liveTests() throws IOException {
+    	TR.printMsgln("Live Mode Testing");
+    	fs = new FileSearch(TTR);
+    	boolean retVal = fs.loadDir(root.toFile(), true);
+    	TestErrs.check(retVal, fs.getErrs(), noEFlag, 0);
+
+    	TR.printMsg("  Start:");
+    	retVal = fs.startWatch();
+    	TestErrs.check(retVal && fs.isWatching(), fs.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Created:");
+    	writeFile(root.resolve("new.txt"), "n");
+    	Path added = root.resolve("added");
+    	Files.createDirectories(added.resolve("inner"));
+    	writeFile(added.resolve("inner").resolve("nested.txt"), "nn");
+    	assert waitFor("new.txt", true) : "\nExpected new.txt to be found";
+    	assert waitFor("nested.txt", true) : 
+    		"\nExpected a file in a new directory to be found";
+    	// a file added to the new directory after it was loaded
+    	writeFile(added.resolve("inner").resolve("later.txt"), "l");
+    	assert waitFor("later.txt", true) : 
+    		"\nExpected the new directory to be watched";
+    	List<String> l = fs.findSuffix(".txt");
+    	assert l.containsAll(Arrays.asList("new.txt", "nested.txt", 
+    			                           "later.txt")) : "\nActual:  " + l;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Deleted:");
+    	Files.delete(root.resolve("new.txt"));
+    	assert waitFor("new.txt", false) : "\nExpected new.txt to be gone";
+    	deleteTree(added);
+    	assert waitFor("nested.txt", false) && waitFor("later.txt", false) : 
+    		"\nExpected the files of a deleted directory to be gone";
+    	assert fs.locateFile("a.txt") : "\nExpected a.txt to be kept";
+    	l = fs.findGlob("*.txt");
+    	assert l.equals(Arrays.asList("a.txt", "c.txt")) : "\nActual:  " + l;
+    	TR.printMsgln("  - Results as expected");
+
+    	// a file changed in place is read again
+    	TR.printMsg("  Changed:");
+    	writeFile(root.resolve("a.txt"), "changed");
+    	assert waitUntil(() -> {
+    		FileEntries.Entry e = entryIn(fs.locateAll("a.txt"), root);
+    		return e != null && e.size == 7;
+    	}) : "\nExpected the new size of a.txt";
+    	writeFile(root.resolve("a.txt"), "a");
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Stop:");
+    	fs.stopWatch();
+    	assert !fs.isWatching() : "\nExpected live mode to be stopped";
+    	writeFile(root.resolve("after.txt"), "a");
+    	assert !waitFor("after.txt", true) : 
+    		"\nExpected no changes once stopped";
+    	Files.delete(root.resolve("after.txt"));
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    /**
+     * Waits for live mode to find, or lose, a file name
+     *
+     * @param name String value of the file name
+     * @param found boolean <code>true</code> to wait for it to be found
+     * @return boolean <code>true</code> if it happened within a few seconds,
+     *                 or half a second when not watching
+     */
+    private boolean waitFor(String name, boolean found) {
+    	return waitUntil(() -> fs.locateFile(name) == found);
+    }
+
+    /**
+     * Waits for live mode to make a check true
+     *
+     * @param check BooleanSupplier of the check
+     * @return boolean <code>true</code> if it happened within a few seconds,
+     *                 or half a second when not watching
+     */
+    private boolean waitUntil(BooleanSupplier check) {
+    	long end = System.currentTimeMillis() + (fs.isWatching() ? 10000 : 500);
+    	while (!check.getAsBoolean()) {
+    		if (System.currentTimeMillis() > end) return false;
+    		try {
+    			Thread.sleep(20);
+    		} catch (InterruptedException e) {
+    			Thread.currentThread().interrupt();
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+
+    /**
+     * Returns the copy of a file in the passed directory
+     *
+     * @param l List of the copies
+     * @param dir Path of the directory
+     * @return Entry of the copy, or null if there is none
+     */
+    private FileEntries.Entry entryIn(List<FileEntries.Entry> l, Path dir) {
+    	for (FileEntries.Entry e : l) 
+    		if (new File(e.path).getParentFile().toPath().equals(dir)) return e;
+    	return null;
+    }
+
+    /**
+     * Builds the directory tree used for the tests:<br>
+     *   a.txt, B.cfg, sub1/c.txt, sub1/deep/a.txt and an empty sub2
+     */
+    private void makeTree() throws IOException {
+    	writeFile(root.resolve("a.txt"), "a");
+    	writeFile(root.resolve("B.cfg"), "bb");
+    	Files.createDirectories(root.resolve("sub1").resolve("deep"));
+    	Files.createDirectories(root.resolve("sub2"));
+    	writeFile(root.resolve("sub1").resolve("c.txt"), "ccc");
+    	writeFile(root.resolve("sub1").resolve("deep").resolve("a.txt"), "dddd");
+    }
+
+    /**
+     * Writes a file holding the passed text
+     *
+     * @param file Path of the file
+     * @param text String value of the file
+     */
+    private void writeFile(Path file, String text) throws IOException {
+    	Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Removes a directory tree, ignoring any errors
+     *
+     * @param dir Path of the top of the tree, may be null
+     */
+    private void deleteTree(Path dir) {
+    	if (dir == null) return;
+    	try (Stream<Path> paths = Files.walk(dir)) {
+    		paths.sorted(Comparator.reverseOrder())
+    		     .forEach(p -> p.toFile().delete());
+    	} catch (IOException e) {
+    		// nothing more to be done with it
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = FileSearch_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = FileSearch.getAllVersions(vlist);
+		vlist = FileEntries.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
@@ -100,8 +100,10 @@ public class JUtils_Tester {
 
     // Individual tests available for this package
     static public final String ARG_ARGS        = "-ta";   // Args Test
+    static public final String ARG_ARGCONFIG   = "-tac";  // ArgConfig Test
     static public final String ARG_DATES       = "-td";   // Date Test
     static public final String ARG_DATE_INPUT  = "-tdi";  // Date Input Test
+    static public final String ARG_DATES_FAST  = "-tdf";  // Date Fast Path Test
     static public final String ARG_DBGFLAGS    = "-tdbf"; // DebugFlags Test
     static public final String ARG_DEBUGINFO   = "-tdbi"; // DebugInfo Test
     static public final String ARG_ERRS        = "-te";   // Error Test
@@ -125,8 +127,9 @@ public class JUtils_Tester {
     		        ARG_TEST_DEBUG, ARG_TEST_TRACEF, 
     		        ARG_ALL,     	
     		        // Tests available in this package
-    		        ARG_ARGS,       
+    		        ARG_ARGS,       ARG_ARGCONFIG,
     		        ARG_DATES,	 	ARG_DATE_INPUT,
+    		        ARG_DATES_FAST,
     		        ARG_DBGFLAGS,
     		        ARG_DEBUGINFO,	ARG_ERRS,       ARG_FILESEARCH, 
     		        ARG_FIO,        ARG_GUIINFO,	ARG_HELPT,
@@ -139,8 +142,10 @@ public class JUtils_Tester {
     private static final List<String> Tests  
     = Arrays.asList(
     				ARG_DATE_INPUT,
+                    ARG_DATES_FAST,
     				ARG_ERRS,
                     ARG_ARGS,
+                    ARG_ARGCONFIG,
     		        ARG_DATES,
                     ARG_TRACE,
                     ARG_FILESEARCH,   
@@ -158,10 +163,15 @@ public class JUtils_Tester {
 	// Classes being tested will have their "Debug Status" set in the 
     // debug.ini file (or will be set "globally" by a program parameter)
     private Args_Test           argsTest;
+    private ArgConfig_Test      argConfigTest;
+    private DatesFast_Test      datesFastTest;
 //    private Dates_Test          datesTest;
     private Dates_Input         datesInput;
-//	private Errs_Test           errsTest;
-//    private FileSearch_Test		fileSearchTest;
+	private Errs_Test           errsTest;
+	private WindowRpt_Test      windowRptTest;
+	private FIO_Test            fioTest;
+	private Trace_Test          traceTest;
+    private FileSearch_Test		fileSearchTest;
 //    private Help_Test           helpTest;
 
 // needed?    
@@ -370,6 +380,10 @@ public class JUtils_Tester {
     			args.defineArg(ARG_ARGS,        "Argument Test",
 					           Args.AT_BOOLEAN, true); 
     			break;
+    		case ARG_ARGCONFIG:   
+    			args.defineArg(ARG_ARGCONFIG,   "Argument Config Test",
+					           Args.AT_BOOLEAN, true); 
+    			break;
 
     		case ARG_DATES:  
     			args.defineArg(ARG_DATES,       "Date Test",
@@ -420,6 +434,10 @@ public class JUtils_Tester {
     			args.defineArg(ARG_TRACETHREAD, "TraceThread Test",
 				           Args.AT_BOOLEAN, 	true); 
     			break;
+    		case ARG_DATES_FAST:
+    			args.defineArg(ARG_DATES_FAST,  "Date Fast Path Test",
+				           Args.AT_BOOLEAN, 	true); 
+    			break;
     		case ARG_WINDOWRPT:
     			args.defineArg(ARG_WINDOWRPT,   "Window Report Test",
 				           Args.AT_BOOLEAN, 	true); 
@@ -559,6 +577,13 @@ public class JUtils_Tester {
     			}
     			break;
 
+    		case ARG_ARGCONFIG:
+    			if (testAll || doThisTest) {
+    				argConfigTest = new ArgConfig_Test(ti);
+    				argConfigTest.performTests();
+    			}
+    			break;
+
 
     		case ARG_DATE_INPUT: // ongoing
     			if (!testAll && doThisTest) {
@@ -566,7 +591,14 @@ public class JUtils_Tester {
     				datesInput.performTests();
     			}
     			break;
- /*   			
+
+    		case ARG_DATES_FAST:
+    			if (testAll || doThisTest) {
+    				datesFastTest = new DatesFast_Test(ti);
+    				datesFastTest.performTests();
+    			}
+    			break;
+
     		case ARG_ERRS:   // completed
     			if (testAll || doThisTest) {
     				errsTest = new Errs_Test(ti);
@@ -574,26 +606,42 @@ public class JUtils_Tester {
     			}
     			break;
 
-    		case ARG_DATES: // completed
+    		case ARG_FILESEARCH:   // completed
     			if (testAll || doThisTest) {
-    				datesTest = new Dates_Test(ti);
-    				datesTest.performTests();
+    				fileSearchTest = new FileSearch_Test(ti);
+    				fileSearchTest.performTests();
     			}
     			break;
-    			
-    		case ARG_FIO:  
+
+    		case ARG_WINDOWRPT:
     			if (testAll || doThisTest) {
-//    				fioT = new FIO_Test(ti);
-//    				fioT.performTests();
+    				windowRptTest = new WindowRpt_Test(ti);
+    				windowRptTest.performTests();
     			}
     			break;
 
-    		case ARG_FILESEARCH:   // completed
+    		case ARG_FIO:
     			if (testAll || doThisTest) {
-    				fileSearchTest = new FileSearch_Test(ti);
-    				fileSearchTest.performTests();
+    				fioTest = new FIO_Test(ti);
+    				fioTest.performTests();
+    			}
+    			break;
+
+    		case ARG_TRACE:
+    			if (testAll || doThisTest) {
+    				traceTest = new Trace_Test(ti);
+    				traceTest.performTests();
+    			}
+    			break;
+ /*   			
+
+    		case ARG_DATES: // completed
+    			if (testAll || doThisTest) {
+    				datesTest = new Dates_Test(ti);
+    				datesTest.performTests();
     			}
     			break;
+    			
     		case ARG_HELPT:
     			if (testAll || doThisTest) {
     				helpTest = new Help_Test(ti);
@@ -698,10 +746,16 @@ public class JUtils_Tester {
 		
 		// Add the Test Classes, classes being tested will be added by them
 		vlist = Args_Test.getAllVersions(vlist);
+		vlist = ArgConfig_Test.getAllVersions(vlist);
 //		vlist = Dates_Test.getAllVersions(vlist);
 //		vlist = Dates_Input.getAllVersions(vlist);
-//		vlist = Errs_Test.getAllVersions(vlist);
-//		vlist = FileSearch_Test.getAllVersions(vlist);
+		vlist = Errs_Test.getAllVersions(vlist);
+		vlist = WindowRpt_Test.getAllVersions(vlist);
+		vlist = TestErrs.getAllVersions(vlist);
+		vlist = FIO_Test.getAllVersions(vlist);
+		vlist = Trace_Test.getAllVersions(vlist);
+		vlist = DatesFast_Test.getAllVersions(vlist);
+		vlist = FileSearch_Test.getAllVersions(vlist);
 //		vlist = Help_Test.getAllVersions(vlist);
 
 		
@@ -0,0 +1,73 @@
+
+import java.util.LinkedHashMap;
+
+import jutils.Errs;
+
+/**
+ * The TestErrs class holds the check shared by the test classes:  that a
+ * result was as expected and that the tested class's error values are the
+ * expected ones.
+ */
+public final class TestErrs {
+	protected final static String    version      = "Version 14.80";
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	private TestErrs() {
+	}
+
+    /**
+     * Verifies a result and the error values of the tested class
+     *
+     * @param ok boolean <code>true</code> if the result was as expected
+     * @param err Errs of the tested class, from its getErrs()
+     * @param expEType int value of the expected Errs.eType
+     * @param expErr   int value of the expected Errs.eNbr
+     */
+    static void check(boolean ok, Errs err, int expEType, int expErr) {
+    	assert ok : "\nUnexpected result, error:  " + err.eMessage;
+    	assert err.eType == expEType  :
+    	    "\nExpected ErrType:  " + expEType + "  Actual:  " + err.eType;
+    	assert err.eNbr == expErr  :
+		    "\nExpected Error:  "   + expErr   + "  Actual:  " + err.eNbr;
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. If the class file name and version is already in the list, 
+     * it does not add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this class
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = TestErrs.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+    	return vlist;
+	}
+}
@@ -0,0 +1,347 @@
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jutils.DebugHandle;
+import jutils.DebugRegistry;
+import jutils.Errs;
+import jutils.FIO;
+import jutils.Trace;
+import jutils.TraceBuffer;
+
+/**
+ * The Trace_Test class tests the debug methods of Trace, and the debug
+ * flags and handles they use.
+ */
+public class Trace_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// debug flag used for the tests
+	private   final static String  CODE       = "TTST";
+	private   final static String  PRE        = "Trace_Test";
+
+	// Class to be tested
+	private Trace    tt;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+    // number of times a Supplier was called
+    private int      calls         = 0;
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for Trace_Test, class for testing the debug methods of
+	 * Trace.java
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public Trace_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Trace Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  Trace_Test:     " + getVersion());
+		TR.printMsgln("  Trace:          " + Trace.getVersion());
+		TR.printMsgln("  DebugHandle:    " + DebugHandle.getVersion());
+		TR.printMsgln("  DebugRegistry:  " + DebugRegistry.getVersion());
+		TR.printMsgln("  TraceBuffer:    " + TraceBuffer.getVersion());
+		TR.printMsgln(" ");
+
+		// a Trace of its own, so its flags are not those of TTR
+		tt = new Trace((String)null, null);
+
+		// messages built only when debugging
+		deferredTests();
+
+		// flags shared, overridden and copied
+		registryTests();
+
+		// writing a Trace file in the background
+		asyncTests();
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Trace Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Deferred debug messages
+    //-------------------------------------------------------------------------
+    private void deferredTests() {
+    	TR.printMsgln("Deferred Message Testing");
+    	DebugHandle dh = tt.debugHandle(CODE);
+    	Supplier<String> msg = () -> { calls++; return "deferred"; };
+
+    	TR.printMsg("  Debugging off:");
+    	tt.setDF(CODE, false);
+    	calls = 0;
+    	tt.debugMsgln(CODE, PRE, msg);
+    	tt.debugFmt(CODE, PRE, "title", msg);
+    	tt.debugErr(CODE, PRE, err, msg);
+    	tt.debugMsgln(dh, PRE, msg);
+    	tt.debugFmt(dh, PRE, "title", msg);
+    	tt.debugErr(dh, PRE, err, msg);
+    	assert calls == 0 : "\nExpected no Supplier calls:  " + calls;
+    	assert !dh.isOn() : "\nExpected the handle to be off";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Debugging on:");
+    	tt.setDF(CODE, true);
+    	assert dh.isOn() : "\nExpected the handle to follow setDF";
+    	calls = 0;
+    	tt.debugMsgln(CODE, PRE, msg);
+    	tt.debugFmt(dh, PRE, "title", msg);
+    	tt.debugErr(dh, PRE, err, msg);
+    	assert calls == 3 : "\nExpected 3 Supplier calls:  " + calls;
+    	TR.printMsgln("  - Results as expected");
+
+    	// a null value binds to the Supplier overloads
+    	TR.printMsg("  Null values:");
+    	try {
+    		tt.debugFmt(CODE, PRE, "title", null);
+    		tt.debugFmt(dh, PRE, "title", null);
+    		tt.debugMsgln(CODE, PRE, (Supplier<String>) null);
+    		tt.debugErr(dh, PRE, err, (Supplier<String>) null);
+    	} catch (NullPointerException e) {
+    		assert false : "\nUnexpected NullPointerException";
+    	}
+    	tt.setDF(CODE, false);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Debug registries and handles
+    //-------------------------------------------------------------------------
+    private void registryTests() {
+    	TR.printMsgln("Debug Registry Testing");
+
+    	TR.printMsg("  Shared flags:");
+    	Trace       t2 = new Trace((String)null, tt);
+    	DebugHandle h2 = t2.debugHandle(CODE);
+    	assert t2.debugRegistry() == tt.debugRegistry() :
+    		"\nExpected the registry to be shared";
+    	tt.setDF(CODE, true);
+    	assert t2.isDebug(CODE) && h2.isOn() :
+    		"\nExpected the flag to be seen by the sharing Trace";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Local flags:");
+    	t2.setLocalDF(CODE, false);
+    	assert !t2.isDebug(CODE) && !h2.isOn() && tt.isDebug(CODE) :
+    		"\nExpected the override for the one Trace only";
+    	t2.setLocalDF(CODE, null);
+    	assert t2.isDebug(CODE) && h2.isOn() :
+    		"\nExpected the shared flag again";
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Copied flags:");
+    	Trace       t3 = new Trace((String)null, tt);
+    	t3.useDebugRegistry(tt.debugRegistry().copy());
+    	DebugHandle h3 = t3.debugHandle(CODE);
+    	assert h3.isOn() : "\nExpected the copy to have the flag";
+    	tt.setDF(CODE, false);
+    	assert !h2.isOn() && h3.isOn() :
+    		"\nExpected the copy not to be shared";
+    	TR.printMsgln("  - Results as expected");
+
+    	// the copy knows the file already read, so only changes are applied
+    	TR.printMsg("  Copied file:");
+    	File ini = null;
+    	try {
+    		ini = File.createTempFile("trace_test", ".ini");
+    		writeIni(ini, "on");
+    		tt.getDebugFlags(ini.getPath(), false);
+    		assert tt.isDebug(CODE) : "\nExpected the file to set the flag";
+    		Trace t4 = new Trace((String)null, tt);
+    		t4.useDebugRegistry(tt.debugRegistry().copy());
+    		t4.setDF(CODE, false);
+    		List<String> changed = t4.reloadDebugFlags();
+    		assert changed != null && changed.isEmpty() && !t4.isDebug(CODE) :
+    			"\nExpected no changes on reload:  " + changed;
+    		t4.setDF(CODE, true);
+    		writeIni(ini, "off");
+    		changed = t4.reloadDebugFlags();
+    		assert changed != null && changed.size() == 1 &&
+    			   !t4.isDebug(CODE) && tt.isDebug(CODE) :
+    			"\nExpected the changed record only:  " + changed;
+    	} catch (IOException e) {
+    		assert false : "\nUnable to write the debug file:  " + e;
+    	} finally {
+    		if (ini != null) ini.delete();
+    	}
+    	tt.setDF(CODE, false);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Asynchronous Trace files
+    //-------------------------------------------------------------------------
+    private void asyncTests() {
+    	TR.printMsgln("Asynchronous Trace Testing");
+    	File f = null;
+    	try {
+    		f = File.createTempFile("trace_test", ".log");
+
+    		TR.printMsg("  Trace file:");
+    		int   writers = writerThreads();
+    		Trace at      = new Trace(f.getPath(), null);
+    		boolean retVal = at.setAsync(4, TraceBuffer.TB_BLOCK);
+    		assert retVal : "\nExpected Return:  true    Actual:  " + retVal;
+    		for (int i = 0; i < 1000; i++) at.traceMsgln("line " + i);
+    		at.flush();
+    		List<String> lines = Files.readAllLines(f.toPath());
+    		int n = 0;
+    		for (String line : lines) {
+    			if (!line.startsWith("line ")) continue;
+    			assert line.equals("line " + n) :
+    				"\nExpected:  line " + n + "  Actual:  " + line;
+    			n++;
+    		}
+    		assert n == 1000 : "\nExpected 1000 lines:  " + n;
+    		assert at.asyncDropped() == 0 : "\nExpected no dropped lines";
+    		at.close();
+    		assert writerThreads() == writers :
+    			"\nExpected the writer thread to end on close";
+    		retVal = at.setAsync(4, "X");
+    		assert !retVal && at.getErrs().eNbr == 9200 :
+    			"\nExpected Error:  9200  Actual:  " + at.getErrs().eNbr;
+    		TR.printMsgln("  - Results as expected");
+
+    		// not started, so only written by shutdown()
+    		TR.printMsg("  Full buffer:");
+    		assert bufferText(f, TraceBuffer.TB_DROP_NEW).equals("a|b|") :
+    			"\nExpected the new message dropped";
+    		assert bufferText(f, TraceBuffer.TB_DROP_OLD).equals("b|c|") :
+    			"\nExpected the oldest message dropped";
+    		TR.printMsgln("  - Results as expected");
+    	} catch (IOException e) {
+    		assert false : "\nUnable to use the trace file:  " + e;
+    	} finally {
+    		if (f != null) f.delete();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    /**
+     * Returns the number of TraceBuffer writer threads running
+     *
+     * @return int value of the number of threads
+     */
+    private int writerThreads() {
+    	int n = 0;
+    	for (Thread t : Thread.getAllStackTraces().keySet())
+    		if (t.getName().equals("TraceBuffer") && t.isAlive()) n++;
+    	return n;
+    }
+
+    /**
+     * Puts 3 messages in a TraceBuffer of 2, and returns what was written
+     *
+     * @param f File written to
+     * @param policy String value of the full policy
+     * @return String value of the lines written, each followed by "|"
+     */
+    private String bufferText(File f, String policy) throws IOException {
+    	FIO fio = new FIO(TTR);
+    	boolean retVal = fio.open(f.getPath(), FIO.FIO_WRITE);
+    	assert retVal : "\nUnable to open " + f;
+    	TraceBuffer buf = new TraceBuffer(fio, 2, policy);
+    	boolean c = buf.put("a", true) & buf.put("b", true) & 
+    			    buf.put("c", true);
+    	assert c == policy.equals(TraceBuffer.TB_DROP_OLD) &&
+    		   buf.dropped() == 1 : "\nExpected one dropped:  " + buf.dropped();
+    	buf.shutdown();
+    	assert !buf.put("d", true) : "\nExpected no messages after shutdown";
+    	fio.close();
+    	return String.join("|", Files.readAllLines(f.toPath())) + "|";
+    }
+
+    /**
+     * Writes a debug.ini file with the single test flag
+     *
+     * @param ini File to be written
+     * @param value String value of the flag
+     */
+    private void writeIni(File ini, String value) throws IOException {
+    	FileWriter w = new FileWriter(ini);
+    	try {
+    		w.write("* Trace_Test debug flags\n");
+    		w.write(CODE + "\tTest\tTrace_Test\tTrace Test\t" + value + "\n");
+    	} finally {
+    		w.close();
+    	}
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = Trace_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = DebugHandle.getAllVersions(vlist);
+		vlist = DebugRegistry.getAllVersions(vlist);
+		vlist = Trace.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}
@@ -0,0 +1,315 @@
+
+import java.util.LinkedHashMap;
+
+import jutils.Errs;
+import jutils.LineLimits;
+import jutils.LineStore;
+import jutils.Trace;
+import jutils.WindowRpt;
+
+/**
+ * The WindowRpt_Test class tests the parts of WindowRpt that do not need a
+ * display:  the limits on the text kept (LineLimits) and the lines of the
+ * line view (LineStore). The text of the window is stood in for by a 
+ * StringBuilder, cut the same way the window cuts its text.
+ */
+public class WindowRpt_Test {
+	protected final static String    version      = "Version 14.80";
+
+	// error numbers and messages
+	private   int     noEFlag      = Errs.ETYPE_NONE;
+
+	// Classes to be tested
+	private LineLimits limits;
+	private LineStore  store;
+
+	// Support classes
+	private Errs     err           = new Errs();
+    private Trace    TR            = null;     // Trace for this class
+    private Trace    TTR           = null;     // Trace for this Tested Class
+
+    // stands in for the text of the window
+    private StringBuilder text     = new StringBuilder();
+
+
+	// make sure assertions are enabled
+	static {
+		boolean assertsEnabled = false;
+		assert assertsEnabled = true; // Intentional side effect!!!
+		if (!assertsEnabled)
+			throw new RuntimeException("Asserts must be enabled!!!");
+	}
+
+	//-------------------------------------------------------------------------
+    // Constructor
+    //-------------------------------------------------------------------------
+	/**
+	 * Constructor for WindowRpt_Test, class for testing WindowRpt.java
+     *
+     * @param ti TraceInfo needed for tracing this test and the tested class
+	 */
+	public WindowRpt_Test(TraceInfo ti) {
+    	// extract the trace information needed
+    	TR  = ti.TR;  // Trace for THIS class
+    	TTR = ti.TTR; // Trace for the tested class
+
+    	err.initErrs();
+	}
+
+    //-------------------------------------------------------------------------
+    // Testing the Class
+    //-------------------------------------------------------------------------
+    public void performTests(){
+
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Window Report Test - Start");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln("Version Info:");
+		TR.printMsgln("  WindowRpt_Test: " + getVersion());
+		TR.printMsgln("  WindowRpt:      " + WindowRpt.getVersion());
+		TR.printMsgln("  LineLimits:     " + LineLimits.getVersion());
+		TR.printMsgln("  LineStore:      " + LineStore.getVersion());
+		TR.printMsgln(" ");
+
+		// limiting the text kept
+		trimTests();
+
+		// the lines of the line view
+		try {
+			storeTests();
+		} finally {
+			if (store != null) store.close();
+		}
+
+        TR.printMsgln(" ");
+		TR.printMsgln("----------------------------------------------------------");
+		TR.printMsgln(">>>>>>>>>>>       Window Report Test - Finished");
+		TR.printMsgln("----------------------------------------------------------");
+	}
+
+    //-------------------------------------------------------------------------
+    // Limits on the text kept
+    //-------------------------------------------------------------------------
+    private void trimTests() {
+    	TR.printMsgln("Text Limit Testing");
+
+    	TR.printMsg("  No limits:");
+    	reset();
+    	append("1\n2\n3\n", 0, 0);
+    	assert text.toString().equals("1\n2\n3\n") : "\nActual:  " + text;
+    	TR.printMsgln("  - Results as expected");
+
+    	// the empty line after the last new line is not counted
+    	TR.printMsg("  Most lines:");
+    	reset();
+    	append("1\n2\n3\n4\n5\n", 3, 0);
+    	assert text.toString().equals("3\n4\n5\n") : "\nActual:  " + text;
+    	append("6", 3, 0);
+    	assert text.toString().equals("4\n5\n6") : "\nActual:  " + text;
+    	append("\n", 3, 0);
+    	assert text.toString().equals("4\n5\n6\n") : "\nActual:  " + text;
+    	TR.printMsgln("  - Results as expected");
+
+    	// whole lines are removed, unless one line is over the limit
+    	TR.printMsg("  Most characters:");
+    	reset();
+    	append("aa\nbb\ncc\n", 0, 5);
+    	assert text.toString().equals("cc\n") : "\nActual:  " + text;
+    	append("abcdefghij", 0, 4);
+    	assert text.toString().equals("ghij") : "\nActual:  " + text;
+    	append("kl\nm", 0, 4);
+    	assert text.toString().equals("m") : "\nActual:  " + text;
+    	TR.printMsgln("  - Results as expected");
+
+    	// more lines than the first ring of line starts holds
+    	TR.printMsg("  Many lines:");
+    	reset();
+    	StringBuilder all = new StringBuilder();
+    	for (int i = 0; i < 1000; i++) {
+    		String line = "line " + i + "\n";
+    		all.append(line);
+    		append(line, (i < 500) ? 0 : 100, 0);
+    	}
+    	assert text.toString().startsWith("line 900\n") &&
+    		   text.toString().endsWith("line 999\n") &&
+    		   text.length() == all.length() - all.indexOf("line 900\n") :
+    		"\nExpected the last 100 lines:  " + text.length();
+    	append("x", 0, 6);
+    	assert text.toString().equals("x") : "\nActual:  " + text;
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Reset:");
+    	reset();
+    	append("one\ntwo\n", 1, 0);
+    	assert text.toString().equals("two\n") : "\nActual:  " + text;
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Lines of the line view
+    //-------------------------------------------------------------------------
+    private void storeTests() {
+    	TR.printMsgln("Line Store Testing");
+
+    	// more lines than are kept in memory, so most are read from the file
+    	TR.printMsg("  Add and get:");
+    	store = new LineStore();
+    	for (int i = 0; i < 5000; i++) {
+    		String  line   = "Line " + i + ((i % 7 == 0) ? " seven" : "");
+    		boolean retVal = store.add(line);
+    		TestErrs.check(retVal, store.getErrs(), noEFlag, 0);
+    	}
+    	assert store.size() == 5000 : "\nActual:  " + store.size();
+    	for (int i : new int[]{0, 1, 1023, 1024, 2500, 4999}) 
+    		assert store.get(i).startsWith("Line " + i) : 
+    			"\nLine:  " + i + "  Actual:  " + store.get(i);
+    	assert store.get(14).equals("Line 14 seven") : 
+    		"\nActual:  " + store.get(14);
+    	try {
+    		store.get(5000);
+    		assert false : "\nExpected IndexOutOfBoundsException";
+    	} catch (IndexOutOfBoundsException e) {
+    		// expected
+    	}
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Find:");
+    	int found = store.find("SEVEN", 15, true, true);
+    	TestErrs.check(found == 21, store.getErrs(), noEFlag, 0);
+    	found = store.find("SEVEN", 15, true, false);
+    	TestErrs.check(found == -1, store.getErrs(), noEFlag, 0);
+    	found = store.find("seven", 20, false, false);
+    	TestErrs.check(found == 14, store.getErrs(), noEFlag, 0);
+    	found = store.find("Line 4998", 0, true, false);
+    	TestErrs.check(found == 4998, store.getErrs(), noEFlag, 0);
+    	found = store.find("Line 3", 4999, false, false);
+    	TestErrs.check(found == 3999, store.getErrs(), noEFlag, 0);
+    	found = store.find("none", 0, true, true);
+    	TestErrs.check(found == -1, store.getErrs(), noEFlag, 0);
+    	found = store.find("", 0, true, true);
+    	TestErrs.check(found == -1, store.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+
+    	// a line longer than a block of the file
+    	TR.printMsg("  Long line:");
+    	StringBuilder sb = new StringBuilder();
+    	while (sb.length() <= LineStore.LS_BUFFER * 2) sb.append("abcdefgh");
+    	sb.append("tail");
+    	boolean retVal = store.add(sb.toString());
+    	TestErrs.check(retVal, store.getErrs(), noEFlag, 0);
+    	store.add("after");
+    	found = store.find("TAIL", 0, true, true);
+    	TestErrs.check(found == 5000, store.getErrs(), noEFlag, 0);
+    	found = store.find("after", 0, true, false);
+    	TestErrs.check(found == 5001, store.getErrs(), noEFlag, 0);
+    	assert store.get(5000).equals(sb.toString()) : "\nWrong long line";
+    	TR.printMsgln("  - Results as expected");
+
+    	// a search that is no longer wanted stops
+    	TR.printMsg("  Interrupted:");
+    	Thread.currentThread().interrupt();
+    	found = store.find("after", 0, true, false);
+    	boolean wasSet = Thread.interrupted();
+    	assert found == -1 && wasSet : 
+    		"\nExpected the search to stop:  " + found;
+    	TR.printMsgln("  - Results as expected");
+
+    	// lines are added while another thread searches
+    	TR.printMsg("  Add while finding:");
+    	int[] result = {0};
+    	Thread searcher = new Thread(() -> {
+    		for (int i = 0; i < 20; i++) 
+    			result[0] += store.find("missing", 0, true, true);
+    	});
+    	searcher.start();
+    	for (int i = 0; i < 1000; i++) store.add("more " + i);
+    	try {
+    		searcher.join();
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
+    	assert result[0] == -20 && store.size() == 6002 &&
+    		   store.get(6001).equals("more 999") :
+    		"\nActual:  " + result[0] + "  " + store.size();
+    	TR.printMsgln("  - Results as expected");
+
+    	TR.printMsg("  Clear and close:");
+    	store.clear();
+    	TestErrs.check(store.size() == 0, store.getErrs(), noEFlag, 0);
+    	found = store.find("Line", 0, true, true);
+    	TestErrs.check(found == -1, store.getErrs(), noEFlag, 0);
+    	store.add("new");
+    	assert store.size() == 1 && store.get(0).equals("new") :
+    		"\nExpected 1 line after clear";
+    	store.close();
+    	assert store.size() == 0 : "\nExpected no lines after close";
+    	retVal = store.add("reopened");
+    	TestErrs.check(retVal && store.get(0).equals("reopened") &&
+    			 store.find("OPEN", 0, true, true) == 0, store.getErrs(), noEFlag, 0);
+    	TR.printMsgln("  - Results as expected");
+    }
+
+    //-------------------------------------------------------------------------
+    // Helper methods
+    //-------------------------------------------------------------------------
+    /**
+     * Starts a new, empty text
+     */
+    private void reset() {
+    	if (limits == null) limits = new LineLimits();
+    	else                limits.reset();
+    	text.setLength(0);
+    }
+
+    /**
+     * Appends to the text and cuts it to the limits, as the window does
+     *
+     * @param s String value to be appended
+     * @param lines int value of the most lines kept, 0 for no limit
+     * @param chars int value of the most characters kept, 0 for no limit
+     */
+    private void append(String s, int lines, int chars) {
+    	text.append(s);
+    	limits.add(s);
+    	int cut = limits.trim(lines, chars);
+    	assert cut >= 0 && cut <= text.length() : "\nBad cut:  " + cut;
+    	text.delete(0, cut);
+    }
+
+    //-------------------------------------------------------------------------
+    // Testing program Version Methods
+    //     Static because they are not specific to an instance
+    //-------------------------------------------------------------------------
+	/**  Returns the version number of this class.
+     *
+     * @return string value of version number
+     */
+    static public String getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns list of mapped pairs of class file names and the version
+     * number. It also adds all called routines to the list. If the
+     * class file name and version is already in the list, it does not
+     * add them, it simply returns.
+     *
+     * @param  vlist Map of the current class/versions to be appended to
+     * @return Map of the class/version values for this and all called
+     *                routines
+     */
+	public static LinkedHashMap<String, String>
+	         getAllVersions (LinkedHashMap<String, String> vlist) {
+		String v = WindowRpt_Test.class.getName();
+		// if it already exists, just return
+		if (vlist.containsKey(v)) {
+			return vlist;
+		}
+		//add it to the list
+		vlist.put(v, getVersion());
+
+		vlist = WindowRpt.getAllVersions(vlist);
+
+    	return vlist;
+	}
+}